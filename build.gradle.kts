@@ -2,6 +2,9 @@ plugins {
     java
     idea
     application
+
+    // https://github.com/melix/jmh-gradle-plugin
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "github.businessdirt"
@@ -16,6 +19,10 @@ java.toolchain.languageVersion.set(JavaLanguageVersion.of(24))
 dependencies {
     compileOnly("org.jetbrains:annotations:26.0.2-1")
     testCompileOnly("org.jetbrains:annotations:26.0.2-1")
+    jmhCompileOnly("org.jetbrains:annotations:26.0.2-1")
+
+    // writes META-INF/jasper/listeners.idx so the EventBus and CommandRegistry can skip classpath scanning
+    annotationProcessor(project(":processor"))
 
     // https://junit.org/
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
@@ -32,6 +39,14 @@ dependencies {
     implementation("org.apache.logging.log4j:log4j-slf4j2-impl:2.21.0")
 }
 
+// benchmarks live in src/jmh/java, run them with ./gradlew jmh
+jmh {
+    jmhVersion.set("1.37")
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+}
+
 tasks {
     test {
         useJUnitPlatform()
@@ -44,4 +59,16 @@ tasks {
         options.encoding = "UTF-8"
         options.compilerArgs.add("-Xlint:all")
     }
-}
\ No newline at end of file
+
+    compileJava {
+        // the listener index processor looks at every type but intentionally claims no annotations
+        options.compilerArgs.add("-Xlint:-processing")
+    }
+
+    // stores the results of the last ./gradlew jmh run as the baseline later runs are compared against
+    register<Copy>("jmhBaseline") {
+        from(layout.buildDirectory.file("results/jmh/results.json"))
+        into(layout.projectDirectory.dir("src/jmh"))
+        rename { "baseline.json" }
+    }
+}
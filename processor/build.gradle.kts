@@ -0,0 +1,38 @@
+plugins {
+    java
+}
+
+group = "github.businessdirt"
+version = "0.1.0"
+
+base.archivesName.set("jasper-processor")
+
+repositories {
+    mavenCentral()
+}
+
+java.toolchain.languageVersion.set(JavaLanguageVersion.of(24))
+
+dependencies {
+    compileOnly("org.jetbrains:annotations:26.0.2-1")
+    testCompileOnly("org.jetbrains:annotations:26.0.2-1")
+
+    // https://junit.org/
+    testImplementation(platform("org.junit:junit-bom:5.10.0"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+tasks {
+    test {
+        useJUnitPlatform()
+        testLogging {
+            events("failed")
+        }
+    }
+
+    withType<JavaCompile> {
+        options.encoding = "UTF-8"
+        options.compilerArgs.add("-Xlint:all")
+    }
+}
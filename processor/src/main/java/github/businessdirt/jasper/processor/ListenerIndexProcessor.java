@@ -0,0 +1,139 @@
+package github.businessdirt.jasper.processor;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Writes an index of listener owners, events and command sources to {@value #INDEX_LOCATION} at compile time.
+ * <p>
+ * Every line of the index consists of a kind and the binary name of a class, separated by a space:
+ * <ul>
+ *     <li>{@code listener} - a class that declares or inherits a public method annotated with {@code @HandleEvent}</li>
+ *     <li>{@code event} - a subtype of {@code Event}</li>
+ *     <li>{@code source} - a subtype of {@code CommandSource}</li>
+ * </ul>
+ * The Jasper types are referenced by name, so this processor does not depend on the Jasper artifact.
+ */
+@SupportedAnnotationTypes("*")
+public class ListenerIndexProcessor extends AbstractProcessor {
+
+    public static final String INDEX_LOCATION = "META-INF/jasper/listeners.idx";
+
+    static final String HANDLE_EVENT = "github.businessdirt.jasper.events.system.HandleEvent";
+    static final String EVENT = "github.businessdirt.jasper.events.system.Event";
+    static final String COMMAND_SOURCE = "github.businessdirt.jasper.commands.CommandSource";
+
+    // kind -> binary names, sorted so the index is reproducible
+    private final Map<String, Set<String>> entries = new TreeMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(
+            @NotNull Set<? extends TypeElement> annotations,
+            @NotNull RoundEnvironment roundEnv
+    ) {
+        if (roundEnv.processingOver()) {
+            this.writeIndex();
+            return false;
+        }
+
+        TypeElement event = this.processingEnv.getElementUtils().getTypeElement(EVENT);
+        TypeElement commandSource = this.processingEnv.getElementUtils().getTypeElement(COMMAND_SOURCE);
+
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            this.collect(type, event, commandSource);
+        }
+
+        // other processors may still want to see the annotations
+        return false;
+    }
+
+    private void collect(
+            @NotNull TypeElement type,
+            @Nullable TypeElement event,
+            @Nullable TypeElement commandSource
+    ) {
+        String name = this.processingEnv.getElementUtils().getBinaryName(type).toString();
+
+        if (this.isSubtype(type, event)) this.add("event", name);
+        if (this.isSubtype(type, commandSource)) this.add("source", name);
+        if (this.hasListenerMethods(type)) this.add("listener", name);
+
+        for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+            this.collect(nested, event, commandSource);
+        }
+    }
+
+    private boolean isSubtype(
+            @NotNull TypeElement type,
+            @Nullable TypeElement superType
+    ) {
+        if (superType == null) return false;
+        return this.processingEnv.getTypeUtils().isAssignable(
+                this.processingEnv.getTypeUtils().erasure(type.asType()),
+                this.processingEnv.getTypeUtils().erasure(superType.asType()));
+    }
+
+    private boolean hasListenerMethods(@NotNull TypeElement type) {
+        // interfaces and abstract classes are never instantiated by the EventBus
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)) return false;
+
+        return ElementFilter.methodsIn(this.processingEnv.getElementUtils().getAllMembers(type)).stream()
+                .filter(method -> method.getModifiers().contains(Modifier.PUBLIC))
+                .anyMatch(this::isAnnotatedWithHandleEvent);
+    }
+
+    private boolean isAnnotatedWithHandleEvent(@NotNull Element element) {
+        return element.getAnnotationMirrors().stream()
+                .map(mirror -> (TypeElement) mirror.getAnnotationType().asElement())
+                .anyMatch(annotation -> annotation.getQualifiedName().contentEquals(HANDLE_EVENT));
+    }
+
+    private void add(
+            @NotNull String kind,
+            @NotNull String name
+    ) {
+        this.entries.computeIfAbsent(kind, _ -> new TreeSet<>()).add(name);
+    }
+
+    // the index is written even if it is empty, since a missing index makes the runtime scan the classpath
+    private void writeIndex() {
+        try {
+            FileObject file = this.processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+
+            try (Writer writer = file.openWriter()) {
+                writer.write("# generated by " + ListenerIndexProcessor.class.getName() + "\n");
+                for (Map.Entry<String, Set<String>> entry : this.entries.entrySet()) {
+                    for (String name : entry.getValue()) writer.write(entry.getKey() + " " + name + "\n");
+                }
+            }
+        } catch (IOException e) {
+            this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Could not write " + INDEX_LOCATION + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package github.businessdirt.jasper.processor;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListenerIndexProcessorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static JavaFileObject source(String className, String code) {
+        URI uri = URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension);
+        return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+
+    private List<String> compile(JavaFileObject... sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, null,
+                List.of("-d", this.tempDir.toString()), null, List.of(sources));
+        task.setProcessors(List.of(new ListenerIndexProcessor()));
+
+        assertTrue(task.call());
+        return Files.readAllLines(this.tempDir.resolve(ListenerIndexProcessor.INDEX_LOCATION));
+    }
+
+    @Test
+    @DisplayName("Should index listener owners, events and command sources")
+    void testIndex() throws IOException {
+        List<String> index = compile(
+                source(ListenerIndexProcessor.HANDLE_EVENT, """
+                        package github.businessdirt.jasper.events.system;
+                        public @interface HandleEvent { }
+                        """),
+                source(ListenerIndexProcessor.EVENT, """
+                        package github.businessdirt.jasper.events.system;
+                        public abstract class Event { }
+                        """),
+                source(ListenerIndexProcessor.COMMAND_SOURCE, """
+                        package github.businessdirt.jasper.commands;
+                        public interface CommandSource { }
+                        """),
+                source("app.Listeners", """
+                        package app;
+                        import github.businessdirt.jasper.events.system.HandleEvent;
+                        public abstract class Listeners {
+                            @HandleEvent public void onEvent(Events.Ping event) { }
+                            public static class Concrete extends Listeners { }
+                            public static class Unrelated { public void onEvent(Events.Ping event) { } }
+                        }
+                        """),
+                source("app.Events", """
+                        package app;
+                        public class Events {
+                            public static class Ping extends github.businessdirt.jasper.events.system.Event { }
+                            public record Console() implements github.businessdirt.jasper.commands.CommandSource { }
+                        }
+                        """));
+
+        assertEquals("# generated by " + ListenerIndexProcessor.class.getName(), index.getFirst());
+        assertTrue(index.contains("event app.Events$Ping"));
+        assertTrue(index.contains("event " + ListenerIndexProcessor.EVENT));
+        assertTrue(index.contains("source app.Events$Console"));
+        assertTrue(index.contains("listener app.Listeners$Concrete"));
+        assertFalse(index.contains("listener app.Listeners"));
+        assertFalse(index.contains("listener app.Listeners$Unrelated"));
+    }
+
+    @Test
+    @DisplayName("Should write an empty index if nothing was found")
+    void testEmptyIndex() throws IOException {
+        List<String> index = compile(source("app.Empty", """
+                package app;
+                public class Empty { }
+                """));
+
+        assertEquals(1, index.size());
+    }
+}
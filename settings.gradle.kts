@@ -1,2 +1,3 @@
 rootProject.name = "Jasper"
 
+include("processor")
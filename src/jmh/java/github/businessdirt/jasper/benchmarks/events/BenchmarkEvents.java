@@ -0,0 +1,53 @@
+package github.businessdirt.jasper.benchmarks.events;
+
+import github.businessdirt.jasper.events.system.CancellableEvent;
+import github.businessdirt.jasper.events.system.Event;
+
+/**
+ * The events posted by the benchmarks. They are declared outside the scanned package, so the benchmarks decide
+ * exactly which listeners receive them.
+ */
+public final class BenchmarkEvents {
+
+    private BenchmarkEvents() { }
+
+    public static class PlainEvent extends Event { }
+
+    public static class CancelEvent extends CancellableEvent {
+
+        public final boolean cancel;
+
+        public CancelEvent(boolean cancel) {
+            this.cancel = cancel;
+        }
+    }
+
+    public static class JournalEvent extends Event {
+
+        public final String message;
+        public final int value;
+
+        public JournalEvent(String message, int value) {
+            this.message = message;
+            this.value = value;
+        }
+    }
+
+    public static class Depth0Event extends Event { }
+
+    public static class Depth1Event extends Depth0Event { }
+
+    public static class Depth2Event extends Depth1Event { }
+
+    public static class Depth3Event extends Depth2Event { }
+
+    public static class Depth4Event extends Depth3Event { }
+
+    public static class Depth5Event extends Depth4Event { }
+
+    public static class Depth6Event extends Depth5Event { }
+
+    public static class Depth7Event extends Depth6Event { }
+
+    public static class Depth8Event extends Depth7Event { }
+}
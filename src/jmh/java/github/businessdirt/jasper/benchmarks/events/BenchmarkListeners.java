@@ -0,0 +1,61 @@
+package github.businessdirt.jasper.benchmarks.events;
+
+import github.businessdirt.jasper.events.system.EventBus;
+import github.businessdirt.jasper.events.system.HandleEvent;
+
+import java.io.IOException;
+
+/**
+ * The listeners subscribed by the benchmarks. Their bodies are empty, so the benchmarks measure the cost of the
+ * event system and not the cost of the listeners.
+ */
+public final class BenchmarkListeners {
+
+    // contains no listeners, so every listener of a benchmark is subscribed explicitly
+    private static final String BASE_PACKAGE = "github.businessdirt.jasper.events";
+
+    private BenchmarkListeners() { }
+
+    /**
+     * Initializes the {@link EventBus} without any listeners of the benchmark events.
+     *
+     * @return the initialized {@link EventBus}.
+     * @throws IOException if the base package cannot be scanned.
+     */
+    public static EventBus initialize() throws IOException {
+        EventBus.initialize(BASE_PACKAGE);
+        return EventBus.get();
+    }
+
+    public static class PlainListener {
+
+        @HandleEvent
+        public void onPlain(BenchmarkEvents.PlainEvent event) { }
+    }
+
+    public static class ZeroArgListener {
+
+        @HandleEvent(eventType = BenchmarkEvents.PlainEvent.class)
+        public void onPlain() { }
+    }
+
+    public static class CancellingListener {
+
+        @HandleEvent(priority = HandleEvent.Priority.HIGHEST)
+        public void onCancel(BenchmarkEvents.CancelEvent event) {
+            if (event.cancel) event.cancel();
+        }
+    }
+
+    public static class CancelListener {
+
+        @HandleEvent
+        public void onCancel(BenchmarkEvents.CancelEvent event) { }
+    }
+
+    public static class HierarchyListener {
+
+        @HandleEvent
+        public void onDepth0(BenchmarkEvents.Depth0Event event) { }
+    }
+}
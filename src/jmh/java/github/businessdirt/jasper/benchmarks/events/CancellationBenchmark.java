@@ -0,0 +1,51 @@
+package github.businessdirt.jasper.benchmarks.events;
+
+import github.businessdirt.jasper.events.system.EventBus;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares posts that are cancelled by their first listener with posts that reach every listener.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CancellationBenchmark {
+
+    @Param({"1", "10"})
+    public int listeners;
+
+    private final List<Object> owners = new ArrayList<>();
+
+    @Setup
+    public void setUp() throws IOException {
+        EventBus bus = BenchmarkListeners.initialize();
+
+        this.owners.add(new BenchmarkListeners.CancellingListener());
+        for (int i = 0; i < this.listeners; i++) this.owners.add(new BenchmarkListeners.CancelListener());
+        this.owners.forEach(bus::subscribe);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.owners.forEach(EventBus.get()::unsubscribe);
+        this.owners.clear();
+    }
+
+    @Benchmark
+    public boolean notCancelled() {
+        return new BenchmarkEvents.CancelEvent(false).post();
+    }
+
+    @Benchmark
+    public boolean cancelled() {
+        return new BenchmarkEvents.CancelEvent(true).post();
+    }
+}
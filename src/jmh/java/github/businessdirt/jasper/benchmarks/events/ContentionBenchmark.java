@@ -0,0 +1,63 @@
+package github.businessdirt.jasper.benchmarks.events;
+
+import github.businessdirt.jasper.events.system.EventBus;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures posts from several threads at once, both against a fixed set of listeners and while another thread keeps
+ * subscribing and unsubscribing a listener of the posted event type.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ContentionBenchmark {
+
+    private static final int LISTENERS = 10;
+
+    private final List<Object> owners = new ArrayList<>();
+    private final Object churn = new BenchmarkListeners.PlainListener();
+
+    @Setup
+    public void setUp() throws IOException {
+        EventBus bus = BenchmarkListeners.initialize();
+
+        for (int i = 0; i < LISTENERS; i++) this.owners.add(new BenchmarkListeners.PlainListener());
+        this.owners.forEach(bus::subscribe);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.owners.forEach(EventBus.get()::unsubscribe);
+        this.owners.clear();
+        EventBus.get().unsubscribe(this.churn);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean post() {
+        return new BenchmarkEvents.PlainEvent().post();
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(3)
+    public boolean churnPost() {
+        return new BenchmarkEvents.PlainEvent().post();
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(1)
+    public boolean churnSubscribe() {
+        EventBus.get().subscribe(this.churn);
+        return EventBus.get().unsubscribe(this.churn);
+    }
+}
@@ -0,0 +1,53 @@
+package github.businessdirt.jasper.benchmarks.events;
+
+import github.businessdirt.jasper.events.system.EventHandler;
+import github.businessdirt.jasper.events.system.EventListener;
+import github.businessdirt.jasper.events.system.HandleEvent;
+import github.businessdirt.jasper.reflections.LambdaFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Measures the first post of an event type, which builds its {@link EventHandler} and, if enabled, generates its
+ * dispatcher class before the listeners are invoked.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FirstPostBenchmark {
+
+    @Param({"1", "10"})
+    public int listeners;
+
+    @Param({"true", "false"})
+    public boolean generatedDispatch;
+
+    private List<EventListener> eventListeners;
+
+    @Setup
+    public void setUp() throws IOException, NoSuchMethodException {
+        BenchmarkListeners.initialize();
+
+        Method method = BenchmarkListeners.PlainListener.class
+                .getMethod("onPlain", BenchmarkEvents.PlainEvent.class);
+        this.eventListeners = IntStream.range(0, this.listeners)
+                .mapToObj(i -> EventListener.of("listener" + i,
+                        LambdaFactory.createSingleParameterConsumer(new BenchmarkListeners.PlainListener(), method),
+                        HandleEvent.Priority.MEDIUM))
+                .toList();
+    }
+
+    @Benchmark
+    public boolean firstPost() {
+        return new EventHandler(BenchmarkEvents.PlainEvent.class, this.eventListeners, this.generatedDispatch, null)
+                .post(new BenchmarkEvents.PlainEvent(), null);
+    }
+}
@@ -0,0 +1,52 @@
+package github.businessdirt.jasper.benchmarks.events;
+
+import github.businessdirt.jasper.events.system.Event;
+import github.businessdirt.jasper.events.system.EventBus;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measures how the depth of the class hierarchy below the listened event type affects a post.
+ * A single listener receives the root of the hierarchy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class HierarchyBenchmark {
+
+    @Param({"0", "1", "2", "4", "8"})
+    public int depth;
+
+    private final Object owner = new BenchmarkListeners.HierarchyListener();
+    private Supplier<Event> factory;
+
+    @Setup
+    public void setUp() throws IOException {
+        BenchmarkListeners.initialize().subscribe(this.owner);
+
+        this.factory = switch (this.depth) {
+            case 0 -> BenchmarkEvents.Depth0Event::new;
+            case 1 -> BenchmarkEvents.Depth1Event::new;
+            case 2 -> BenchmarkEvents.Depth2Event::new;
+            case 4 -> BenchmarkEvents.Depth4Event::new;
+            case 8 -> BenchmarkEvents.Depth8Event::new;
+            default -> throw new IllegalArgumentException("Unsupported depth " + this.depth);
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        EventBus.get().unsubscribe(this.owner);
+    }
+
+    @Benchmark
+    public boolean post() {
+        return this.factory.get().post();
+    }
+}
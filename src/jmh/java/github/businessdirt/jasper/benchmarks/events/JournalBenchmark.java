@@ -0,0 +1,57 @@
+package github.businessdirt.jasper.benchmarks.events;
+
+import github.businessdirt.jasper.events.journal.EventJournal;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures how many events per second the journal appends, from one thread and from several threads that share the
+ * append cursor. The segments are written to the temporary directory, so the result depends on the device behind it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class JournalBenchmark {
+
+    private static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private final BenchmarkEvents.JournalEvent event = new BenchmarkEvents.JournalEvent("benchmark", 42);
+
+    private Path directory;
+    private EventJournal journal;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("jasper-journal");
+        this.journal = new EventJournal(this.directory, SEGMENT_SIZE, 4, Duration.ZERO);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.journal.close();
+        try (Stream<Path> files = Files.walk(this.directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) Files.deleteIfExists(file);
+        }
+    }
+
+    @Benchmark
+    public void append() {
+        this.journal.append(this.event);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void appendContended() {
+        this.journal.append(this.event);
+    }
+}
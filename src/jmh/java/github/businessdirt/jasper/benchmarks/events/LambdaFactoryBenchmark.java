@@ -0,0 +1,47 @@
+package github.businessdirt.jasper.benchmarks.events;
+
+import github.businessdirt.jasper.reflections.LambdaFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Compares the consumers {@link LambdaFactory} creates for listener methods with one and with zero parameters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class LambdaFactoryBenchmark {
+
+    private final BenchmarkEvents.PlainEvent event = new BenchmarkEvents.PlainEvent();
+    private final BenchmarkListeners.PlainListener listener = new BenchmarkListeners.PlainListener();
+    private Consumer<Object> oneArg;
+    private Consumer<Object> zeroArg;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        this.oneArg = LambdaFactory.createSingleParameterConsumer(this.listener,
+                BenchmarkListeners.PlainListener.class.getMethod("onPlain", BenchmarkEvents.PlainEvent.class));
+        this.zeroArg = LambdaFactory.createZeroParameterConsumer(new BenchmarkListeners.ZeroArgListener(),
+                BenchmarkListeners.ZeroArgListener.class.getMethod("onPlain"));
+    }
+
+    @Benchmark
+    public void direct() {
+        this.listener.onPlain(this.event);
+    }
+
+    @Benchmark
+    public void oneArg() {
+        this.oneArg.accept(this.event);
+    }
+
+    @Benchmark
+    public void zeroArg() {
+        this.zeroArg.accept(this.event);
+    }
+}
@@ -0,0 +1,53 @@
+package github.businessdirt.jasper.benchmarks.events;
+
+import github.businessdirt.jasper.events.system.EventBus;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link github.businessdirt.jasper.events.system.Event#post()} with a growing number of listeners,
+ * with and without generated dispatchers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PostBenchmark {
+
+    @Param({"0", "1", "10", "100"})
+    public int listeners;
+
+    @Param({"true", "false"})
+    public boolean generatedDispatch;
+
+    private final List<Object> owners = new ArrayList<>();
+
+    @Setup
+    public void setUp() throws IOException {
+        EventBus bus = BenchmarkListeners.initialize();
+        bus.setGeneratedDispatch(this.generatedDispatch);
+
+        for (int i = 0; i < this.listeners; i++) {
+            Object owner = new BenchmarkListeners.PlainListener();
+            bus.subscribe(owner);
+            this.owners.add(owner);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.owners.forEach(EventBus.get()::unsubscribe);
+        this.owners.clear();
+    }
+
+    @Benchmark
+    public boolean post() {
+        return new BenchmarkEvents.PlainEvent().post();
+    }
+}
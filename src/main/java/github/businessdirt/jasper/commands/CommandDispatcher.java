@@ -7,6 +7,7 @@ import github.businessdirt.jasper.commands.tree.ArgumentCommandNode;
 import github.businessdirt.jasper.commands.tree.CommandNode;
 import github.businessdirt.jasper.commands.tree.LiteralCommandNode;
 import github.businessdirt.jasper.commands.tree.RootCommandNode;
+import github.businessdirt.jasper.jfr.CommandExecutionEvent;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.HashMap;
@@ -39,6 +40,9 @@ public class CommandDispatcher<S extends CommandSource> {
 
     /**
      * Executes a command.
+     * <p>
+     * While a JDK Flight Recorder recording has the {@link CommandExecutionEvent} enabled, every execution is recorded
+     * with its parse and execute time.
      *
      * @param input the command string to execute
      * @param source the source of the command
@@ -47,10 +51,53 @@ public class CommandDispatcher<S extends CommandSource> {
     public int execute(
             @NotNull String input,
             @NotNull S source
+    ) {
+        if (CommandExecutionEvent.isRecording()) return this.executeRecorded(input, source);
+
+        Map<String, Object> arguments = new HashMap<>();
+        Command<S> command = this.parse(input, arguments);
+        return command.run(new CommandContext<>(source, arguments));
+    }
+
+    private int executeRecorded(
+            @NotNull String input,
+            @NotNull S source
+    ) {
+        CommandExecutionEvent recording = new CommandExecutionEvent();
+        recording.begin();
+
+        try {
+            long start = System.nanoTime();
+            Map<String, Object> arguments = new HashMap<>();
+            Command<S> command;
+
+            try {
+                command = this.parse(input, arguments);
+            } finally {
+                recording.parseTime = System.nanoTime() - start;
+            }
+
+            long parsed = System.nanoTime();
+            try {
+                return command.run(new CommandContext<>(source, arguments));
+            } finally {
+                recording.executeTime = System.nanoTime() - parsed;
+            }
+        } finally {
+            recording.end();
+            if (recording.shouldCommit()) {
+                recording.root = new StringReader(input).readString();
+                recording.commit();
+            }
+        }
+    }
+
+    private @NotNull Command<S> parse(
+            @NotNull String input,
+            @NotNull Map<String, Object> arguments
     ) {
         StringReader reader = new StringReader(input);
         CommandNode<S> currentNode = root;
-        Map<String, Object> arguments = new HashMap<>();
 
         // Find the initial command node
         String literal = reader.readString();
@@ -97,6 +144,6 @@ public class CommandDispatcher<S extends CommandSource> {
 
         if (currentNode.getCommand() == null) throw new CommandSyntaxException("Incomplete command");
 
-        return currentNode.getCommand().run(new CommandContext<>(source, arguments));
+        return currentNode.getCommand();
     }
 }
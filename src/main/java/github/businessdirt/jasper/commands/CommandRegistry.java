@@ -1,7 +1,9 @@
 package github.businessdirt.jasper.commands;
 
 import github.businessdirt.jasper.events.events.CommandRegistrationEvent;
+import github.businessdirt.jasper.reflections.ClassIndex;
 import github.businessdirt.jasper.reflections.Reflections;
+import github.businessdirt.jasper.reflections.ScanService;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
@@ -25,10 +27,21 @@ public class CommandRegistry {
         return message.startsWith("/");
     }
 
+    /**
+     * Posts a {@link CommandRegistrationEvent} for every {@link CommandSource} type in the given package.
+     * The types are read from the {@link ClassIndex} of the package if it has one, otherwise from the shared scan of
+     * the {@link ScanService}.
+     *
+     * @param basePackage the package to search for command source types
+     * @throws IOException if an I/O error occurs while reading the index or scanning the package
+     */
     public static void initialize(
             @NotNull String basePackage
     ) throws IOException {
-        Reflections reflections = new Reflections(basePackage);
+        ClassIndex index = ClassIndex.load(basePackage);
+        Reflections reflections = index == null
+                ? ScanService.get().getReflections(basePackage)
+                : new Reflections(index.getClasses(ClassIndex.Kind.COMMAND_SOURCE));
         reflections.getSubTypesOf(CommandSource.class).forEach(sourceClass ->
                 new CommandRegistrationEvent<>(CommandRegistry.get(sourceClass)).post());
     }
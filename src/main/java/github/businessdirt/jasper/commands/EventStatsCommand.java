@@ -0,0 +1,59 @@
+package github.businessdirt.jasper.commands;
+
+import github.businessdirt.jasper.events.metrics.EventBusMetrics;
+import github.businessdirt.jasper.events.metrics.LatencyHistogram;
+import github.businessdirt.jasper.events.system.EventBus;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Supplier;
+
+/**
+ * A command that displays the metrics recorded by the {@link EventBus}.
+ *
+ * @param eventBus supplies the event bus to read the metrics from
+ */
+public record EventStatsCommand<S extends CommandSource>(Supplier<EventBus> eventBus) implements Command<S> {
+
+    /**
+     * Executes the command.
+     *
+     * @param context the command context
+     * @return the {@link CommandResult}
+     */
+    @Override
+    public int run(@NotNull CommandContext<S> context) {
+        EventBus bus = eventBus.get();
+        EventBusMetrics metrics = bus.getMetrics();
+
+        StringBuilder builder = new StringBuilder("Event metrics for ")
+                .append(metrics.events().size()).append(" event types\n");
+        if (!bus.isMetricsEnabled()) builder.append("Recording is disabled, enable it with EventBus#setMetricsEnabled\n");
+
+        for (EventBusMetrics.EventStats event : metrics.events()) {
+            builder.append(event.name())
+                    .append(": posts=").append(event.posts())
+                    .append(" cancelled=").append(event.cancelled())
+                    .append(' ').append(latency(event.latency()))
+                    .append(" max=").append(micros(event.latency().max())).append("\n");
+
+            for (EventBusMetrics.ListenerStats listener : event.listeners()) {
+                builder.append("  ").append(listener.name())
+                        .append(": invocations=").append(listener.invocations())
+                        .append(" errors=").append(listener.errors())
+                        .append(" cancellations=").append(listener.cancellations())
+                        .append(' ').append(latency(listener.latency())).append("\n");
+            }
+        }
+
+        context.out().println(builder);
+        return CommandResult.SUCCESS_STATUS;
+    }
+
+    private static @NotNull String latency(@NotNull LatencyHistogram.Snapshot latency) {
+        return "p50=" + micros(latency.percentile(50)) + " p99=" + micros(latency.percentile(99));
+    }
+
+    private static @NotNull String micros(long nanos) {
+        return String.format("%.1fus", nanos / 1_000.0);
+    }
+}
@@ -3,9 +3,11 @@ package github.businessdirt.jasper.config;
 import github.businessdirt.jasper.config.data.Property;
 import github.businessdirt.jasper.config.data.PropertyData;
 import github.businessdirt.jasper.config.file.FileConfig;
+import github.businessdirt.jasper.jfr.ConfigSaveEvent;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 
@@ -112,7 +114,8 @@ public abstract class ConfigHandler {
      * Writes the current state of the configuration properties to the file.
      * <p>
      * This method only performs a write operation if the configuration has been marked as dirty.
-     * After a successful write, the dirty flag is reset.
+     * After a successful write, the dirty flag is reset. While a JDK Flight Recorder recording has the
+     * {@link ConfigSaveEvent} enabled, every write is recorded with the size of the written file.
      *
      * @throws IOException if an I/O error occurs while saving the configuration file.
      */
@@ -128,7 +131,21 @@ public abstract class ConfigHandler {
             this.configFile.set(propertyPath, propertyValue);
         });
 
-        this.configFile.save();
+        if (ConfigSaveEvent.isRecording()) {
+            ConfigSaveEvent recording = new ConfigSaveEvent();
+            recording.begin();
+            this.configFile.save();
+            recording.end();
+
+            if (recording.shouldCommit()) {
+                recording.path = this.configFile.getPath().toString();
+                recording.bytes = Files.size(this.configFile.getPath());
+                recording.commit();
+            }
+        } else {
+            this.configFile.save();
+        }
+
         this.dirty = false;
     }
 
@@ -41,6 +41,13 @@ public class FileConfig {
         this.store = new HashMap<>();
     }
 
+    /**
+     * @return the path to the JSON configuration file.
+     */
+    public @NotNull Path getPath() {
+        return this.configPath;
+    }
+
     /**
      * Loads the configuration from the JSON file on disk.
      * <p>
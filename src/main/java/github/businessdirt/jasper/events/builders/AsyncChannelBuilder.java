@@ -0,0 +1,68 @@
+package github.businessdirt.jasper.events.builders;
+
+import github.businessdirt.jasper.events.system.AsyncChannel;
+import github.businessdirt.jasper.events.system.Event;
+import github.businessdirt.jasper.events.system.EventBus;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@SuppressWarnings("unused")
+public class AsyncChannelBuilder {
+
+    private final String name;
+    private final Set<Class<? extends Event>> routes;
+    private int capacity;
+    private AsyncChannel.OverflowPolicy policy;
+
+    public AsyncChannelBuilder(@NotNull String name) {
+        this.name = name;
+        this.routes = new HashSet<>();
+        this.capacity = AsyncChannel.DEFAULT_CAPACITY;
+        this.policy = AsyncChannel.OverflowPolicy.BLOCK;
+    }
+
+    public @NotNull AsyncChannel build() {
+        return new AsyncChannel(this.name, this.capacity, this.policy, this.routes);
+    }
+
+    public @NotNull AsyncChannel register() {
+        return EventBus.get().registerChannel(this.build());
+    }
+
+    public @NotNull AsyncChannelBuilder capacity(int capacity) {
+        this.capacity = capacity;
+        return this;
+    }
+
+    public @NotNull AsyncChannelBuilder policy(@NotNull AsyncChannel.OverflowPolicy policy) {
+        this.policy = policy;
+        return this;
+    }
+
+    public @NotNull AsyncChannelBuilder block() {
+        this.policy = AsyncChannel.OverflowPolicy.BLOCK;
+        return this;
+    }
+
+    public @NotNull AsyncChannelBuilder dropNewest() {
+        this.policy = AsyncChannel.OverflowPolicy.DROP_NEWEST;
+        return this;
+    }
+
+    public @NotNull AsyncChannelBuilder dropOldest() {
+        this.policy = AsyncChannel.OverflowPolicy.DROP_OLDEST;
+        return this;
+    }
+
+    public @NotNull AsyncChannelBuilder coalesce() {
+        this.policy = AsyncChannel.OverflowPolicy.COALESCE;
+        return this;
+    }
+
+    public @NotNull AsyncChannelBuilder route(@NotNull Class<? extends Event> event) {
+        this.routes.add(event);
+        return this;
+    }
+}
@@ -0,0 +1,50 @@
+package github.businessdirt.jasper.events.builders;
+
+import github.businessdirt.jasper.events.journal.EventJournal;
+import github.businessdirt.jasper.events.system.EventBus;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+@SuppressWarnings("unused")
+public class EventJournalBuilder {
+
+    private final Path directory;
+    private int segmentSize;
+    private int maxSegments;
+    private Duration maxAge;
+
+    public EventJournalBuilder(@NotNull Path directory) {
+        this.directory = directory;
+        this.segmentSize = 64 * 1024 * 1024;
+        this.maxSegments = 0;
+        this.maxAge = Duration.ZERO;
+    }
+
+    public @NotNull EventJournal build() throws IOException {
+        return new EventJournal(this.directory, this.segmentSize, this.maxSegments, this.maxAge);
+    }
+
+    public @NotNull EventJournal enable() throws IOException {
+        EventJournal journal = this.build();
+        EventBus.get().setJournal(journal);
+        return journal;
+    }
+
+    public @NotNull EventJournalBuilder segmentSize(int segmentSize) {
+        this.segmentSize = segmentSize;
+        return this;
+    }
+
+    public @NotNull EventJournalBuilder maxSegments(int maxSegments) {
+        this.maxSegments = maxSegments;
+        return this;
+    }
+
+    public @NotNull EventJournalBuilder maxAge(@NotNull Duration maxAge) {
+        this.maxAge = maxAge;
+        return this;
+    }
+}
@@ -0,0 +1,65 @@
+package github.businessdirt.jasper.events.builders;
+
+import github.businessdirt.jasper.events.system.Event;
+import github.businessdirt.jasper.events.system.EventBus;
+import github.businessdirt.jasper.events.system.ListenerWatchdog;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+@SuppressWarnings("unused")
+public class ListenerWatchdogBuilder {
+
+    private final Map<Class<? extends Event>, Duration> budgets;
+    private Duration budget;
+    private int demoteAfter;
+    private Duration samplePeriod;
+    private @Nullable Consumer<ListenerWatchdog.Overrun> reporter;
+
+    public ListenerWatchdogBuilder() {
+        this.budgets = new HashMap<>();
+        this.budget = Duration.ZERO;
+        this.demoteAfter = 0;
+        this.samplePeriod = Duration.ofMillis(10);
+        this.reporter = null;
+    }
+
+    public @NotNull ListenerWatchdog build() {
+        return new ListenerWatchdog(this.budget, this.budgets, this.demoteAfter, this.samplePeriod, this.reporter);
+    }
+
+    public @NotNull ListenerWatchdog enable() {
+        ListenerWatchdog watchdog = this.build();
+        EventBus.get().setWatchdog(watchdog);
+        return watchdog;
+    }
+
+    public @NotNull ListenerWatchdogBuilder budget(@NotNull Duration budget) {
+        this.budget = budget;
+        return this;
+    }
+
+    public @NotNull ListenerWatchdogBuilder budget(@NotNull Class<? extends Event> event, @NotNull Duration budget) {
+        this.budgets.put(event, budget);
+        return this;
+    }
+
+    public @NotNull ListenerWatchdogBuilder demoteAfter(int overruns) {
+        this.demoteAfter = overruns;
+        return this;
+    }
+
+    public @NotNull ListenerWatchdogBuilder samplePeriod(@NotNull Duration samplePeriod) {
+        this.samplePeriod = samplePeriod;
+        return this;
+    }
+
+    public @NotNull ListenerWatchdogBuilder reporter(@NotNull Consumer<ListenerWatchdog.Overrun> reporter) {
+        this.reporter = reporter;
+        return this;
+    }
+}
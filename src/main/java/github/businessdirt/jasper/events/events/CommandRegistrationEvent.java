@@ -2,10 +2,12 @@ package github.businessdirt.jasper.events.events;
 
 import github.businessdirt.jasper.commands.CommandDispatcher;
 import github.businessdirt.jasper.commands.CommandSource;
+import github.businessdirt.jasper.commands.EventStatsCommand;
 import github.businessdirt.jasper.commands.HelpCommand;
 import github.businessdirt.jasper.commands.arguments.IntegerArgumentType;
 import github.businessdirt.jasper.commands.builder.LiteralArgumentBuilder;
 import github.businessdirt.jasper.events.system.Event;
+import github.businessdirt.jasper.events.system.EventBus;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.function.Consumer;
@@ -28,7 +30,9 @@ public class CommandRegistrationEvent<S extends CommandSource> extends Event {
 
         this.dispatcher.register(root);
 
-
+        LiteralArgumentBuilder<S> events = literal("events");
+        events.literal("stats", stats -> stats.executes(new EventStatsCommand<>(EventBus::get)));
+        this.dispatcher.register(events);
     }
 
     /**
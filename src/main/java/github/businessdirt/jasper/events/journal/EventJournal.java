@@ -0,0 +1,459 @@
+package github.businessdirt.jasper.events.journal;
+
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import github.businessdirt.jasper.events.system.Event;
+import github.businessdirt.jasper.events.system.EventBus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * An append-only log of posted events, stored in memory-mapped segment files.
+ * <p>
+ * Every segment is a file of a fixed size that is mapped into memory when it is created. Appending an event
+ * reserves its space with a single atomic add on the cursor of the current segment, so concurrent posts never wait
+ * for each other. Once a segment is full, the next segment is created and segments that fall outside the retention
+ * limits are deleted.
+ * <p>
+ * A record consists of a header and the Gson representation of the event:
+ * <pre>
+ * int    length     the length of the record including padding, written last to publish the record
+ * long   sequence   the number of the record, unique within the journal
+ * long   timestamp  the time of the append in milliseconds since the epoch
+ * short  typeLength
+ * int    dataLength
+ * byte[] type       the binary name of the event class in UTF-8
+ * byte[] data       the event as JSON in UTF-8
+ * </pre>
+ * Records are aligned to 8 bytes. Before a writer fills its record, it stores the negated length, so readers can
+ * skip records that are still being written or were abandoned by a crash. Space that was reserved but never marked
+ * is all zeros, which readers skip word by word until the next record, so the end of a segment is simply its
+ * trailing zeros.
+ * <p>
+ * The {@link TypeAdapter} and the type name of every event class are looked up once, so an append serializes the
+ * event without resolving its class again.
+ *
+ * @see Journaled
+ * @see github.businessdirt.jasper.events.system.EventBus#setJournal(EventJournal)
+ * @see github.businessdirt.jasper.events.builders.EventJournalBuilder
+ */
+public class EventJournal implements AutoCloseable {
+
+    public static final String SEGMENT_SUFFIX = ".journal";
+
+    private static final int HEADER_SIZE = 4 + 8 + 8 + 2 + 4;
+    private static final int ALIGNMENT = 8;
+    private static final VarHandle LENGTH = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private static final Gson GSON = new GsonBuilder()
+            .setExclusionStrategies(new ExclusionStrategy() {
+                @Override
+                public boolean shouldSkipField(@NotNull FieldAttributes field) {
+                    return field.getDeclaringClass() == Event.class;
+                }
+
+                @Override
+                public boolean shouldSkipClass(@NotNull Class<?> cls) {
+                    return false;
+                }
+            })
+            .create();
+
+    private static final ClassValue<Codec> CODECS = new ClassValue<>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        protected @NotNull Codec computeValue(@NotNull Class<?> type) {
+            return new Codec(type.getName().getBytes(StandardCharsets.UTF_8),
+                    (TypeAdapter<Event>) GSON.getAdapter(type));
+        }
+    };
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final Duration maxAge;
+
+    private final AtomicLong sequence;
+    private final ThreadLocal<Boolean> replaying;
+    private final Object rollLock;
+    private volatile Segment current;
+    private volatile boolean closed;
+
+    /**
+     * Opens a journal in the given directory. Appending always starts a new segment, so segments written before are
+     * never modified.
+     *
+     * @param directory   the directory of the segment files. It is created if it does not exist.
+     * @param segmentSize the size of a single segment file in bytes.
+     * @param maxSegments the maximum number of segments to keep, or {@code 0} to keep any number of segments.
+     * @param maxAge      the maximum age of a segment, measured from its last modification, or {@link Duration#ZERO}
+     *                    to keep segments of any age.
+     * @throws IOException if an I/O error occurs while reading the existing segments or creating the first one.
+     * @throws IllegalArgumentException if the segment size is too small or a limit is negative.
+     */
+    public EventJournal(
+            @NotNull Path directory,
+            int segmentSize,
+            int maxSegments,
+            @NotNull Duration maxAge
+    ) throws IOException, IllegalArgumentException {
+        if (segmentSize < 1024) throw new IllegalArgumentException("segmentSize must be at least 1024 but was " + segmentSize);
+        if (maxSegments < 0) throw new IllegalArgumentException("maxSegments must not be negative but was " + maxSegments);
+        if (maxAge.isNegative()) throw new IllegalArgumentException("maxAge must not be negative but was " + maxAge);
+
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize - segmentSize % ALIGNMENT;
+        this.maxSegments = maxSegments;
+        this.maxAge = maxAge;
+        this.replaying = ThreadLocal.withInitial(() -> false);
+        this.rollLock = new Object();
+
+        List<Path> segments = this.listSegments();
+        long nextIndex = segments.isEmpty() ? 0 : indexOf(segments.getLast()) + 1;
+        long nextSequence = segments.isEmpty() ? 0 : lastSequence(segments.getLast()) + 1;
+
+        this.sequence = new AtomicLong(nextSequence);
+        this.current = this.createSegment(nextIndex);
+        this.applyRetention();
+    }
+
+    /**
+     * Appends an event to the journal.
+     * Events appended by the thread of a running {@link #replay(Instant, Instant)} are skipped, so that a replay does
+     * not journal its events a second time.
+     *
+     * @param event the event to append.
+     * @throws IllegalArgumentException if the serialized event does not fit into a single segment.
+     * @throws IllegalStateException if the journal has been closed.
+     * @throws UncheckedIOException if a new segment cannot be created.
+     */
+    public void append(
+            @NotNull Event event
+    ) throws IllegalArgumentException, IllegalStateException, UncheckedIOException {
+        if (this.closed) throw new IllegalStateException("The journal has been closed");
+        if (this.replaying.get()) return;
+
+        Codec codec = CODECS.get(event.getClass());
+        byte[] type = codec.type();
+        byte[] data = codec.adapter().toJson(event).getBytes(StandardCharsets.UTF_8);
+        int length = align(HEADER_SIZE + type.length + data.length);
+        if (length > this.segmentSize) throw new IllegalArgumentException(String.format(
+                "Event %s needs %d bytes, but a segment only has %d", event.getClass().getName(), length, this.segmentSize));
+
+        while (true) {
+            Segment segment = this.current;
+            long position = segment.cursor.getAndAdd(length);
+
+            if (position + length <= this.segmentSize) {
+                segment.write((int) position, length, this.sequence.getAndIncrement(), type, data);
+                return;
+            }
+
+            this.roll(segment);
+        }
+    }
+
+    private void roll(@NotNull Segment full) throws UncheckedIOException {
+        synchronized (this.rollLock) {
+            if (this.current != full) return;
+
+            try {
+                this.current = this.createSegment(full.index + 1);
+                this.applyRetention();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private @NotNull Segment createSegment(long index) throws IOException {
+        Path path = this.directory.resolve(String.format("%020d%s", index, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return new Segment(index, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, this.segmentSize));
+        }
+    }
+
+    // must be called while holding rollLock or from the constructor
+    private void applyRetention() throws IOException {
+        List<Path> segments = this.listSegments();
+        segments.remove(this.current.path);
+
+        Instant oldest = this.maxAge.isZero() ? Instant.MIN : Instant.now().minus(this.maxAge);
+        int excess = this.maxSegments == 0 ? 0 : segments.size() + 1 - this.maxSegments;
+
+        for (int i = 0; i < segments.size(); i++) {
+            Path segment = segments.get(i);
+            if (i < excess || Files.getLastModifiedTime(segment).toInstant().isBefore(oldest)) Files.deleteIfExists(segment);
+        }
+    }
+
+    private @NotNull List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(this.directory)) {
+            return new ArrayList<>(files
+                    .filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList());
+        }
+    }
+
+    private static long indexOf(@NotNull Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static long lastSequence(@NotNull Path segment) throws IOException {
+        long[] last = {-1};
+        scan(segment, (sequence, _, _, _) -> last[0] = Math.max(last[0], sequence));
+        return last[0];
+    }
+
+    private static int align(int length) {
+        return (length + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    /**
+     * Reads all journaled events that were appended in the given time range, in the order of the segments.
+     * Records of event classes that no longer exist or can no longer be deserialized are skipped.
+     *
+     * @param from the start of the range, inclusive.
+     * @param to   the end of the range, exclusive.
+     * @return the records in the range.
+     * @throws IOException if an I/O error occurs while reading a segment.
+     */
+    public @NotNull List<Record> read(
+            @NotNull Instant from,
+            @NotNull Instant to
+    ) throws IOException {
+        long start = from.toEpochMilli();
+        long end = to.toEpochMilli();
+        List<Record> records = new ArrayList<>();
+
+        for (Path segment : this.listSegments()) {
+            scan(segment, (sequence, timestamp, type, data) -> {
+                if (timestamp < start || timestamp >= end) return;
+
+                Event event = deserialize(type, data);
+                if (event != null) records.add(new Record(sequence, Instant.ofEpochMilli(timestamp), event));
+            });
+        }
+
+        return records;
+    }
+
+    private static @Nullable Event deserialize(
+            @NotNull String type,
+            @NotNull String data
+    ) {
+        try {
+            Class<?> cls = Class.forName(type, true, Thread.currentThread().getContextClassLoader());
+            if (!Event.class.isAssignableFrom(cls)) return null;
+            return CODECS.get(cls).adapter().fromJson(data);
+        } catch (ClassNotFoundException | LinkageError | IOException | JsonParseException e) {
+            return null;
+        }
+    }
+
+    private static void scan(
+            @NotNull Path segment,
+            @NotNull RecordConsumer consumer
+    ) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        int position = 0;
+        while (position + HEADER_SIZE <= buffer.capacity()) {
+            int length = (int) LENGTH.getAcquire(buffer, position);
+            if (length == 0) {
+                // reserved but never marked, or the unused end of the segment
+                position += ALIGNMENT;
+                continue;
+            }
+
+            int remaining = buffer.capacity() - position;
+            if (length > remaining || length < -remaining) break;
+            if (length < 0) {
+                // still being written or abandoned by a crashed writer
+                position -= length;
+                continue;
+            }
+
+            long sequence = buffer.getLong(position + 4);
+            long timestamp = buffer.getLong(position + 12);
+            short typeLength = buffer.getShort(position + 20);
+            int dataLength = buffer.getInt(position + 22);
+
+            byte[] type = new byte[typeLength];
+            byte[] data = new byte[dataLength];
+            buffer.get(position + HEADER_SIZE, type);
+            buffer.get(position + HEADER_SIZE + typeLength, data);
+
+            consumer.accept(sequence, timestamp, new String(type, StandardCharsets.UTF_8),
+                    new String(data, StandardCharsets.UTF_8));
+            position += length;
+        }
+    }
+
+    /**
+     * Re-posts all journaled events that were appended in the given time range through the {@link EventBus}.
+     *
+     * @param from the start of the range, inclusive.
+     * @param to   the end of the range, exclusive.
+     * @return the number of replayed events.
+     * @throws IOException if an I/O error occurs while reading a segment.
+     * @see #replay(Instant, Instant, Consumer)
+     */
+    public int replay(
+            @NotNull Instant from,
+            @NotNull Instant to
+    ) throws IOException {
+        return this.replay(from, to, null);
+    }
+
+    /**
+     * Re-posts all journaled events that were appended in the given time range through the {@link EventBus}, in the
+     * order of the segments and on the calling thread. The replayed events are not journaled again, unless their
+     * listeners run on another thread, e.g. for {@link github.businessdirt.jasper.events.system.Coalesce coalesced}
+     * events.
+     *
+     * @param from    the start of the range, inclusive.
+     * @param to      the end of the range, exclusive.
+     * @param onError a {@link Consumer} that will be called if an exception is thrown by a listener.
+     * @return the number of replayed events.
+     * @throws IOException if an I/O error occurs while reading a segment.
+     */
+    public int replay(
+            @NotNull Instant from,
+            @NotNull Instant to,
+            @Nullable Consumer<Throwable> onError
+    ) throws IOException {
+        List<Record> records = this.read(from, to);
+
+        this.replaying.set(true);
+        try {
+            for (Record record : records) {
+                Event event = record.event();
+                EventBus.get().getEventHandler(event.getClass()).post(event, onError);
+            }
+        } finally {
+            this.replaying.remove();
+        }
+
+        return records.size();
+    }
+
+    /**
+     * Writes the current segment to the storage device.
+     */
+    public void flush() {
+        this.current.buffer.force();
+    }
+
+    /**
+     * @return the directory of the segment files.
+     */
+    public @NotNull Path getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * Stops accepting events and writes the current segment to the storage device.
+     * Events that are appended concurrently with this method may be lost. Calling this method more than once has no
+     * further effect.
+     */
+    @Override
+    public void close() {
+        if (this.closed) return;
+        this.closed = true;
+        this.flush();
+    }
+
+    /**
+     * A journaled event.
+     *
+     * @param sequence  the number of the record, unique within the journal.
+     * @param timestamp the time at which the event was appended.
+     * @param event     the deserialized event.
+     */
+    public record Record(
+            long sequence,
+            @NotNull Instant timestamp,
+            @NotNull Event event
+    ) { }
+
+    private record Codec(
+            byte @NotNull [] type,
+            @NotNull TypeAdapter<Event> adapter
+    ) { }
+
+    @FunctionalInterface
+    private interface RecordConsumer {
+        void accept(long sequence, long timestamp, @NotNull String type, @NotNull String data);
+    }
+
+    private static final class Segment {
+
+        private final long index;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private final AtomicLong cursor;
+
+        private Segment(
+                long index,
+                @NotNull Path path,
+                @NotNull MappedByteBuffer buffer
+        ) {
+            this.index = index;
+            this.path = path;
+            this.buffer = buffer;
+            this.cursor = new AtomicLong();
+        }
+
+        // every writer owns its range, so only the marker and the length need to be ordered
+        private void write(
+                int position,
+                int length,
+                long sequence,
+                byte @NotNull [] type,
+                byte @NotNull [] data
+        ) {
+            ByteBuffer buffer = this.buffer;
+            LENGTH.set(buffer, position, -length);
+            VarHandle.storeStoreFence();
+
+            buffer.putLong(position + 4, sequence);
+            buffer.putLong(position + 12, System.currentTimeMillis());
+            buffer.putShort(position + 20, (short) type.length);
+            buffer.putInt(position + 22, data.length);
+            buffer.put(position + HEADER_SIZE, type);
+            buffer.put(position + HEADER_SIZE + type.length, data);
+            LENGTH.setRelease(buffer, position, length);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package github.businessdirt.jasper.events.journal;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an event type whose posts are appended to the {@link EventJournal} of the
+ * {@link github.businessdirt.jasper.events.system.EventBus}, if one is set.
+ * <p>
+ * Subtypes of a journaled event type are journaled as well. Events are serialized with Gson, so every field that
+ * should be replayed must be serializable. Fields declared by {@code Event} itself are not journaled.
+ *
+ * @see github.businessdirt.jasper.events.system.EventBus#setJournal(EventJournal)
+ */
+@Inherited
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Journaled {
+}
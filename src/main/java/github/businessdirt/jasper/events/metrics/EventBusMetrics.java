@@ -0,0 +1,49 @@
+package github.businessdirt.jasper.events.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * An immutable snapshot of the metrics recorded by the {@code EventBus}.
+ *
+ * @param events the recorded event types, sorted by the number of posts in descending order.
+ */
+public record EventBusMetrics(
+        @NotNull List<EventStats> events
+) {
+
+    /**
+     * The recorded values of a single event type.
+     *
+     * @param name      the name of the event type.
+     * @param posts     the number of times the event type was posted.
+     * @param cancelled the number of posts that ended cancelled.
+     * @param latency   the time all listeners took together per post.
+     * @param listeners the recorded values of each listener of the event type.
+     */
+    public record EventStats(
+            @NotNull String name,
+            long posts,
+            long cancelled,
+            @NotNull LatencyHistogram.Snapshot latency,
+            @NotNull List<ListenerStats> listeners
+    ) { }
+
+    /**
+     * The recorded values of a single listener.
+     *
+     * @param name          the name of the listener.
+     * @param invocations   the number of times the listener was invoked.
+     * @param errors        the number of invocations that threw an exception.
+     * @param cancellations the number of invocations that cancelled the event.
+     * @param latency       the time the listener took per invocation.
+     */
+    public record ListenerStats(
+            @NotNull String name,
+            long invocations,
+            long errors,
+            long cancellations,
+            @NotNull LatencyHistogram.Snapshot latency
+    ) { }
+}
@@ -0,0 +1,64 @@
+package github.businessdirt.jasper.events.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the posts of a single event type and owns the {@link ListenerMetrics} of its listeners.
+ * The recorded values survive when the listeners of the event type change. Listeners are identified by the name of
+ * their method, so the listeners of several owners of the same class share their metrics.
+ */
+public final class EventMetrics {
+
+    private final String name;
+    private final LongAdder posts = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final Map<String, ListenerMetrics> listeners = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new {@link EventMetrics} owner.
+     *
+     * @param name the name of the event type.
+     */
+    public EventMetrics(@NotNull String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the metrics of the listener with the given name, creating them on first use.
+     *
+     * @param name the name of the listener.
+     * @return the {@link ListenerMetrics} of the listener.
+     */
+    public @NotNull ListenerMetrics listener(@NotNull String name) {
+        return this.listeners.computeIfAbsent(name, ListenerMetrics::new);
+    }
+
+    /**
+     * Records a single post of the event type.
+     *
+     * @param nanos     the time all listeners took together in nanoseconds.
+     * @param cancelled whether the event was cancelled.
+     */
+    public void record(long nanos, boolean cancelled) {
+        this.posts.increment();
+        if (cancelled) this.cancelled.increment();
+        this.latency.record(nanos);
+    }
+
+    /**
+     * @return a point-in-time copy of the recorded values, with listeners sorted by name.
+     */
+    public @NotNull EventBusMetrics.EventStats snapshot() {
+        return new EventBusMetrics.EventStats(this.name, this.posts.sum(), this.cancelled.sum(),
+                this.latency.snapshot(), this.listeners.values().stream()
+                        .map(ListenerMetrics::snapshot)
+                        .sorted(Comparator.comparing(EventBusMetrics.ListenerStats::name))
+                        .toList());
+    }
+}
@@ -0,0 +1,111 @@
+package github.businessdirt.jasper.events.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free latency histogram with logarithmic buckets, similar to an HDR histogram.
+ * <p>
+ * Every power of two is split into {@value #SUB_BUCKETS} linear sub-buckets, so any recorded value is reported with
+ * a relative error of at most 12.5%. Recording a value is a single atomic increment and never allocates.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Records a single value.
+     *
+     * @param nanos the measured latency in nanoseconds. Negative values are recorded as {@code 0}.
+     */
+    public void record(long nanos) {
+        this.counts.getAndIncrement(indexOf(Math.max(0L, nanos)));
+    }
+
+    /**
+     * Copies the current bucket counts. Values recorded concurrently may or may not be included.
+     *
+     * @return a point-in-time {@link Snapshot} of this histogram.
+     */
+    public @NotNull Snapshot snapshot() {
+        long[] buckets = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) buckets[i] = this.counts.get(i);
+        return new Snapshot(buckets);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKETS) return index;
+
+        int shift = index / SUB_BUCKETS - 1;
+        long highest = (((long) SUB_BUCKETS | (index % SUB_BUCKETS)) + 1 << shift) - 1;
+        return highest < 0 ? Long.MAX_VALUE : highest;
+    }
+
+    /**
+     * An immutable copy of the bucket counts of a {@link LatencyHistogram}.
+     */
+    public static final class Snapshot {
+
+        private final long[] buckets;
+        private final long count;
+
+        private Snapshot(long @NotNull [] buckets) {
+            this.buckets = buckets;
+
+            long count = 0;
+            for (long bucket : buckets) count += bucket;
+            this.count = count;
+        }
+
+        /**
+         * @return the number of recorded values.
+         */
+        public long count() {
+            return this.count;
+        }
+
+        /**
+         * Returns the value below which the given percentage of all recorded values fall.
+         * The result is the upper bound of the bucket that contains the percentile.
+         *
+         * @param percentile the percentile between {@code 0} and {@code 100}.
+         * @return the percentile in nanoseconds, or {@code 0} if nothing was recorded.
+         */
+        public long percentile(double percentile) {
+            if (this.count == 0) return 0;
+
+            long rank = Math.max(1, (long) Math.ceil(this.count * Math.clamp(percentile, 0.0, 100.0) / 100.0));
+            long seen = 0;
+            for (int i = 0; i < this.buckets.length; i++) {
+                seen += this.buckets[i];
+                if (seen >= rank) return highestValueOf(i);
+            }
+
+            return this.max();
+        }
+
+        /**
+         * @return the upper bound of the highest non-empty bucket in nanoseconds, or {@code 0} if nothing was recorded.
+         */
+        public long max() {
+            for (int i = this.buckets.length - 1; i >= 0; i--) {
+                if (this.buckets[i] != 0) return highestValueOf(i);
+            }
+
+            return 0;
+        }
+    }
+}
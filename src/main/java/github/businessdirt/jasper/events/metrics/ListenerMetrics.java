@@ -0,0 +1,49 @@
+package github.businessdirt.jasper.events.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the invocations of a single listener. All counters are striped {@link LongAdder}s,
+ * so listeners invoked from many threads do not contend on a shared counter.
+ */
+public final class ListenerMetrics {
+
+    private final String name;
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder cancellations = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    /**
+     * Constructs a new {@link ListenerMetrics} owner.
+     *
+     * @param name the name of the listener, as built by {@code ReflectionUtils.getMethodString}.
+     */
+    public ListenerMetrics(@NotNull String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records a single invocation of the listener.
+     *
+     * @param nanos     the time the listener took in nanoseconds.
+     * @param failed    whether the listener threw an exception.
+     * @param cancelled whether the listener cancelled the event.
+     */
+    public void record(long nanos, boolean failed, boolean cancelled) {
+        this.invocations.increment();
+        if (failed) this.errors.increment();
+        if (cancelled) this.cancellations.increment();
+        this.latency.record(nanos);
+    }
+
+    /**
+     * @return a point-in-time copy of the recorded values.
+     */
+    public @NotNull EventBusMetrics.ListenerStats snapshot() {
+        return new EventBusMetrics.ListenerStats(this.name, this.invocations.sum(), this.errors.sum(),
+                this.cancellations.sum(), this.latency.snapshot());
+    }
+}
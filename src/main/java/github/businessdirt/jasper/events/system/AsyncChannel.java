@@ -0,0 +1,357 @@
+package github.businessdirt.jasper.events.system;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * A named, bounded queue that posts events asynchronously on its own virtual thread, in the order they arrived.
+ * <p>
+ * A channel never holds more than {@code capacity} pending events. What happens to an event that arrives while the
+ * channel is full is decided by its {@link OverflowPolicy}. Dropped events complete their future exceptionally with a
+ * {@link RejectedExecutionException}, so bursts cannot exhaust the heap.
+ * <p>
+ * Channels are registered with {@link EventBus#registerChannel(AsyncChannel)}. Listeners are moved onto a channel
+ * with {@link HandleEvent#channel()}, and whole event types are routed to a channel by {@link Event#postAsync()}
+ * if the channel was built with routes.
+ *
+ * @see github.businessdirt.jasper.events.builders.AsyncChannelBuilder
+ */
+public class AsyncChannel implements AutoCloseable {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final String name;
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final Set<Class<? extends Event>> routes;
+
+    private final ReentrantLock lock;
+    private final Condition notEmpty;
+    private final Condition notFull;
+
+    // guarded by lock
+    private final Deque<Task> queue;
+    private final Map<CoalesceKey, Task> pending;
+    private int maxDepth;
+    private boolean closed;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder posted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    private final Thread consumer;
+
+    /**
+     * Constructs a new {@link AsyncChannel} and starts its consumer thread.
+     *
+     * @param name     the name of the channel.
+     * @param capacity the maximum number of pending events.
+     * @param policy   what to do with an event that arrives while the channel is full.
+     * @param routes   the event types whose {@link Event#postAsync()} is handled by this channel.
+     * @throws IllegalArgumentException if the capacity is less than {@code 1}.
+     */
+    public AsyncChannel(
+            @NotNull String name,
+            int capacity,
+            @NotNull OverflowPolicy policy,
+            @NotNull Set<Class<? extends Event>> routes
+    ) throws IllegalArgumentException {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive but was " + capacity);
+
+        this.name = name;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.routes = Set.copyOf(routes);
+
+        this.lock = new ReentrantLock();
+        this.notEmpty = this.lock.newCondition();
+        this.notFull = this.lock.newCondition();
+        this.queue = new ArrayDeque<>(Math.min(capacity, 1024));
+        this.pending = new HashMap<>();
+
+        this.consumer = Thread.ofVirtual().name(AsyncChannel.class.getSimpleName() + "-" + name).unstarted(this::consume);
+        this.consumer.start();
+    }
+
+    /**
+     * Queues an event that is posted to all of its listeners on this channel.
+     *
+     * @param event   the event to post.
+     * @param onError a {@link Consumer} that will be called if an exception is thrown by a listener.
+     * @return a {@link CompletableFuture} that completes with {@code true} if the event was cancelled by any of the
+     * listeners, {@code false} otherwise, or completes exceptionally if the event was dropped.
+     */
+    public @NotNull CompletableFuture<Boolean> submit(
+            @NotNull Event event,
+            @Nullable Consumer<Throwable> onError
+    ) {
+        return this.submit(this, event, () -> EventBus.get().getEventHandler(event.getClass()).post(event, onError));
+    }
+
+    /**
+     * Queues an action that processes the given event.
+     *
+     * @param source identifies the submitter, so that {@link OverflowPolicy#COALESCE} only merges events of the same
+     *               submitter.
+     * @param event  the event that is processed.
+     * @param action processes the event and returns whether it was cancelled.
+     * @return a {@link CompletableFuture} that completes with the result of the action.
+     */
+    @NotNull CompletableFuture<Boolean> submit(
+            @NotNull Object source,
+            @NotNull Event event,
+            @NotNull BooleanSupplier action
+    ) {
+        Task task = new Task(event, action, new CompletableFuture<>());
+        CoalesceKey key = this.policy == OverflowPolicy.COALESCE ? CoalesceKey.of(source, event) : null;
+        this.submitted.increment();
+
+        this.lock.lock();
+        try {
+            if (this.closed) {
+                this.drop(task);
+                return task.result;
+            }
+
+            if (key != null) {
+                Task previous = this.pending.get(key);
+                if (previous != null) {
+                    // the newer event takes the place of the older one in the queue, and the listeners of the older
+                    // event never run, so its future follows the outcome of the newer one
+                    CompletableFuture<Boolean> replaced = previous.result;
+                    task.result.whenComplete((cancelled, throwable) -> {
+                        if (throwable != null) replaced.completeExceptionally(throwable);
+                        else replaced.complete(cancelled);
+                    });
+
+                    previous.replaceWith(task);
+                    this.coalesced.increment();
+                    return task.result;
+                }
+            }
+
+            while (this.queue.size() >= this.capacity) {
+                if (this.closed) {
+                    this.drop(task);
+                    return task.result;
+                }
+
+                switch (this.policy) {
+                    case BLOCK -> {
+                        // a listener of this channel would wait for itself
+                        if (Thread.currentThread() == this.consumer) {
+                            this.drop(task);
+                            return task.result;
+                        }
+
+                        this.notFull.awaitUninterruptibly();
+                    }
+                    case DROP_NEWEST -> {
+                        this.drop(task);
+                        return task.result;
+                    }
+                    case DROP_OLDEST, COALESCE -> this.drop(this.removeFirst());
+                }
+            }
+
+            task.key = key;
+            this.queue.addLast(task);
+            if (key != null) this.pending.put(key, task);
+            this.maxDepth = Math.max(this.maxDepth, this.queue.size());
+            this.notEmpty.signal();
+        } finally {
+            this.lock.unlock();
+        }
+
+        return task.result;
+    }
+
+    // must be called while holding lock
+    private @NotNull Task removeFirst() {
+        Task task = this.queue.removeFirst();
+        if (task.key != null) this.pending.remove(task.key);
+        this.notFull.signal();
+        return task;
+    }
+
+    private void drop(@NotNull Task task) {
+        this.dropped.increment();
+        task.result.completeExceptionally(new RejectedExecutionException(
+                "Event " + task.event.getClass().getName() + " was dropped by channel " + this.name));
+    }
+
+    private void consume() {
+        while (true) {
+            Task task;
+
+            this.lock.lock();
+            try {
+                while (this.queue.isEmpty()) {
+                    if (this.closed) return;
+                    this.notEmpty.awaitUninterruptibly();
+                }
+
+                task = this.removeFirst();
+            } finally {
+                this.lock.unlock();
+            }
+
+            try {
+                task.result.complete(task.action.getAsBoolean());
+            } catch (Throwable throwable) {
+                task.result.completeExceptionally(throwable);
+            } finally {
+                this.posted.increment();
+            }
+        }
+    }
+
+    /**
+     * @return the name of this channel.
+     */
+    public @NotNull String getName() {
+        return this.name;
+    }
+
+    /**
+     * @return the event types whose {@link Event#postAsync()} is handled by this channel.
+     */
+    public @NotNull Set<Class<? extends Event>> getRoutes() {
+        return this.routes;
+    }
+
+    /**
+     * Takes a snapshot of the counters of this channel.
+     *
+     * @return the current {@link ChannelStats}.
+     */
+    public @NotNull ChannelStats getStats() {
+        this.lock.lock();
+        try {
+            return new ChannelStats(this.name, this.policy, this.queue.size(), this.capacity, this.maxDepth,
+                    this.submitted.sum(), this.posted.sum(), this.dropped.sum(), this.coalesced.sum());
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting events and waits until every pending event has been posted.
+     * Events submitted after this method was called are dropped. Calling this method more than once has no effect.
+     * If the calling thread is interrupted while waiting, its interrupt status is restored and the method returns.
+     */
+    @Override
+    public void close() {
+        this.lock.lock();
+        try {
+            this.closed = true;
+            this.notEmpty.signalAll();
+            this.notFull.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+
+        try {
+            if (Thread.currentThread() != this.consumer) this.consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * What an {@link AsyncChannel} does with an event that arrives while it is full.
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * The producer waits until the channel has room for the event.
+         * Events submitted by a listener that runs on the full channel itself are dropped instead.
+         */
+        BLOCK,
+
+        /** The arriving event is dropped. */
+        DROP_NEWEST,
+
+        /** The oldest pending event is dropped to make room for the arriving event. */
+        DROP_OLDEST,
+
+        /**
+         * The arriving event replaces a pending event of the same type and key, see {@link KeyedEvent}.
+         * The future of the replaced event completes together with the future of the event that replaced it, with
+         * the same result. If no such event is pending and the channel is full, the oldest pending event is dropped.
+         */
+        COALESCE
+    }
+
+    /**
+     * A point-in-time copy of the counters of an {@link AsyncChannel}.
+     *
+     * @param name      the name of the channel.
+     * @param policy    the overflow policy of the channel.
+     * @param depth     the number of pending events.
+     * @param capacity  the maximum number of pending events.
+     * @param maxDepth  the highest number of events that have been pending at once.
+     * @param submitted the number of events that were submitted.
+     * @param posted    the number of events that were posted.
+     * @param dropped   the number of events that were dropped.
+     * @param coalesced the number of events that replaced a pending event.
+     */
+    public record ChannelStats(
+            @NotNull String name,
+            @NotNull OverflowPolicy policy,
+            int depth,
+            int capacity,
+            int maxDepth,
+            long submitted,
+            long posted,
+            long dropped,
+            long coalesced
+    ) { }
+
+    private record CoalesceKey(
+            @NotNull Object source,
+            @NotNull Class<?> type,
+            @Nullable Object key
+    ) {
+        private static @NotNull CoalesceKey of(
+                @NotNull Object source,
+                @NotNull Event event
+        ) {
+            return new CoalesceKey(source, event.getClass(), event instanceof KeyedEvent<?> keyed ? keyed.getKey() : null);
+        }
+    }
+
+    private static final class Task {
+
+        private Event event;
+        private BooleanSupplier action;
+        private CompletableFuture<Boolean> result;
+        private @Nullable CoalesceKey key;
+
+        private Task(
+                @NotNull Event event,
+                @NotNull BooleanSupplier action,
+                @NotNull CompletableFuture<Boolean> result
+        ) {
+            this.event = event;
+            this.action = action;
+            this.result = result;
+        }
+
+        private void replaceWith(@NotNull Task newer) {
+            this.event = newer.event;
+            this.action = newer.action;
+            this.result = newer.result;
+        }
+    }
+}
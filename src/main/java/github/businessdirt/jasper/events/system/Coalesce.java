@@ -0,0 +1,50 @@
+package github.businessdirt.jasper.events.system;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marks an event type whose posts are coalesced by the {@link EventBus}.
+ * <p>
+ * The first post of such an event opens a window. Every post until the window closes is merged into a single pending
+ * event, which is posted to the listeners when the window closes. The listeners therefore see each event type (and
+ * key, see {@link #byKey()}) at most once per window, and never later than one window after it was first posted.
+ * <p>
+ * Posting a coalesced event returns immediately with {@code false}, since its listeners have not run yet.
+ *
+ * @see EventCoalescer
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Coalesce {
+
+    /**
+     * @return the length of the window in {@link #unit()}.
+     */
+    long window();
+
+    /**
+     * @return the unit of {@link #window()}.
+     */
+    @NotNull TimeUnit unit() default TimeUnit.MILLISECONDS;
+
+    /**
+     * If {@code true}, events that implement {@link KeyedEvent} are only merged with events of the same key.
+     *
+     * @return {@code true} to coalesce every key separately, {@code false} to coalesce all events of the type.
+     */
+    boolean byKey() default true;
+
+    /**
+     * The merger that combines a pending event with a newly posted one.
+     * The default value {@code EventMerger.class} means that the newest event replaces the pending one.
+     *
+     * @return the merger class of the event.
+     */
+    @NotNull Class<? extends EventMerger> merger() default EventMerger.class;
+}
@@ -1,7 +1,9 @@
 package github.businessdirt.jasper.events.system;
 
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 /**
@@ -15,7 +17,7 @@ import java.util.function.Consumer;
  */
 public abstract class Event {
 
-    private boolean isCancelled = false;
+    private volatile boolean isCancelled = false;
 
     /**
      * Checks if the event has been cancelled.
@@ -34,6 +36,14 @@ public abstract class Event {
         this.isCancelled = true;
     }
 
+    /**
+     * Clears the cancelled flag so that the event owner can be posted again.
+     * This is only used for events that are reused by the event system, such as in a {@link RingBufferEventBus}.
+     */
+    void resetCancelled() {
+        this.isCancelled = false;
+    }
+
     /**
      * Posts this event to the default {@link EventBus}.
      *
@@ -53,6 +63,58 @@ public abstract class Event {
         return EventBus.get().getEventHandler(this.getClass()).post(this, onError);
     }
 
+    /**
+     * Posts this event to the default {@link EventBus} and keeps it as the sticky event of its class.
+     * Listeners that are subscribed later receive it immediately.
+     *
+     * @return {@code true} if the event was cancelled by any of the listeners, {@code false} otherwise.
+     * @see EventBus#postSticky(Event, Consumer)
+     * @see EventBus#getSticky(Class)
+     */
+    public boolean postSticky() {
+        return this.postSticky(null);
+    }
+
+    /**
+     * Posts this event to the default {@link EventBus} and keeps it as the sticky event of its class.
+     * Listeners that are subscribed later receive it immediately.
+     *
+     * @param onError a {@link Consumer} that will be called if an exception is thrown by a listener.
+     * @return {@code true} if the event was cancelled by any of the listeners, {@code false} otherwise.
+     * @see EventBus#postSticky(Event, Consumer)
+     */
+    public boolean postSticky(@Nullable Consumer<Throwable> onError) {
+        return EventBus.get().postSticky(this, onError);
+    }
+
+    /**
+     * Posts this event to the default {@link EventBus} without blocking the calling thread.
+     *
+     * @return a {@link CompletableFuture} that completes with {@code true} if the event was cancelled
+     * by any of the listeners, {@code false} otherwise.
+     * @see EventHandler#postAsync(Event, Consumer, java.util.concurrent.Executor)
+     */
+    public @NotNull CompletableFuture<Boolean> postAsync() {
+        return this.postAsync(null);
+    }
+
+    /**
+     * Posts this event to the default {@link EventBus} without blocking the calling thread.
+     * The listeners are invoked on the virtual threads of {@link EventBus#getAsyncExecutor()}, unless the event type
+     * is routed to an {@link AsyncChannel}, which then posts the event on its own thread.
+     *
+     * @param onError a {@link Consumer} that will be called if an exception is thrown by a listener.
+     * @return a {@link CompletableFuture} that completes with {@code true} if the event was cancelled
+     * by any of the listeners, {@code false} otherwise. It completes exceptionally if a channel dropped the event.
+     */
+    public @NotNull CompletableFuture<Boolean> postAsync(@Nullable Consumer<Throwable> onError) {
+        EventBus eventBus = EventBus.get();
+        AsyncChannel channel = eventBus.getChannelRoute(this.getClass());
+        if (channel != null) return channel.submit(this, onError);
+
+        return eventBus.getEventHandler(this.getClass()).postAsync(this, onError, eventBus.getAsyncExecutor());
+    }
+
     /**
      * An interface that marks an {@link Event} as cancellable.
      * When an event is cancelled, subsequent listeners with lower priority will not be called
@@ -1,14 +1,22 @@
 package github.businessdirt.jasper.events.system;
 
+import github.businessdirt.jasper.events.events.application.ApplicationShutdownEvent;
 import github.businessdirt.jasper.events.events.application.ApplicationStartEvent;
+import github.businessdirt.jasper.events.journal.EventJournal;
+import github.businessdirt.jasper.events.journal.Journaled;
+import github.businessdirt.jasper.events.metrics.EventBusMetrics;
+import github.businessdirt.jasper.events.metrics.EventMetrics;
 import github.businessdirt.jasper.events.system.exceptions.ClassNotInstantiableException;
 import github.businessdirt.jasper.events.system.exceptions.EventBusNotInitializedException;
 import github.businessdirt.jasper.events.system.exceptions.MethodNotPublicException;
 import github.businessdirt.jasper.events.system.exceptions.ParameterException;
+import github.businessdirt.jasper.reflections.ClassIndex;
 import github.businessdirt.jasper.reflections.LambdaFactory;
 import github.businessdirt.jasper.reflections.ReflectionUtils;
 import github.businessdirt.jasper.reflections.Reflections;
+import github.businessdirt.jasper.reflections.ScanService;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Unmodifiable;
 
 import javax.annotation.Nonnull;
@@ -16,7 +24,14 @@ import java.io.IOException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
 import java.util.stream.Collectors;
 
 /**
@@ -27,56 +42,173 @@ import java.util.stream.Collectors;
  * <p>
  * The EventBus must be initialized with {@link #initialize(String)} before use.
  * After initialization, the singleton owner can be retrieved with {@link #get()}.
+ * <p>
+ * The listener registry is safe for concurrent use. Every {@link EventHandler} is an immutable snapshot
+ * that is replaced as a whole when listeners are added with {@link #subscribe(Object)} or removed with
+ * {@link #unsubscribe(Object)}, so posting threads never take a lock.
+ * <p>
+ * Handlers are resolved through a {@link ClassValue}, which replaces a hash map lookup by the per-class cache of the
+ * JVM. The lookup is not a constant the JIT can fold, since the bus is an instance and every lookup reads the volatile
+ * handler of the slot, but it neither hashes the event class nor takes a lock.
+ * The first lookup of an event type still builds its handler, which can be done ahead of time with {@link #warmUp()}.
+ * <p>
+ * Listeners and event types can be moved onto bounded {@link AsyncChannel}s, see {@link #registerChannel(AsyncChannel)}.
+ * Posts of event types annotated with {@link Coalesce} are merged by the {@link #getCoalescer() coalescer}.
+ * All channels are drained and closed, all coalesced events are posted, and the executors of asynchronous posts and
+ * parallel listeners are shut down, when the {@link ApplicationShutdownEvent} is posted.
+ * <p>
+ * When initialized with lazy listeners, see {@link #initialize(String, boolean, boolean)}, the classes that declare
+ * listener methods are only instantiated, and the consumers that invoke their methods are only created, when an event
+ * one of their methods listens for is posted for the first time.
  */
 public class EventBus {
 
-    private static EventBus INSTANCE;
+    private static final int DEFAULT_SHARD_QUEUE_CAPACITY = 1024;
+    private static volatile EventBus INSTANCE;
 
     private final Map<Class<? extends Event>, List<EventListener>> listeners;
-    private final Map<Class<? extends Event>, EventHandler> handlers;
+    private final ClassValue<HandlerSlot> handlerSlots;
+    private final Set<Class<? extends Event>> eventTypes;
 
-    private EventBus(
-            @NotNull String basePackage
+    // guarded by registryLock
+    private final Map<Class<? extends Event>, HandlerSlot> handlers;
+    private final Map<Object, List<Map.Entry<Class<? extends Event>, EventListener>>> subscribers;
+    private final Object registryLock;
+
+    private volatile @Nullable ExecutorService asyncExecutor;
+    private volatile @Nullable ForkJoinPool fanOutPool;
+    private volatile @Nullable ShardedDispatcher shardedDispatcher;
+    private volatile boolean generatedDispatch;
+    private volatile @Nullable ListenerWatchdog watchdog;
+    private volatile @Nullable EventJournal journal;
+
+    // only modified while holding registryLock
+    private final Map<String, AsyncChannel> channels;
+    private final Map<Class<? extends Event>, AsyncChannel> channelRoutes;
+    private final EventCoalescer coalescer;
+
+    private final Map<Class<? extends Event>, Event> stickyEvents;
+    private final Map<Class<? extends Event>, EventMetrics> metrics;
+    private volatile boolean metricsEnabled;
+    private final boolean lazyListeners;
+
+    EventBus(
+            @NotNull String basePackage,
+            boolean lazyListeners
     ) throws IOException, MethodNotPublicException, ClassNotInstantiableException, ParameterException {
-        this.listeners = new HashMap<>();
+        this.listeners = new ConcurrentHashMap<>();
+        this.handlerSlots = new ClassValue<>() {
+            @Override
+            protected HandlerSlot computeValue(@NotNull Class<?> type) {
+                return new HandlerSlot();
+            }
+        };
         this.handlers = new HashMap<>();
+        this.subscribers = new IdentityHashMap<>();
+        this.registryLock = new Object();
+        this.generatedDispatch = true;
+        this.channels = new ConcurrentHashMap<>();
+        this.channelRoutes = new ConcurrentHashMap<>();
+        this.coalescer = new EventCoalescer(this::getEventHandler);
+        this.stickyEvents = new ConcurrentHashMap<>();
+        this.metrics = new ConcurrentHashMap<>();
+        this.metricsEnabled = false;
+        this.lazyListeners = lazyListeners;
+
+        // only scan the classpath if the package was compiled without the listener index processor
+        ClassIndex index = ClassIndex.load(basePackage);
+        Reflections reflections = index == null
+                ? ScanService.get().getReflections(basePackage)
+                : new Reflections(index.getClasses(ClassIndex.Kind.LISTENER));
+        Reflections events = index == null
+                ? reflections
+                : new Reflections(index.getClasses(ClassIndex.Kind.EVENT));
 
-        Reflections reflections = new Reflections(basePackage);
         Set<Method> annotatedMethods = reflections.getMethodsAnnotatedWith(HandleEvent.class);
+        this.eventTypes = events.getSubTypesOf(Event.class).stream()
+                .filter(type -> !Modifier.isAbstract(type.getModifiers()))
+                .collect(Collectors.toUnmodifiableSet());
 
         Map<Class<?>, Object> instances = new HashMap<>();
+        Map<Object, List<Map.Entry<Class<? extends Event>, EventListener>>> owners = new IdentityHashMap<>();
 
         annotatedMethods.forEach(method -> {
-            method.setAccessible(true);
-
-            if (!Modifier.isPublic(method.getModifiers()))
-                throw new MethodNotPublicException(method);
+            var instance = lazyListeners
+                    ? instances.computeIfAbsent(method.getDeclaringClass(), LazyOwner::new)
+                    : this.getInstance(method, instances); // throws ClassNotInstantiableException
+            owners.computeIfAbsent(instance, _ -> new ArrayList<>())
+                    .add(this.createListener(method, instance)); // throws MethodNotPublicException, ParameterException
+        });
 
-            var name = ReflectionUtils.getMethodString(method);
-            var instance = this.getInstance(method, instances); // throws ClassNotInstantiableException
-            var eventData = this.getEventData(method); // throws ParameterException
-            var eventConsumer = this.getEventConsumer(method, instance); // throws ParameterException
+        EventListener shutdown = EventListener.of(EventBus.class.getName() + "::shutdown",
+                _ -> this.shutdown(), HandleEvent.Priority.LOWEST).receivingCancelled();
 
-            listeners.computeIfAbsent(eventData.getValue(), _ -> new ArrayList<>())
-                    .add(EventListener.of(name, eventConsumer, eventData.getKey()));
-        });
+        synchronized (this.registryLock) {
+            owners.forEach(this::register);
+            this.register(this, List.of(Map.entry(ApplicationShutdownEvent.class, shutdown)));
+        }
     }
 
     private @NotNull Object getInstance(
             @NotNull Method method,
             @NotNull Map<Class<?>, Object> instances
     ) throws ClassNotInstantiableException {
-        return instances.computeIfAbsent(method.getDeclaringClass(), _ -> {
+        return instances.computeIfAbsent(method.getDeclaringClass(), EventBus::instantiate);
+    }
+
+    private static @NotNull Object instantiate(
+            @NotNull Class<?> type
+    ) throws ClassNotInstantiableException {
+        try {
+            return type.getField("INSTANCE").get(null);
+        } catch (NoSuchFieldException | IllegalAccessException e) {
             try {
-                return method.getDeclaringClass().getField("INSTANCE").get(null);
-            } catch (NoSuchFieldException | IllegalAccessException e) {
-                try {
-                    return method.getDeclaringClass().getConstructor().newInstance();
-                } catch (Exception ex) {
-                    throw new ClassNotInstantiableException(method.getDeclaringClass());
-                }
+                return type.getConstructor().newInstance();
+            } catch (Exception ex) {
+                throw new ClassNotInstantiableException(type);
             }
-        });
+        }
+    }
+
+    private @NotNull Map.@Unmodifiable Entry<Class<? extends Event>, EventListener> createListener(
+            @NotNull Method method,
+            @NotNull Object instance
+    ) throws MethodNotPublicException, ClassNotInstantiableException, ParameterException {
+        method.setAccessible(true);
+
+        if (!Modifier.isPublic(method.getModifiers()))
+            throw new MethodNotPublicException(method);
+
+        var name = ReflectionUtils.getMethodString(method);
+        var eventData = this.getEventData(method); // throws ParameterException
+        if (!eventData.getKey().key().isEmpty() && !KeyedEvent.class.isAssignableFrom(eventData.getValue()))
+            throw new ParameterException(method, "must listen for a " + KeyedEvent.class.getName() + " to use a key");
+        if (eventData.getKey().budgetMillis() < 0)
+            throw new ParameterException(method, "must not have a negative budget");
+
+        var eventConsumer = instance instanceof LazyOwner owner
+                ? new LazyConsumer(method, owner)
+                : this.getEventConsumer(method, instance); // throws ParameterException
+        var filter = this.getEventFilter(eventData.getKey()); // throws ClassNotInstantiableException
+
+        return Map.entry(eventData.getValue(), EventListener.of(name, eventConsumer, eventData.getKey(), filter));
+    }
+
+    private @Nullable EventFilter getEventFilter(
+            @NotNull HandleEvent options
+    ) throws ClassNotInstantiableException {
+        Class<? extends EventFilter> filterClass = options.filter();
+        if (filterClass == EventFilter.class) return null;
+
+        try {
+            return filterClass.cast(filterClass.getField("INSTANCE").get(null));
+        } catch (NoSuchFieldException | IllegalAccessException | ClassCastException e) {
+            try {
+                return filterClass.getConstructor().newInstance();
+            } catch (Exception ex) {
+                throw new ClassNotInstantiableException(filterClass);
+            }
+        }
     }
 
     @SuppressWarnings("unchecked")
@@ -121,9 +253,202 @@ public class EventBus {
         };
     }
 
+    /**
+     * Registers all methods of the given object that are annotated with {@link HandleEvent}.
+     * <p>
+     * Only the {@link EventHandler}s of event types the new listeners can receive are rebuilt.
+     * Subscribing an object that is already subscribed has no effect. The new listeners immediately receive the
+     * sticky events they listen for on the calling thread, see {@link #postSticky(Event, Consumer)}.
+     *
+     * @param owner the object whose listener methods should be registered.
+     *
+     * @throws MethodNotPublicException if a listener method is not public.
+     * @throws ClassNotInstantiableException if the filter of a listener method cannot be instantiated.
+     * @throws ParameterException if there is an error with the parameters of a listener method.
+     */
+    public void subscribe(
+            @NotNull Object owner
+    ) throws MethodNotPublicException, ClassNotInstantiableException, ParameterException {
+        List<Map.Entry<Class<? extends Event>, EventListener>> entries = Arrays.stream(owner.getClass().getMethods())
+                .filter(method -> method.isAnnotationPresent(HandleEvent.class))
+                .map(method -> this.createListener(method, owner))
+                .collect(Collectors.toList());
+
+        synchronized (this.registryLock) {
+            if (this.subscribers.containsKey(owner)) return;
+            this.register(owner, entries);
+        }
+
+        this.replaySticky(entries);
+    }
+
+    /**
+     * Registers a listener for the events of the given type whose key is equal to {@code key}.
+     * <p>
+     * The listener is stored in the key index of the {@link EventHandler}, so it does not slow down posting events
+     * with other keys. It is invoked with {@link HandleEvent.Priority#MEDIUM} and can be removed by passing the same
+     * {@code listener} to {@link #unsubscribe(Object)}. Subscribing a listener that is already subscribed has no effect.
+     * The listener immediately receives the sticky event of the type if its key matches.
+     *
+     * @param type     the class of the events.
+     * @param key      the key of the events the listener receives.
+     * @param listener the listener to invoke.
+     * @param <K>      the type of the key.
+     * @param <E>      the type of the events.
+     */
+    public <K, E extends Event & KeyedEvent<K>> void subscribe(
+            @NotNull Class<E> type,
+            @NotNull K key,
+            @NotNull Consumer<? super E> listener
+    ) {
+        String name = listener.getClass().getName() + "[" + key + "]";
+        Consumer<Event> invoker = event -> listener.accept(type.cast(event));
+        EventListener eventListener = EventListener.of(name, invoker, HandleEvent.Priority.MEDIUM).withKey(key);
+
+        synchronized (this.registryLock) {
+            if (this.subscribers.containsKey(listener)) return;
+            this.register(listener, List.of(Map.entry(type, eventListener)));
+        }
+
+        this.replaySticky(List.of(Map.entry(type, eventListener)));
+    }
+
+    /**
+     * Removes all listeners that were registered for the given object, either by {@link #subscribe(Object)},
+     * by {@link #subscribe(Class, Object, Consumer)} or during initialization.
+     *
+     * @param owner the object whose listener methods should be removed.
+     * @return {@code true} if the object was subscribed, {@code false} otherwise.
+     */
+    public boolean unsubscribe(
+            @NotNull Object owner
+    ) {
+        synchronized (this.registryLock) {
+            var entries = this.subscribers.remove(owner);
+            if (entries == null) return false;
+
+            Map<Class<? extends Event>, List<EventListener>> removed = entries.stream().collect(Collectors.groupingBy(
+                    Map.Entry::getKey, Collectors.mapping(Map.Entry::getValue, Collectors.toList())));
+
+            removed.forEach((eventType, eventListeners) -> {
+                List<EventListener> remaining = this.listeners.getOrDefault(eventType, Collections.emptyList())
+                        .stream()
+                        .filter(listener -> eventListeners.stream().noneMatch(other -> other == listener))
+                        .toList();
+
+                if (remaining.isEmpty()) this.listeners.remove(eventType);
+                else this.listeners.put(eventType, remaining);
+            });
+
+            this.rebuildHandlers(removed.keySet());
+            return true;
+        }
+    }
+
+    // invokes new listeners with the sticky events they can receive, outside of registryLock
+    private void replaySticky(
+            @NotNull List<Map.Entry<Class<? extends Event>, EventListener>> entries
+    ) {
+        if (this.stickyEvents.isEmpty()) return;
+
+        this.stickyEvents.forEach((type, sticky) -> {
+            List<Class<?>> eventClasses = this.getEventClasses(type);
+            entries.forEach(entry -> {
+                if (eventClasses.contains(entry.getKey())) EventHandler.invoke(entry.getValue(), sticky, null);
+            });
+        });
+    }
+
+    /**
+     * Stores an event as the sticky event of its class and posts it to all its listeners.
+     * <p>
+     * The sticky event replaces the previous sticky event of the same class. Listeners that are registered later
+     * receive it as soon as they are subscribed, and {@link #getSticky(Class)} returns it until it is replaced or
+     * removed.
+     *
+     * @param event   the event to post.
+     * @param onError a {@link Consumer} that will be called if an exception is thrown by a listener.
+     * @return {@code true} if the event was cancelled by any of the listeners, {@code false} otherwise.
+     * @see Event#postSticky()
+     */
+    public boolean postSticky(
+            @NotNull Event event,
+            @Nullable Consumer<Throwable> onError
+    ) {
+        this.stickyEvents.put(event.getClass(), event);
+        return this.getEventHandler(event.getClass()).post(event, onError);
+    }
+
+    /**
+     * Gets the sticky event of the given class without posting anything.
+     *
+     * @param type the exact class of the event.
+     * @param <E>  the type of the event.
+     * @return the latest sticky event of the class, or {@code null} if none has been posted.
+     */
+    public <E extends Event> @Nullable E getSticky(
+            @NotNull Class<E> type
+    ) {
+        return type.cast(this.stickyEvents.get(type));
+    }
+
+    /**
+     * Removes the sticky event of the given class.
+     *
+     * @param type the exact class of the event.
+     * @param <E>  the type of the event.
+     * @return the removed sticky event, or {@code null} if there was none.
+     */
+    public <E extends Event> @Nullable E removeSticky(
+            @NotNull Class<E> type
+    ) {
+        return type.cast(this.stickyEvents.remove(type));
+    }
+
+    // must be called while holding registryLock
+    private void register(
+            @NotNull Object owner,
+            @NotNull List<Map.Entry<Class<? extends Event>, EventListener>> entries
+    ) {
+        this.subscribers.put(owner, List.copyOf(entries));
+
+        Map<Class<? extends Event>, List<EventListener>> added = entries.stream().collect(Collectors.groupingBy(
+                Map.Entry::getKey, Collectors.mapping(Map.Entry::getValue, Collectors.toList())));
+
+        added.forEach((eventType, eventListeners) -> {
+            List<EventListener> combined = new ArrayList<>(this.listeners.getOrDefault(eventType, Collections.emptyList()));
+            combined.addAll(eventListeners);
+            this.listeners.put(eventType, List.copyOf(combined));
+        });
+
+        this.rebuildHandlers(added.keySet());
+    }
+
+    // must be called while holding registryLock
+    private void rebuildHandlers(
+            @NotNull Set<Class<? extends Event>> changedTypes
+    ) {
+        this.handlers.forEach((event, slot) -> {
+            if (this.getEventClasses(event).stream().anyMatch(changedTypes::contains))
+                slot.handler = this.createEventHandler(event);
+        });
+
+        // the watchdog keeps the overruns of every listener it has watched, which must not outlive the listener
+        ListenerWatchdog watchdog = this.watchdog;
+        if (watchdog != null) watchdog.retain(this.listeners.values().stream().flatMap(List::stream).toList());
+    }
+
+    // must be called while holding registryLock
+    private void rebuildAllHandlers() {
+        this.handlers.forEach((event, slot) -> slot.handler = this.createEventHandler(event));
+    }
+
     /**
      * Gets the {@link EventHandler} for the given event class.
      * If an event handler does not exist for the given event, a new one is created.
+     * <p>
+     * Looking up an existing handler never blocks. Only the first lookup of an event type
+     * synchronizes with concurrent calls to {@link #subscribe(Object)} and {@link #unsubscribe(Object)}.
      *
      * @param event the event class.
      * @return the {@link EventHandler} for the given event class.
@@ -131,11 +456,321 @@ public class EventBus {
     public @NotNull EventHandler getEventHandler(
             @NotNull Class<? extends Event> event
     ) {
-        return handlers.computeIfAbsent(event, e ->
-                new EventHandler(e, getEventClasses(e).stream()
-                        .map(cls -> listeners.getOrDefault(cls, Collections.emptyList()))
-                        .flatMap(List::stream)
-                        .collect(Collectors.toList())));
+        HandlerSlot slot = this.handlerSlots.get(event);
+        EventHandler handler = slot.handler;
+        if (handler != null) return handler;
+
+        synchronized (this.registryLock) {
+            return this.prepareHandler(event, slot);
+        }
+    }
+
+    // must be called while holding registryLock
+    private @NotNull EventHandler prepareHandler(
+            @NotNull Class<? extends Event> event,
+            @NotNull HandlerSlot slot
+    ) {
+        if (slot.handler == null) {
+            slot.handler = this.createEventHandler(event);
+            this.handlers.put(event, slot);
+        }
+
+        return slot.handler;
+    }
+
+    /**
+     * Builds the {@link EventHandler} of every concrete event type found while scanning the base package,
+     * so that the first post of an event type does not have to build it.
+     * Handlers that already exist are left untouched.
+     *
+     * @return the number of handlers that were built.
+     * @see #initialize(String, boolean)
+     */
+    public int warmUp() {
+        synchronized (this.registryLock) {
+            int built = 0;
+            for (Class<? extends Event> event : this.eventTypes) {
+                HandlerSlot slot = this.handlerSlots.get(event);
+                if (slot.handler != null) continue;
+
+                this.prepareHandler(event, slot);
+                built++;
+            }
+
+            return built;
+        }
+    }
+
+    /**
+     * Posts a batch of events of the same type, resolving the {@link EventHandler} only once.
+     * The events are posted one after another, exactly as if {@link Event#post()} was called for each of them.
+     *
+     * @param type   the class of the events.
+     * @param events the events to post.
+     * @param <E>    the type of the events.
+     * @return a {@link BitSet} in which bit {@code i} is set if the {@code i}-th event was cancelled.
+     *
+     * @throws IllegalArgumentException if an event is not an instance of exactly {@code type}.
+     */
+    public <E extends Event> @NotNull BitSet postAll(
+            @NotNull Class<E> type,
+            @NotNull Iterable<? extends E> events
+    ) throws IllegalArgumentException {
+        return this.postAll(type, events, null, EventHandler.BatchOrder.EVENT_MAJOR);
+    }
+
+    /**
+     * Posts a batch of events of the same type, resolving the {@link EventHandler} only once.
+     *
+     * @param type    the class of the events.
+     * @param events  the events to post.
+     * @param onError a {@link Consumer} that will be called if an exception is thrown by a listener.
+     * @param order   whether to iterate the batch event by event or listener by listener.
+     * @param <E>     the type of the events.
+     * @return a {@link BitSet} in which bit {@code i} is set if the {@code i}-th event was cancelled.
+     *
+     * @throws IllegalArgumentException if an event is not an instance of exactly {@code type}.
+     * @see EventHandler#postAll(Iterable, Consumer, EventHandler.BatchOrder)
+     */
+    public <E extends Event> @NotNull BitSet postAll(
+            @NotNull Class<E> type,
+            @NotNull Iterable<? extends E> events,
+            @Nullable Consumer<Throwable> onError,
+            @NotNull EventHandler.BatchOrder order
+    ) throws IllegalArgumentException {
+        return this.getEventHandler(type).postAll(events, onError, order);
+    }
+
+    /**
+     * Posts {@code count} events of the same type that are created on demand from their index,
+     * resolving the {@link EventHandler} only once.
+     * <p>
+     * This is meant for callers that keep their state in primitive arrays or indexed structures,
+     * e.g. one event per entity id. The events are created and posted one at a time, so no batch is materialized.
+     * To avoid creating an event per index, see {@link #postEach(Class, int, Event, ObjIntConsumer, Consumer)}.
+     *
+     * @param type    the class of the events.
+     * @param count   the number of events to post.
+     * @param factory creates the event for an index between {@code 0} and {@code count - 1}.
+     * @param onError a {@link Consumer} that will be called if an exception is thrown by a listener.
+     * @param <E>     the type of the events.
+     * @return a {@link BitSet} in which bit {@code i} is set if the event for index {@code i} was cancelled.
+     *
+     * @throws IllegalArgumentException if an event is not an instance of exactly {@code type}.
+     */
+    public <E extends Event> @NotNull BitSet postEach(
+            @NotNull Class<E> type,
+            int count,
+            @NotNull IntFunction<? extends E> factory,
+            @Nullable Consumer<Throwable> onError
+    ) throws IllegalArgumentException {
+        EventHandler handler = this.getEventHandler(type);
+        BitSet cancelled = new BitSet(count);
+
+        for (int i = 0; i < count; i++) {
+            if (handler.post(this.checkBatchType(type, factory.apply(i)), onError)) cancelled.set(i);
+        }
+
+        return cancelled;
+    }
+
+    /**
+     * Posts {@code count} events of the same type through a single reusable event,
+     * resolving the {@link EventHandler} only once.
+     * <p>
+     * Before every post, {@code filler} writes the data of the next index into {@code event}, like the translator of
+     * a {@link RingBufferEventBus}, so the batch does not allocate an event per index. The cancelled flag of the
+     * event is cleared between posts. Since the event is reused, it is only posted to the listeners that run during
+     * the post, never to listeners on an {@link AsyncChannel}, and listeners must not keep a reference to it.
+     *
+     * @param type    the class of the events.
+     * @param count   the number of events to post.
+     * @param event   the event that is filled and posted for every index.
+     * @param filler  writes the data of an index between {@code 0} and {@code count - 1} into the event.
+     * @param onError a {@link Consumer} that will be called if an exception is thrown by a listener.
+     * @param <E>     the type of the events.
+     * @return a {@link BitSet} in which bit {@code i} is set if the event was cancelled for index {@code i}.
+     *
+     * @throws IllegalArgumentException if the event is not an instance of exactly {@code type}, or the type is
+     *                                  annotated with {@link Coalesce}, whose coalescer would keep the event.
+     */
+    public <E extends Event> @NotNull BitSet postEach(
+            @NotNull Class<E> type,
+            int count,
+            @NotNull E event,
+            @NotNull ObjIntConsumer<? super E> filler,
+            @Nullable Consumer<Throwable> onError
+    ) throws IllegalArgumentException {
+        this.checkBatchType(type, event);
+        if (type.isAnnotationPresent(Coalesce.class)) throw new IllegalArgumentException(String.format(
+                "Event %s is coalesced, the coalescer would keep the reused event", type.getName()));
+
+        EventHandler handler = this.getEventHandler(type);
+        BitSet cancelled = new BitSet(count);
+
+        for (int i = 0; i < count; i++) {
+            filler.accept(event, i);
+            if (handler.postInPlace(event, onError)) cancelled.set(i);
+            event.resetCancelled();
+        }
+
+        return cancelled;
+    }
+
+    private <E extends Event> @NotNull E checkBatchType(
+            @NotNull Class<E> type,
+            @NotNull E event
+    ) throws IllegalArgumentException {
+        if (event.getClass() != type) throw new IllegalArgumentException(String.format(
+                "Event %s is not an instance of exactly %s", event.getClass().getName(), type.getName()));
+        return event;
+    }
+
+    private @NotNull EventHandler createEventHandler(
+            @NotNull Class<? extends Event> event
+    ) {
+        return new EventHandler(event, this.getEventClasses(event).stream()
+                .map(cls -> this.listeners.getOrDefault(cls, Collections.emptyList()))
+                .flatMap(List::stream)
+                .collect(Collectors.toList()), this.generatedDispatch, this.metricsEnabled
+                ? this.metrics.computeIfAbsent(event, e -> new EventMetrics(e.getName()))
+                : null, this::getChannel, event.isAnnotationPresent(Coalesce.class) ? this.coalescer : null,
+                task -> this.getFanOutPool().execute(task), this.watchdog);
+    }
+
+    /**
+     * Sets whether {@link EventHandler}s use a generated dispatcher class per event type.
+     * <p>
+     * Generated dispatchers are enabled by default. Disabling them falls back to invoking the listeners in a loop,
+     * which avoids defining hidden classes at the cost of slower posting. All existing handlers are rebuilt.
+     *
+     * @param generatedDispatch {@code true} to generate dispatcher classes, {@code false} to use the listener loop.
+     */
+    public void setGeneratedDispatch(boolean generatedDispatch) {
+        synchronized (this.registryLock) {
+            if (this.generatedDispatch == generatedDispatch) return;
+            this.generatedDispatch = generatedDispatch;
+            this.rebuildAllHandlers();
+        }
+    }
+
+    /**
+     * @return {@code true} if {@link EventHandler}s use generated dispatcher classes, {@code false} otherwise.
+     */
+    public boolean isGeneratedDispatch() {
+        return this.generatedDispatch;
+    }
+
+    /**
+     * Sets whether synchronous posts record metrics.
+     * <p>
+     * While enabled, every post records its latency and whether it was cancelled, and every listener invocation
+     * records its latency, whether it threw and whether it cancelled the event. Recording replaces the generated
+     * dispatcher of a handler with an instrumented loop, but parallel listeners are still fanned out. Values recorded so far are kept when recording is
+     * disabled and resumed when it is enabled again. All existing handlers are rebuilt.
+     *
+     * @param metricsEnabled {@code true} to record metrics, {@code false} to stop recording.
+     */
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        synchronized (this.registryLock) {
+            if (this.metricsEnabled == metricsEnabled) return;
+            this.metricsEnabled = metricsEnabled;
+            this.rebuildAllHandlers();
+        }
+    }
+
+    /**
+     * Sets the watchdog that checks the time budgets of listeners during synchronous posts.
+     * <p>
+     * Watched handlers invoke their listeners in an instrumented loop instead of a generated dispatcher. Parallel
+     * listeners are still fanned out and checked on the threads that run them. A previous watchdog is closed.
+     * All existing handlers are rebuilt.
+     *
+     * @param watchdog the watchdog to use, or {@code null} to stop watching listeners.
+     * @see github.businessdirt.jasper.events.builders.ListenerWatchdogBuilder
+     */
+    public void setWatchdog(@Nullable ListenerWatchdog watchdog) {
+        ListenerWatchdog previous;
+
+        synchronized (this.registryLock) {
+            previous = this.watchdog;
+            if (previous == watchdog) return;
+            this.watchdog = watchdog;
+            this.rebuildAllHandlers();
+        }
+
+        if (previous != null) previous.close();
+    }
+
+    /**
+     * Sets the journal that posts of event types annotated with {@link Journaled} are appended to.
+     * <p>
+     * The journal is registered as a listener with {@link HandleEvent.Priority#HIGHEST} priority that also receives
+     * cancelled events, so events are journaled before most other listeners run. A previous journal is closed.
+     *
+     * @param journal the journal to append to, or {@code null} to stop journaling.
+     * @see github.businessdirt.jasper.events.builders.EventJournalBuilder
+     */
+    public void setJournal(@Nullable EventJournal journal) {
+        EventJournal previous;
+
+        synchronized (this.registryLock) {
+            previous = this.journal;
+            if (previous == journal) return;
+            if (previous != null) this.unsubscribe(previous);
+
+            if (journal != null) {
+                EventListener append = EventListener.of(EventJournal.class.getName() + "::append", journal::append,
+                        HandleEvent.Priority.HIGHEST).receivingCancelled();
+
+                // a listener of a type also receives its subtypes, so journaled subtypes of journaled types are skipped
+                Set<Class<? extends Event>> journaled = this.eventTypes.stream()
+                        .filter(type -> type.isAnnotationPresent(Journaled.class))
+                        .collect(Collectors.toSet());
+                this.register(journal, journaled.stream()
+                        .filter(type -> this.getEventClasses(type).stream().skip(1).noneMatch(journaled::contains))
+                        .<Map.Entry<Class<? extends Event>, EventListener>>map(type -> Map.entry(type, append))
+                        .toList());
+            }
+
+            this.journal = journal;
+        }
+
+        if (previous != null) previous.close();
+    }
+
+    /**
+     * @return the journal that journaled events are appended to, or {@code null} if none is set.
+     */
+    public @Nullable EventJournal getJournal() {
+        return this.journal;
+    }
+
+    /**
+     * @return the watchdog that checks the time budgets of listeners, or {@code null} if none is set.
+     */
+    public @Nullable ListenerWatchdog getWatchdog() {
+        return this.watchdog;
+    }
+
+    /**
+     * @return {@code true} if synchronous posts record metrics, {@code false} otherwise.
+     */
+    public boolean isMetricsEnabled() {
+        return this.metricsEnabled;
+    }
+
+    /**
+     * Takes a snapshot of all metrics recorded since the {@link EventBus} was initialized.
+     *
+     * @return the recorded metrics, with the most posted event types first.
+     * @see #setMetricsEnabled(boolean)
+     */
+    public @NotNull EventBusMetrics getMetrics() {
+        return new EventBusMetrics(this.metrics.values().stream()
+                .map(EventMetrics::snapshot)
+                .sorted(Comparator.comparingLong(EventBusMetrics.EventStats::posts).reversed())
+                .toList());
     }
 
     private @NotNull List<Class<?>> getEventClasses(
@@ -156,26 +791,288 @@ public class EventBus {
         return classes;
     }
 
+    /**
+     * Gets the executor used by {@link Event#postAsync()}.
+     * Every task runs on its own virtual thread, so blocking listeners do not tie up platform threads.
+     * The executor is created on first use and shut down when the {@link ApplicationShutdownEvent} is posted,
+     * a later call creates a new one.
+     *
+     * @return the executor for asynchronous posts.
+     */
+    public @NotNull ExecutorService getAsyncExecutor() {
+        ExecutorService executor = this.asyncExecutor;
+        if (executor != null) return executor;
+
+        synchronized (this.registryLock) {
+            if (this.asyncExecutor == null) this.asyncExecutor = Executors.newVirtualThreadPerTaskExecutor();
+            return this.asyncExecutor;
+        }
+    }
+
+    /**
+     * Gets the pool that synchronous posts run parallel listeners on.
+     * It has one worker per available processor, so listeners that block for long should use
+     * {@link Event#postAsync()} or an {@link AsyncChannel} instead.
+     *
+     * The pool is created when the first parallel listeners are fanned out and shut down when the
+     * {@link ApplicationShutdownEvent} is posted, a later call creates a new one.
+     *
+     * @return the fan-out pool of this event bus.
+     * @see HandleEvent#parallel()
+     * @see ParallelListeners
+     */
+    public @NotNull ForkJoinPool getFanOutPool() {
+        ForkJoinPool pool = this.fanOutPool;
+        if (pool != null) return pool;
+
+        synchronized (this.registryLock) {
+            if (this.fanOutPool == null) {
+                this.fanOutPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), created -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(created);
+                    thread.setName(EventBus.class.getSimpleName() + "-fan-out-" + thread.getPoolIndex());
+                    return thread;
+                }, null, false);
+            }
+
+            return this.fanOutPool;
+        }
+    }
+
+    /**
+     * Gets the channel with the given name.
+     * If no such channel has been registered, a channel with a capacity of {@value AsyncChannel#DEFAULT_CAPACITY}
+     * events and {@link AsyncChannel.OverflowPolicy#BLOCK} is created.
+     *
+     * @param name the name of the channel.
+     * @return the {@link AsyncChannel} with the given name.
+     * @see HandleEvent#channel()
+     */
+    public @NotNull AsyncChannel getChannel(
+            @NotNull String name
+    ) {
+        AsyncChannel channel = this.channels.get(name);
+        if (channel != null) return channel;
+
+        synchronized (this.registryLock) {
+            return this.channels.computeIfAbsent(name, _ -> new AsyncChannel(name, AsyncChannel.DEFAULT_CAPACITY,
+                    AsyncChannel.OverflowPolicy.BLOCK, Set.of()));
+        }
+    }
+
+    /**
+     * Registers a channel under its name.
+     * <p>
+     * Listeners with a matching {@link HandleEvent#channel()} are invoked on the new channel, and
+     * {@link Event#postAsync()} submits events of the routed types to it. A channel that was registered under the
+     * same name before is replaced and closed after its pending events have been posted.
+     *
+     * @param channel the channel to register.
+     * @return the registered channel.
+     * @see github.businessdirt.jasper.events.builders.AsyncChannelBuilder
+     */
+    public @NotNull AsyncChannel registerChannel(
+            @NotNull AsyncChannel channel
+    ) {
+        AsyncChannel previous;
+
+        synchronized (this.registryLock) {
+            previous = this.channels.put(channel.getName(), channel);
+            if (previous != null) this.channelRoutes.values().removeIf(route -> route == previous);
+            channel.getRoutes().forEach(type -> this.channelRoutes.put(type, channel));
+            this.rebuildAllHandlers();
+        }
+
+        // closed outside the lock, since its pending listeners may need to look up handlers
+        if (previous != null && previous != channel) previous.close();
+        return channel;
+    }
+
+    /**
+     * @return all channels of this event bus, ordered by name.
+     */
+    public @NotNull @Unmodifiable List<AsyncChannel> getChannels() {
+        return this.channels.values().stream()
+                .sorted(Comparator.comparing(AsyncChannel::getName))
+                .toList();
+    }
+
+    /**
+     * Gets the channel that handles {@link Event#postAsync()} for the given event type.
+     *
+     * @param event the class of the event.
+     * @return the channel, or {@code null} if the event type is not routed to a channel.
+     */
+    @Nullable AsyncChannel getChannelRoute(
+            @NotNull Class<? extends Event> event
+    ) {
+        return this.channelRoutes.isEmpty() ? null : this.channelRoutes.get(event);
+    }
+
+    /**
+     * Gets the coalescer that merges the posts of event types annotated with {@link Coalesce}.
+     *
+     * @return the {@link EventCoalescer} of this event bus.
+     */
+    public @NotNull EventCoalescer getCoalescer() {
+        return this.coalescer;
+    }
+
+    // closes the coalescer, which posts all coalesced events, then removes every channel before closing it,
+    // so that channels used after shutdown are created again, and finally flushes the journal
+    private void shutdown() {
+        this.coalescer.close();
+        List<AsyncChannel> closed;
+        ExecutorService asyncExecutor;
+        ForkJoinPool fanOutPool;
+
+        synchronized (this.registryLock) {
+            closed = List.copyOf(this.channels.values());
+            this.channels.clear();
+            this.channelRoutes.clear();
+            this.rebuildAllHandlers();
+
+            asyncExecutor = this.asyncExecutor;
+            fanOutPool = this.fanOutPool;
+            this.asyncExecutor = null;
+            this.fanOutPool = null;
+        }
+
+        closed.forEach(AsyncChannel::close);
+
+        // this listener may itself run on one of the pools, so they are shut down without waiting for their tasks
+        if (asyncExecutor != null) asyncExecutor.shutdown();
+        if (fanOutPool != null) fanOutPool.shutdown();
+
+        EventJournal journal = this.journal;
+        if (journal != null) journal.flush();
+    }
+
+    /**
+     * Gets the dispatcher used by {@link PartitionedEvent#postSharded()}.
+     * If sharded dispatch has not been enabled yet, it is enabled with one lane per available processor
+     * and a queue capacity of 1024 events per lane.
+     *
+     * @return the {@link ShardedDispatcher} of this event bus.
+     * @see #enableShardedDispatch(int, int)
+     */
+    public @NotNull ShardedDispatcher getShardedDispatcher() {
+        ShardedDispatcher dispatcher = this.shardedDispatcher;
+        if (dispatcher != null) return dispatcher;
+
+        synchronized (this.registryLock) {
+            if (this.shardedDispatcher != null) return this.shardedDispatcher;
+            return this.enableShardedDispatch(Runtime.getRuntime().availableProcessors(), DEFAULT_SHARD_QUEUE_CAPACITY);
+        }
+    }
+
+    /**
+     * Starts a {@link ShardedDispatcher} with the given number of lanes for {@link PartitionedEvent#postSharded()}.
+     * <p>
+     * The dispatcher is closed when the {@link ApplicationShutdownEvent} is posted, after every event that was
+     * queued until then has been handled. If the previous dispatcher has been closed, it is replaced.
+     *
+     * @param lanes         the number of lanes, i.e. the maximum number of events handled in parallel.
+     * @param queueCapacity the maximum number of events waiting in the queue of a single lane.
+     * @return the new {@link ShardedDispatcher}.
+     * @throws IllegalArgumentException if {@code lanes} or {@code queueCapacity} is less than {@code 1}.
+     * @throws IllegalStateException if a dispatcher is already running.
+     */
+    public @NotNull ShardedDispatcher enableShardedDispatch(
+            int lanes,
+            int queueCapacity
+    ) throws IllegalArgumentException, IllegalStateException {
+        synchronized (this.registryLock) {
+            ShardedDispatcher current = this.shardedDispatcher;
+            if (current != null && !current.isClosed())
+                throw new IllegalStateException("Sharded dispatch is already enabled");
+            if (current != null) this.unsubscribe(current);
+
+            ShardedDispatcher dispatcher = new ShardedDispatcher(lanes, queueCapacity);
+            EventListener drain = EventListener.of(ShardedDispatcher.class.getName() + "::close",
+                    _ -> dispatcher.close(), HandleEvent.Priority.LOWEST).receivingCancelled();
+
+            this.register(dispatcher, List.of(Map.entry(ApplicationShutdownEvent.class, drain)));
+            this.shardedDispatcher = dispatcher;
+            return dispatcher;
+        }
+    }
+
     /**
      * Initializes the singleton owner of the {@link EventBus}.
      * This method must be called before {@link #get()} is called.
      * <p>The {@link EventBus} will scan all classes in the give package for listener methods
      * i.e. methods annotated with {@link HandleEvent}.
      * These methods will then be called when a corresponding event is posted.</p>
+     * <p>If the package was compiled with the {@code jasper-processor} annotation processor, the listener classes
+     * are read from its {@link ClassIndex} instead and the package is not scanned. Otherwise, the scan is shared
+     * with other subsystems through the {@link ScanService}.</p>
      *
      * @param basePackage the package to scan for event listeners.
      *
      * @throws IOException if an I/O error occurs during initialization. This is thrown by {@link Reflections}.
      *
      * @throws MethodNotPublicException if a listener method is not public.
-     * @throws ClassNotInstantiableException if a class that has a listener method has no default constructor and no INSTANCE field.
+     * @throws ClassNotInstantiableException if a class that has a listener method or a listener filter
+     * has no default constructor and no INSTANCE field.
      * @throws ParameterException if there is an error with the parameters of a listener method.
      */
-
     public static void initialize(
             @NotNull String basePackage
     ) throws IOException, MethodNotPublicException, ClassNotInstantiableException, ParameterException {
-        if (INSTANCE == null) INSTANCE = new EventBus(basePackage);
+        initialize(basePackage, false);
+    }
+
+    /**
+     * Initializes the singleton owner of the {@link EventBus}, optionally building all event handlers up front.
+     * This method must be called before {@link #get()} is called.
+     *
+     * @param basePackage the package to scan for event listeners.
+     * @param warmUp      whether to call {@link #warmUp()} before the {@link ApplicationStartEvent} is posted.
+     *
+     * @throws IOException if an I/O error occurs during initialization. This is thrown by {@link Reflections}.
+     *
+     * @throws MethodNotPublicException if a listener method is not public.
+     * @throws ClassNotInstantiableException if a class that has a listener method or a listener filter
+     * has no default constructor and no INSTANCE field.
+     * @throws ParameterException if there is an error with the parameters of a listener method.
+     * @see #initialize(String)
+     */
+    public static void initialize(
+            @NotNull String basePackage,
+            boolean warmUp
+    ) throws IOException, MethodNotPublicException, ClassNotInstantiableException, ParameterException {
+        initialize(basePackage, warmUp, false);
+    }
+
+    /**
+     * Initializes the singleton owner of the {@link EventBus}, optionally with lazy listeners.
+     * This method must be called before {@link #get()} is called.
+     * <p>With lazy listeners the listener methods are still validated during initialization, but the classes that
+     * declare them are only instantiated when the first event one of their methods listens for is posted. A class
+     * that cannot be instantiated then makes its listeners fail with a {@link ClassNotInstantiableException}, which is
+     * handled like any other exception thrown by a listener. Lazily instantiated owners cannot be passed to
+     * {@link #unsubscribe(Object)}.</p>
+     *
+     * @param basePackage   the package to scan for event listeners.
+     * @param warmUp        whether to call {@link #warmUp()} before the {@link ApplicationStartEvent} is posted.
+     *                      Warming up builds the handlers but does not instantiate lazy listeners.
+     * @param lazyListeners whether to instantiate the classes that declare listener methods on first use.
+     *
+     * @throws IOException if an I/O error occurs during initialization. This is thrown by {@link Reflections}.
+     *
+     * @throws MethodNotPublicException if a listener method is not public.
+     * @throws ClassNotInstantiableException if a listener filter has no default constructor and no INSTANCE field,
+     * or if a class that has a listener method has neither and {@code lazyListeners} is {@code false}.
+     * @throws ParameterException if there is an error with the parameters of a listener method.
+     * @see #initialize(String, boolean)
+     */
+    public static synchronized void initialize(
+            @NotNull String basePackage,
+            boolean warmUp,
+            boolean lazyListeners
+    ) throws IOException, MethodNotPublicException, ClassNotInstantiableException, ParameterException {
+        if (INSTANCE == null) INSTANCE = new EventBus(basePackage, lazyListeners);
+        if (warmUp) INSTANCE.warmUp();
         new ApplicationStartEvent().post();
     }
 
@@ -187,7 +1084,83 @@ public class EventBus {
      * @throws EventBusNotInitializedException if the EventBus has not been initialized.
      */
     public static EventBus get() throws EventBusNotInitializedException {
-        if (INSTANCE == null) throw new EventBusNotInitializedException();
-        return INSTANCE;
+        EventBus instance = INSTANCE;
+        if (instance == null) throw new EventBusNotInitializedException();
+        return instance;
+    }
+
+    /**
+     * @return {@code true} if the classes that declare listener methods are instantiated on first use,
+     * {@code false} if they were instantiated during initialization.
+     */
+    public boolean isLazyListeners() {
+        return this.lazyListeners;
+    }
+
+    /**
+     * Holds the current {@link EventHandler} of one event type. A slot is created once per type and never replaced,
+     * so updating the handler never races with the {@link ClassValue} that caches the slot.
+     * The handler is read with a volatile load on every lookup, so rebuilt handlers are seen at once.
+     */
+    private static final class HandlerSlot {
+
+        // written while holding registryLock
+        private volatile @Nullable EventHandler handler;
+    }
+
+    /**
+     * Stands in for the owner of lazy listeners until the owner is instantiated on first use.
+     */
+    private static final class LazyOwner {
+
+        private final Class<?> type;
+        private volatile @Nullable Object instance;
+
+        private LazyOwner(@NotNull Class<?> type) {
+            this.type = type;
+        }
+
+        private @NotNull Object get() throws ClassNotInstantiableException {
+            Object instance = this.instance;
+            if (instance != null) return instance;
+
+            synchronized (this) {
+                if (this.instance == null) this.instance = instantiate(this.type);
+                return this.instance;
+            }
+        }
+    }
+
+    /**
+     * Invokes a listener method of a {@link LazyOwner}, instantiating the owner and creating the consumer of the
+     * method on the first invocation. Afterwards, an invocation only costs one additional volatile read.
+     */
+    private final class LazyConsumer implements Consumer<Event> {
+
+        private final Method method;
+        private final LazyOwner owner;
+        private volatile @Nullable Consumer<Event> consumer;
+
+        private LazyConsumer(@NotNull Method method, @NotNull LazyOwner owner) {
+            this.method = method;
+            this.owner = owner;
+        }
+
+        @Override
+        public void accept(Event event) {
+            Consumer<Event> consumer = this.consumer;
+            if (consumer == null) consumer = this.resolve();
+            consumer.accept(event);
+        }
+
+        private synchronized @NotNull Consumer<Event> resolve() throws ClassNotInstantiableException {
+            Consumer<Event> consumer = this.consumer;
+            if (consumer == null) {
+                consumer = getEventConsumer(this.method, this.owner.get());
+                this.consumer = consumer;
+            }
+
+            return consumer;
+        }
     }
 }
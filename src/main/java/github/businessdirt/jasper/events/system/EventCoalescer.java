@@ -0,0 +1,237 @@
+package github.businessdirt.jasper.events.system;
+
+import github.businessdirt.jasper.events.system.exceptions.ClassNotInstantiableException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Merges posts of {@link Coalesce coalesced} event types and posts the result when their window closes.
+ * <p>
+ * All windows of an {@link EventBus} share a single scheduler thread, which also posts the merged events to their
+ * listeners. Listeners of coalesced events should therefore return quickly, or move their work to an
+ * {@link AsyncChannel}.
+ * <p>
+ * Once the coalescer is {@link #close() closed}, events are no longer merged and are posted by the caller instead.
+ *
+ * @see EventBus#getCoalescer()
+ */
+public class EventCoalescer {
+
+    private static final ClassValue<Settings> SETTINGS = new ClassValue<>() {
+        @Override
+        protected Settings computeValue(@NotNull Class<?> type) {
+            return Settings.of(type);
+        }
+    };
+
+    private final Function<Class<? extends Event>, EventHandler> handlers;
+    private final Map<Key, Pending> pending;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private volatile boolean closed;
+
+    private final LongAdder offered = new LongAdder();
+    private final LongAdder posted = new LongAdder();
+
+    /**
+     * Constructs a new {@link EventCoalescer}. The scheduler thread is started by the first post.
+     *
+     * @param handlers resolves the {@link EventHandler} that posts a merged event.
+     */
+    EventCoalescer(
+            @NotNull Function<Class<? extends Event>, EventHandler> handlers
+    ) {
+        this.handlers = handlers;
+        this.pending = new ConcurrentHashMap<>();
+        this.scheduler = new ScheduledThreadPoolExecutor(1, task -> Thread.ofPlatform()
+                .name(EventCoalescer.class.getSimpleName() + "-scheduler")
+                .daemon()
+                .unstarted(task));
+
+        // windows that are still open on close are flushed by the closing thread instead
+        this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * Merges an event into the pending event of its window, opening a new window if there is none.
+     *
+     * @param event   the posted event. Its class must be annotated with {@link Coalesce}.
+     * @param onError a {@link Consumer} that will be called if an exception is thrown by a listener or the merger.
+     *                The consumer of the last post of a window is used.
+     * @return {@code false} if the coalescer is closed and the caller has to post the event itself,
+     * {@code true} otherwise.
+     * @throws ClassNotInstantiableException if the merger of the event type cannot be instantiated.
+     */
+    boolean offer(
+            @NotNull Event event,
+            @Nullable Consumer<Throwable> onError
+    ) throws ClassNotInstantiableException {
+        if (this.closed) return false;
+
+        Settings settings = SETTINGS.get(event.getClass());
+        Key key = new Key(event.getClass(), settings.byKey() && event instanceof KeyedEvent<?> keyed
+                ? keyed.getKey()
+                : null);
+
+        this.offered.increment();
+
+        while (true) {
+            Pending fresh = new Pending(event, onError);
+            Pending current = this.pending.putIfAbsent(key, fresh);
+
+            if (current == null) {
+                try {
+                    this.scheduler.schedule(() -> this.post(key, fresh), settings.windowNanos(), TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    // the coalescer was closed concurrently, and its flush may already have passed this window
+                    this.post(key, fresh);
+                }
+                return true;
+            }
+
+            // the window may have closed since the lookup, in which case a new one is opened
+            if (current.merge(event, onError, settings.merger())) return true;
+        }
+    }
+
+    private void post(
+            @NotNull Key key,
+            @NotNull Pending pending
+    ) {
+        if (!this.pending.remove(key, pending)) return;
+
+        Event event;
+        Consumer<Throwable> onError;
+        synchronized (pending) {
+            pending.closed = true;
+            event = pending.event;
+            onError = pending.onError;
+        }
+
+        try {
+            this.handlers.apply(event.getClass()).postDirect(event, onError);
+        } catch (Throwable throwable) {
+            if (onError != null) onError.accept(throwable);
+        } finally {
+            this.posted.increment();
+        }
+    }
+
+    /**
+     * Closes every open window and posts its pending event on the calling thread.
+     */
+    public void flush() {
+        List.copyOf(this.pending.entrySet()).forEach(entry -> this.post(entry.getKey(), entry.getValue()));
+    }
+
+    /**
+     * Closes the coalescer. The scheduler thread is stopped and every open window is flushed on the calling thread.
+     * Coalesced events posted afterward are no longer merged, but posted directly to their listeners.
+     */
+    public void close() {
+        this.closed = true;
+
+        // stopping the scheduler first makes every window opened from now on post its event right away
+        this.scheduler.shutdown();
+        this.flush();
+    }
+
+    /**
+     * Takes a snapshot of the counters of this coalescer.
+     *
+     * @return the current {@link CoalesceStats}.
+     */
+    public @NotNull CoalesceStats getStats() {
+        return new CoalesceStats(this.offered.sum(), this.posted.sum(), this.pending.size());
+    }
+
+    /**
+     * A point-in-time copy of the counters of an {@link EventCoalescer}.
+     *
+     * @param offered the number of coalesced events that were posted.
+     * @param posted  the number of merged events that were posted to the listeners.
+     * @param pending the number of open windows.
+     */
+    public record CoalesceStats(
+            long offered,
+            long posted,
+            int pending
+    ) { }
+
+    private record Key(
+            @NotNull Class<?> type,
+            @Nullable Object key
+    ) { }
+
+    private record Settings(
+            long windowNanos,
+            boolean byKey,
+            @Nullable EventMerger merger
+    ) {
+        private static @NotNull Settings of(@NotNull Class<?> type) throws ClassNotInstantiableException {
+            Coalesce options = type.getAnnotation(Coalesce.class);
+            if (options == null) throw new IllegalArgumentException(
+                    "Event " + type.getName() + " is not annotated with " + Coalesce.class.getName());
+
+            return new Settings(options.unit().toNanos(options.window()), options.byKey(), merger(options.merger()));
+        }
+
+        private static @Nullable EventMerger merger(
+                @NotNull Class<? extends EventMerger> mergerClass
+        ) throws ClassNotInstantiableException {
+            if (mergerClass == EventMerger.class) return null;
+
+            try {
+                return mergerClass.cast(mergerClass.getField("INSTANCE").get(null));
+            } catch (NoSuchFieldException | IllegalAccessException | ClassCastException e) {
+                try {
+                    return mergerClass.getConstructor().newInstance();
+                } catch (Exception ex) {
+                    throw new ClassNotInstantiableException(mergerClass);
+                }
+            }
+        }
+    }
+
+    private static final class Pending {
+
+        private Event event;
+        private @Nullable Consumer<Throwable> onError;
+        private boolean closed;
+
+        private Pending(
+                @NotNull Event event,
+                @Nullable Consumer<Throwable> onError
+        ) {
+            this.event = event;
+            this.onError = onError;
+        }
+
+        // returns false if the window has already closed
+        private synchronized boolean merge(
+                @NotNull Event next,
+                @Nullable Consumer<Throwable> onError,
+                @Nullable EventMerger merger
+        ) {
+            if (this.closed) return false;
+
+            try {
+                this.event = merger == null ? next : merger.merge(this.event, next);
+            } catch (Throwable throwable) {
+                if (onError != null) onError.accept(throwable);
+            }
+
+            this.onError = onError;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package github.businessdirt.jasper.events.system;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.CodeBuilder;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.ConstantDescs;
+import java.lang.constant.DynamicConstantDesc;
+import java.lang.constant.MethodTypeDesc;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Invokes a fixed, sorted set of listeners for one event type.
+ * <p>
+ * Implementations are spun by {@link #generate(List, boolean)} as hidden classes that unroll the listeners into
+ * straight-line code. The invoker and filter of every listener are separate constants in the class data, and each
+ * invoker is called with its own {@code invokeinterface} call site, so the JIT sees a single receiver type per call
+ * and can inline every listener instead of going through a megamorphic {@link Consumer} call in a loop.
+ *
+ * @see EventHandler
+ */
+interface EventDispatcher {
+
+    /**
+     * Posts an event to all listeners of this dispatcher.
+     *
+     * @param event   the event to post.
+     * @param onError a {@link Consumer} that will be called if an exception is thrown by a listener.
+     * @return {@code true} if the event was cancelled by any of the listeners, {@code false} otherwise.
+     */
+    boolean dispatch(@NotNull Event event, @Nullable Consumer<Throwable> onError);
+
+    /**
+     * Generates a dispatcher for the given listeners.
+     * <p>
+     * The generated {@code dispatch} method is equivalent to the loop in {@link EventHandler#post(Event, Consumer)}:
+     * each listener is skipped if the event is cancelled and the listener cannot receive cancelled events or if its
+     * filter rejects the event, and otherwise invoked with any exception reported to {@code onError}. Unless a
+     * listener can receive cancelled events, the method returns as soon as the event has been cancelled.
+     * The keys of the listeners are not checked, so all listeners must receive the events of the same key.
+     *
+     * @param listeners           the listeners sorted by priority.
+     * @param canReceiveCancelled whether any of the listeners can receive cancelled events.
+     * @return a new owner of the generated dispatcher class.
+     */
+    static @NotNull EventDispatcher generate(
+            @NotNull List<EventListener> listeners,
+            boolean canReceiveCancelled
+    ) {
+        ClassDesc className = ClassDesc.of(EventDispatcher.class.getPackageName(), "GeneratedEventDispatcher");
+        ClassDesc eventDesc = ClassDesc.of(Event.class.getName());
+        ClassDesc consumerDesc = ClassDesc.of(Consumer.class.getName());
+        ClassDesc filterDesc = ClassDesc.of(EventFilter.class.getName());
+
+        MethodTypeDesc dispatchDesc = MethodTypeDesc.of(ConstantDescs.CD_boolean, eventDesc, consumerDesc);
+        MethodTypeDesc acceptDesc = MethodTypeDesc.of(ConstantDescs.CD_void, ConstantDescs.CD_Object);
+        MethodTypeDesc testDesc = MethodTypeDesc.of(ConstantDescs.CD_boolean, eventDesc);
+        MethodTypeDesc reportDesc = MethodTypeDesc.of(ConstantDescs.CD_void, ClassDesc.of(Throwable.class.getName()),
+                consumerDesc);
+        MethodTypeDesc isCancelledDesc = MethodTypeDesc.of(ConstantDescs.CD_boolean);
+
+        // the invoker of listener i is at index 2 * i of the class data, its filter (or null) at 2 * i + 1
+        List<Object> classData = new ArrayList<>(listeners.size() * 2);
+        for (EventListener listener : listeners) {
+            classData.add(listener.invoker());
+            classData.add(listener.filter());
+        }
+
+        byte[] bytes = ClassFile.of().build(className, clazz -> clazz
+                .withFlags(ClassFile.ACC_PUBLIC | ClassFile.ACC_FINAL | ClassFile.ACC_SYNTHETIC)
+                .withInterfaceSymbols(ClassDesc.of(EventDispatcher.class.getName()))
+                .withMethodBody(ConstantDescs.INIT_NAME, ConstantDescs.MTD_void, ClassFile.ACC_PUBLIC, code -> code
+                        .aload(0)
+                        .invokespecial(ConstantDescs.CD_Object, ConstantDescs.INIT_NAME, ConstantDescs.MTD_void)
+                        .return_())
+                .withMethodBody("dispatch", dispatchDesc, ClassFile.ACC_PUBLIC, code -> {
+                    // an event that is already cancelled reaches no listener
+                    if (!canReceiveCancelled) returnIfCancelled(code, eventDesc, isCancelledDesc);
+
+                    for (int i = 0; i < listeners.size(); i++) {
+                        EventListener listener = listeners.get(i);
+                        var skip = code.newLabel();
+                        var start = code.newLabel();
+                        var end = code.newLabel();
+                        var handler = code.newLabel();
+
+                        if (canReceiveCancelled && !listener.canReceiveCancelled()) {
+                            code.aload(1)
+                                    .invokevirtual(eventDesc, "isCancelled", isCancelledDesc)
+                                    .ifne(skip);
+                        }
+
+                        if (listener.filter() != null) {
+                            code.ldc(DynamicConstantDesc.ofNamed(ConstantDescs.BSM_CLASS_DATA_AT,
+                                            ConstantDescs.DEFAULT_NAME, filterDesc, 2 * i + 1))
+                                    .aload(1)
+                                    .invokeinterface(filterDesc, "test", testDesc)
+                                    .ifeq(skip);
+                        }
+
+                        code.labelBinding(start);
+                        code.ldc(DynamicConstantDesc.ofNamed(ConstantDescs.BSM_CLASS_DATA_AT,
+                                        ConstantDescs.DEFAULT_NAME, consumerDesc, 2 * i))
+                                .aload(1)
+                                .invokeinterface(consumerDesc, "accept", acceptDesc)
+                                .labelBinding(end)
+                                .goto_(skip)
+                                .labelBinding(handler)
+                                .aload(2)
+                                .invokestatic(ClassDesc.of(EventHandler.class.getName()), "report", reportDesc)
+                                .labelBinding(skip)
+                                .exceptionCatchAll(start, end, handler);
+
+                        if (!canReceiveCancelled) returnIfCancelled(code, eventDesc, isCancelledDesc);
+                    }
+
+                    code.aload(1)
+                            .invokevirtual(eventDesc, "isCancelled", isCancelledDesc)
+                            .ireturn();
+                }));
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup()
+                    .defineHiddenClassWithClassData(bytes, Collections.unmodifiableList(classData), true);
+            return (EventDispatcher) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class))
+                    .invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not generate an event dispatcher", e);
+        }
+    }
+
+    private static void returnIfCancelled(
+            @NotNull CodeBuilder code,
+            @NotNull ClassDesc eventDesc,
+            @NotNull MethodTypeDesc isCancelledDesc
+    ) {
+        var next = code.newLabel();
+        code.aload(1)
+                .invokevirtual(eventDesc, "isCancelled", isCancelledDesc)
+                .ifeq(next)
+                .iconst_1()
+                .ireturn()
+                .labelBinding(next);
+    }
+}
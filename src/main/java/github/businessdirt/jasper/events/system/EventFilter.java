@@ -0,0 +1,24 @@
+package github.businessdirt.jasper.events.system;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A cheap check that decides whether a listener should be invoked for a posted event.
+ * <p>
+ * Filters are attached to listeners with {@link HandleEvent#filter()} and are created once when the listener is
+ * registered, either through the public {@code INSTANCE} field or the public no-argument constructor of the filter
+ * class. They are evaluated on every post, so implementations should neither block nor allocate.
+ *
+ * @see HandleEvent#filter()
+ */
+@FunctionalInterface
+public interface EventFilter {
+
+    /**
+     * Tests whether the listener should receive the given event.
+     *
+     * @param event the posted event.
+     * @return {@code true} if the listener should be invoked, {@code false} otherwise.
+     */
+    boolean test(@NotNull Event event);
+}
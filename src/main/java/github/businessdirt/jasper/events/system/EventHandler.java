@@ -1,25 +1,58 @@
 package github.businessdirt.jasper.events.system;
 
+import github.businessdirt.jasper.events.metrics.EventMetrics;
+import github.businessdirt.jasper.events.metrics.ListenerMetrics;
+import github.businessdirt.jasper.jfr.ListenerInvocationEvent;
+import github.businessdirt.jasper.jfr.PostEvent;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
 
 /**
  * Handles the posting of a specific event type to its listeners.
  * It manages a sorted list of listeners and invokes them in order of priority.
+ * <p>
+ * Listeners that are subscribed to a single key of a {@link KeyedEvent} are kept in a hash index, so posting a keyed
+ * event only walks the listeners without a key and the listeners of its key.
+ * <p>
+ * Listeners with a {@link HandleEvent#channel()} are not invoked by the posting thread. Every post queues the event
+ * on their {@link AsyncChannel} once the other listeners have returned.
+ * <p>
+ * If any listener is marked with {@link HandleEvent#parallel()}, or the event type is annotated with
+ * {@link ParallelListeners}, synchronous posts fan the parallel listeners of each priority group out to a
+ * {@link ForkJoinPool} and join them before the next group starts.
+ * <p>
+ * While metrics are recorded, a {@link ListenerWatchdog} watches any of the listeners or a JDK Flight Recorder
+ * recording has the {@link ListenerInvocationEvent} enabled, every invocation is timed and checked on the thread that
+ * runs the listener, so parallel listeners keep running concurrently.
+ * Synchronous posts are recorded as {@link PostEvent}s while a recording has them enabled.
+ * <p>
+ * Events annotated with {@link Coalesce} are handed to an {@link EventCoalescer} by every post method, which posts
+ * them to the listeners once their window has closed.
  */
 public class EventHandler {
 
+    private final Class<? extends Event> event;
     private final String name;
     private final List<EventListener> listeners;
-    private final boolean canReceiveCancelled;
+    private final Chain wildcards;
+    private final Map<Object, Chain> chains;
+    private final @Nullable EventMetrics metrics;
+    private final ChannelGroup[] channelGroups;
+    private final @Nullable EventCoalescer coalescer;
+    private final boolean parallelType;
+    private final @Nullable Executor fanOut;
+    private final @Nullable ListenerWatchdog watchdog;
 
     /**
-     * Constructs a new {@link EventHandler}.
+     * Constructs a new {@link EventHandler} that invokes its listeners in a loop.
      *
      * @param event     the event class this handler is for.
      * @param listeners the list of listeners for this event.
@@ -28,14 +61,146 @@ public class EventHandler {
             @NotNull Class<? extends Event> event,
             @NotNull List<EventListener> listeners
     ) {
+        this(event, listeners, false, null);
+    }
+
+    /**
+     * Constructs a new {@link EventHandler} that resolves the channels of its listeners with
+     * {@link EventBus#getChannel(String)}, coalesces events with {@link EventBus#getCoalescer()} and fans parallel
+     * listeners out to the {@link ForkJoinPool#commonPool() common pool}.
+     *
+     * @param event              the event class this handler is for.
+     * @param listeners          the list of listeners for this event.
+     * @param generateDispatcher whether to generate a dedicated dispatcher class.
+     * @param metrics            the metrics to record into, or {@code null} to disable recording.
+     * @see #EventHandler(Class, List, boolean, EventMetrics, Function, EventCoalescer, Executor, ListenerWatchdog)
+     */
+    public EventHandler(
+            @NotNull Class<? extends Event> event,
+            @NotNull List<EventListener> listeners,
+            boolean generateDispatcher,
+            @Nullable EventMetrics metrics
+    ) {
+        this(event, listeners, generateDispatcher, metrics, name -> EventBus.get().getChannel(name),
+                event.isAnnotationPresent(Coalesce.class) ? EventBus.get().getCoalescer() : null,
+                ForkJoinPool.commonPool(), null);
+    }
+
+    /**
+     * Constructs a new {@link EventHandler}.
+     * <p>
+     * If {@code generateDispatcher} is {@code true}, a hidden class that calls every listener directly is generated
+     * for every key the first time an event of that key is posted, and used by {@link #post(Event, Consumer)} instead
+     * of the generic listener loop.
+     * If {@code metrics} is not {@code null}, {@link #post(Event, Consumer)} records the latency and outcome of
+     * every post and every listener invocation into it instead, and no dispatcher is generated.
+     * The same applies if {@code watchdog} is not {@code null} and any listener has a time budget. Parallel listeners
+     * are still fanned out, their invocations are timed on the threads that run them.
+     *
+     * @param event              the event class this handler is for.
+     * @param listeners          the list of listeners for this event.
+     * @param generateDispatcher whether to generate a dedicated dispatcher class.
+     * @param metrics            the metrics to record into, or {@code null} to disable recording.
+     * @param channels           resolves the {@link HandleEvent#channel()} of a listener to its channel.
+     * @param coalescer          the coalescer of the event, or {@code null} to post events immediately.
+     * @param fanOut             the executor that synchronous posts run parallel listeners on.
+     * @param watchdog           the watchdog that checks the time budgets of the listeners, or {@code null}.
+     */
+    public EventHandler(
+            @NotNull Class<? extends Event> event,
+            @NotNull List<EventListener> listeners,
+            boolean generateDispatcher,
+            @Nullable EventMetrics metrics,
+            @NotNull Function<String, AsyncChannel> channels,
+            @Nullable EventCoalescer coalescer,
+            @NotNull Executor fanOut,
+            @Nullable ListenerWatchdog watchdog
+    ) {
+        this.event = event;
         String eventName = event.getName();
         String[] parts = eventName.split("\\.");
         String lastPart = parts.length > 0 ? parts[parts.length - 1] : eventName;
         this.name = lastPart.replace("$", ".");
 
-        this.listeners = new ArrayList<>(listeners);
+        this.listeners = new ArrayList<>(listeners.stream().filter(listener -> listener.channel() == null).toList());
         this.listeners.sort(Comparator.comparingInt(listener -> listener.priority().asInt()));
-        this.canReceiveCancelled = this.listeners.stream().anyMatch(EventListener::canReceiveCancelled);
+
+        this.channelGroups = createChannelGroups(listeners, channels);
+        this.coalescer = coalescer;
+        this.parallelType = event.isAnnotationPresent(ParallelListeners.class);
+
+        this.metrics = metrics;
+        ListenerMetrics[] listenerMetrics = metrics == null ? null : this.listeners.stream()
+                .map(listener -> metrics.listener(listener.name()))
+                .toArray(ListenerMetrics[]::new);
+
+        ListenerWatchdog.Watch[] watches = watchdog == null ? null : this.listeners.stream()
+                .map(listener -> watchdog.watch(event, listener))
+                .toArray(ListenerWatchdog.Watch[]::new);
+        boolean watched = watches != null && Arrays.stream(watches).anyMatch(Objects::nonNull);
+        this.watchdog = watched ? watchdog : null;
+
+        boolean hasParallel = this.parallelType || this.listeners.stream().anyMatch(EventListener::parallel);
+        boolean instrumented = metrics != null || watched;
+        this.fanOut = hasParallel ? fanOut : null;
+
+        boolean dispatch = generateDispatcher && !instrumented && this.fanOut == null;
+        this.wildcards = this.createChain(null, listenerMetrics, watched ? watches : null, dispatch);
+        this.chains = new HashMap<>();
+        for (EventListener listener : this.listeners) {
+            if (listener.key() != null && !this.chains.containsKey(listener.key()))
+                this.chains.put(listener.key(), this.createChain(listener.key(), listenerMetrics,
+                        watched ? watches : null, dispatch));
+        }
+    }
+
+    private static @NotNull ChannelGroup[] createChannelGroups(
+            @NotNull List<EventListener> listeners,
+            @NotNull Function<String, AsyncChannel> channels
+    ) {
+        Map<String, List<EventListener>> groups = new TreeMap<>();
+        listeners.stream()
+                .filter(listener -> listener.channel() != null)
+                .sorted(Comparator.comparingInt(listener -> listener.priority().asInt()))
+                .forEach(listener -> groups.computeIfAbsent(listener.channel(), _ -> new ArrayList<>()).add(listener));
+
+        return groups.entrySet().stream()
+                .map(group -> new ChannelGroup(channels.apply(group.getKey()), List.copyOf(group.getValue())))
+                .toArray(ChannelGroup[]::new);
+    }
+
+    // merges the listeners without a key into the listeners of the key, keeping the order of this.listeners
+    private @NotNull Chain createChain(
+            @Nullable Object key,
+            ListenerMetrics @Nullable [] metrics,
+            ListenerWatchdog.Watch @Nullable [] watches,
+            boolean generateDispatcher
+    ) {
+        int[] positions = IntStream.range(0, this.listeners.size())
+                .filter(i -> this.listeners.get(i).key() == null || this.listeners.get(i).key().equals(key))
+                .toArray();
+        List<EventListener> listeners = Arrays.stream(positions).mapToObj(this.listeners::get).toList();
+
+        // a stage starts wherever the priority changes, since the listeners are sorted by priority
+        int[] stages = IntStream.range(0, listeners.size())
+                .filter(i -> i == 0 || listeners.get(i).priority() != listeners.get(i - 1).priority())
+                .toArray();
+
+        return new Chain(
+                listeners,
+                metrics == null ? null : Arrays.stream(positions).mapToObj(i -> metrics[i])
+                        .toArray(ListenerMetrics[]::new),
+                watches == null ? null : Arrays.stream(positions).mapToObj(i -> watches[i])
+                        .toArray(ListenerWatchdog.Watch[]::new),
+                stages,
+                generateDispatcher && !listeners.isEmpty()
+        );
+    }
+
+    // the chain of the key of a keyed event, or the listeners without a key for all other events
+    private @NotNull Chain chain(@NotNull Event event) {
+        if (this.chains.isEmpty() || !(event instanceof KeyedEvent<?> keyed)) return this.wildcards;
+        return this.chains.getOrDefault(keyed.getKey(), this.wildcards);
     }
 
     /**
@@ -44,14 +209,103 @@ public class EventHandler {
      * @param event   the event to post.
      * @param onError a {@link Consumer} that will be called if an exception is thrown by a listener.
      * @return {@code true} if the event was cancelled by any of the listeners, {@code false} otherwise.
+     * Coalesced events always return {@code false}, since their listeners run later,
+     * unless the {@link EventCoalescer} has been closed.
      */
     public boolean post(
             @NotNull Event event,
             @Nullable Consumer<Throwable> onError
+    ) {
+        if (this.coalescer != null && this.coalescer.offer(event, onError)) return false;
+        return this.postDirect(event, onError);
+    }
+
+    /**
+     * Posts an event to all its listeners without coalescing it.
+     *
+     * @param event   the event to post.
+     * @param onError a {@link Consumer} that will be called if an exception is thrown by a listener.
+     * @return {@code true} if the event was cancelled by any of the listeners, {@code false} otherwise.
+     */
+    boolean postDirect(
+            @NotNull Event event,
+            @Nullable Consumer<Throwable> onError
+    ) {
+        if (PostEvent.isRecording()) return this.postRecorded(event, onError);
+        return this.postAndSubmit(event, onError);
+    }
+
+    private boolean postAndSubmit(
+            @NotNull Event event,
+            @Nullable Consumer<Throwable> onError
+    ) {
+        boolean cancelled = this.postToListeners(event, onError, false);
+        if (this.channelGroups.length != 0) this.submitToChannels(event, onError);
+        return cancelled;
+    }
+
+    /**
+     * Posts an event that the caller reuses once this method returns, like the slots of a {@link RingBufferEventBus}.
+     * Only the listeners that run during the post receive it. The event is neither coalesced nor queued on an
+     * {@link AsyncChannel}, since both would keep a reference to it, and listeners demoted by the
+     * {@link ListenerWatchdog} run on the posting thread instead of a thread of the watchdog.
+     *
+     * @param event   the event to post.
+     * @param onError a {@link Consumer} that will be called if an exception is thrown by a listener.
+     * @return {@code true} if the event was cancelled by any of the listeners, {@code false} otherwise.
+     */
+    boolean postInPlace(
+            @NotNull Event event,
+            @Nullable Consumer<Throwable> onError
+    ) {
+        return this.postToListeners(event, onError, true);
+    }
+
+    // a reused event changes once the post returns, so no listener may run after that, not even a demoted one
+    private boolean postToListeners(
+            @NotNull Event event,
+            @Nullable Consumer<Throwable> onError,
+            boolean reused
+    ) {
+        return this.fanOut != null
+                ? this.postStaged(event, onError, this.fanOut, reused)
+                : this.postListeners(event, onError, reused);
+    }
+
+    // only called while a recording has the PostEvent enabled
+    private boolean postRecorded(
+            @NotNull Event event,
+            @Nullable Consumer<Throwable> onError
+    ) {
+        PostEvent recording = new PostEvent();
+        recording.begin();
+        boolean cancelled = this.postAndSubmit(event, onError);
+        recording.end();
+        if (recording.shouldCommit()) {
+            recording.eventType = this.event;
+            recording.listeners = this.listeners.size();
+            for (ChannelGroup group : this.channelGroups) recording.listeners += group.listeners().size();
+            recording.cancelled = cancelled;
+            recording.commit();
+        }
+
+        return cancelled;
+    }
+
+    private boolean postListeners(
+            @NotNull Event event,
+            @Nullable Consumer<Throwable> onError,
+            boolean reused
     ) {
         if (this.listeners.isEmpty()) return false;
 
-        for (EventListener listener : this.listeners) {
+        Chain chain = this.chain(event);
+        if (this.metrics != null || this.watchdog != null || ListenerInvocationEvent.isRecording())
+            return this.postInstrumented(chain, event, onError, reused);
+        EventDispatcher dispatcher = chain.dispatcher();
+        if (dispatcher != null) return dispatcher.dispatch(event, onError);
+
+        for (EventListener listener : chain.listeners) {
             if (!listener.shouldInvoke(event)) continue;
 
             try {
@@ -60,16 +314,373 @@ public class EventHandler {
                 if (onError != null) onError.accept(throwable);
             }
 
-            if (event.isCancelled() && !this.canReceiveCancelled) break;
+            if (event.isCancelled() && !chain.canReceiveCancelled) break;
+        }
+
+        return event.isCancelled();
+    }
+
+    // records metrics, checks budgets and records slow invocations, any of which may be disabled
+    private boolean postInstrumented(
+            @NotNull Chain chain,
+            @NotNull Event event,
+            @Nullable Consumer<Throwable> onError,
+            boolean reused
+    ) {
+        long postStart = System.nanoTime();
+        boolean recorded = ListenerInvocationEvent.isRecording();
+
+        for (int i = 0; i < chain.listeners.size(); i++) {
+            this.invokeInstrumented(chain, i, event, onError, recorded, reused);
+            if (event.isCancelled() && !chain.canReceiveCancelled) break;
+        }
+
+        if (this.metrics != null) this.metrics.record(System.nanoTime() - postStart, event.isCancelled());
+        return event.isCancelled();
+    }
+
+    // invokes a single listener of the chain on the current thread, which may be a fan-out worker
+    private void invokeInstrumented(
+            @NotNull Chain chain,
+            int index,
+            @NotNull Event event,
+            @Nullable Consumer<Throwable> onError,
+            boolean recorded,
+            boolean reused
+    ) {
+        EventListener listener = chain.listeners.get(index);
+        if (!listener.shouldInvoke(event)) return;
+
+        ListenerWatchdog.Watch watch = chain.watches == null ? null : chain.watches[index];
+        if (watch != null && watch.isDemoted()) {
+            assert this.watchdog != null;
+            if (reused) invoke(listener, event, onError);
+            else this.watchdog.runDemoted(() -> invoke(listener, event, onError));
+            return;
+        }
+
+        boolean wasCancelled = event.isCancelled();
+        boolean failed = false;
+        long start = System.nanoTime();
+        ListenerWatchdog.Slot slot = watch == null ? null : this.watchdog.enter(watch, start);
+        ListenerInvocationEvent recording = recorded ? new ListenerInvocationEvent() : null;
+        if (recording != null) recording.begin();
+
+        try {
+            listener.invoker().accept(event);
+        } catch (Throwable throwable) {
+            failed = true;
+            if (onError != null) onError.accept(throwable);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        if (recording != null) this.commit(recording, listener, failed);
+        if (watch != null) this.watchdog.exit(slot, watch, elapsed);
+        if (chain.metrics != null)
+            chain.metrics[index].record(elapsed, failed, !wasCancelled && event.isCancelled());
+    }
+
+    private void commit(
+            @NotNull ListenerInvocationEvent recording,
+            @NotNull EventListener listener,
+            boolean failed
+    ) {
+        recording.end();
+        if (!recording.shouldCommit()) return;
+
+        recording.eventType = this.event;
+        recording.listener = listener.name();
+        recording.failed = failed;
+        recording.commit();
+    }
+
+    // every group is submitted with itself as the source, so COALESCE only merges events of the same listeners
+    private void submitToChannels(
+            @NotNull Event event,
+            @Nullable Consumer<Throwable> onError
+    ) {
+        for (ChannelGroup group : this.channelGroups) {
+            group.channel().submit(group, event, () -> {
+                for (EventListener listener : group.listeners()) invoke(listener, event, onError);
+                return event.isCancelled();
+            });
+        }
+    }
+
+    /**
+     * Posts a batch of events to all listeners.
+     * <p>
+     * With {@link BatchOrder#EVENT_MAJOR}, every event is posted completely before the next one, exactly like
+     * calling {@link #post(Event, Consumer)} for each event. With {@link BatchOrder#LISTENER_MAJOR}, every listener
+     * receives the whole batch before the next listener runs, which keeps the listener's code and data hot.
+     * Cancellation is evaluated per event in both orders.
+     * <p>
+     * The batch is not copied. {@link BatchOrder#EVENT_MAJOR} iterates it once, checking and posting one event at a
+     * time, so an event of the wrong type is only detected once the events before it have been posted.
+     * {@link BatchOrder#LISTENER_MAJOR} checks all events first and then iterates the batch once per listener, so it
+     * must be an {@link Iterable} that can be iterated repeatedly, like a collection.
+     *
+     * @param events  the events to post. They must all be instances of exactly the event class of this handler.
+     * @param onError a {@link Consumer} that will be called if an exception is thrown by a listener.
+     * @param order   the order in which events and listeners are iterated.
+     * @return a {@link BitSet} in which bit {@code i} is set if the {@code i}-th event was cancelled.
+     * @throws IllegalArgumentException if an event is not an instance of exactly the event class of this handler.
+     */
+    public @NotNull BitSet postAll(
+            @NotNull Iterable<? extends Event> events,
+            @Nullable Consumer<Throwable> onError,
+            @NotNull BatchOrder order
+    ) throws IllegalArgumentException {
+        BitSet cancelled = new BitSet();
+
+        // coalesced events are offered one by one, so listener-major iteration does not apply
+        switch (this.coalescer != null ? BatchOrder.EVENT_MAJOR : order) {
+            case EVENT_MAJOR -> {
+                int index = 0;
+                for (Event event : events) {
+                    if (this.post(this.checkType(event), onError)) cancelled.set(index);
+                    index++;
+                }
+            }
+
+            case LISTENER_MAJOR -> {
+                for (Event event : events) this.checkType(event);
+
+                if (this.chains.isEmpty()) {
+                    postListenerMajor(this.wildcards, events, onError);
+                } else {
+                    // every chain receives the events of its key, so no listener is offered events of other keys
+                    Map<Chain, List<Event>> batches = new LinkedHashMap<>();
+                    for (Event event : events)
+                        batches.computeIfAbsent(this.chain(event), _ -> new ArrayList<>()).add(event);
+                    batches.forEach((chain, batch) -> postListenerMajor(chain, batch, onError));
+                }
+
+                int index = 0;
+                for (Event event : events) {
+                    if (event.isCancelled()) cancelled.set(index);
+                    if (this.channelGroups.length != 0) this.submitToChannels(event, onError);
+                    index++;
+                }
+            }
+        }
+
+        return cancelled;
+    }
+
+    private @NotNull Event checkType(@NotNull Event event) throws IllegalArgumentException {
+        if (event.getClass() != this.event) throw new IllegalArgumentException(String.format(
+                "Event %s is not an instance of exactly %s", event.getClass().getName(), this.event.getName()));
+        return event;
+    }
+
+    private static void postListenerMajor(
+            @NotNull Chain chain,
+            @NotNull Iterable<? extends Event> events,
+            @Nullable Consumer<Throwable> onError
+    ) {
+        for (EventListener listener : chain.listeners) {
+            for (Event event : events) invoke(listener, event, onError);
+        }
+    }
+
+    /**
+     * Posts an event to all its listeners on the given executor.
+     * <p>
+     * Listeners are processed one priority group at a time, so a group only starts after every listener of the
+     * previous group has returned. Inside a group, listeners marked with {@link HandleEvent#parallel()}, or all
+     * listeners if the event type is annotated with {@link ParallelListeners}, are started concurrently, while all
+     * other listeners run one after another in registration order.
+     * Cancelling the event from a parallel listener therefore only affects the following priority groups.
+     *
+     * @param event    the event to post.
+     * @param onError  a {@link Consumer} that will be called if an exception is thrown by a listener.
+     * @param executor the executor the listeners are invoked on.
+     * @return a {@link CompletableFuture} that completes with {@code true} if the event was cancelled
+     * by any of the listeners, {@code false} otherwise.
+     */
+    public @NotNull CompletableFuture<Boolean> postAsync(
+            @NotNull Event event,
+            @Nullable Consumer<Throwable> onError,
+            @NotNull Executor executor
+    ) {
+        if (this.listeners.isEmpty() && this.channelGroups.length == 0) return CompletableFuture.completedFuture(false);
+        if (this.coalescer != null) return CompletableFuture.completedFuture(this.post(event, onError));
+        return CompletableFuture.supplyAsync(() -> {
+            boolean cancelled = this.postStaged(event, onError, executor, false);
+            if (this.channelGroups.length != 0) this.submitToChannels(event, onError);
+            return cancelled;
+        }, executor);
+    }
+
+    private boolean postStaged(
+            @NotNull Event event,
+            @Nullable Consumer<Throwable> onError,
+            @NotNull Executor executor,
+            boolean reused
+    ) {
+        Chain chain = this.chain(event);
+        boolean recorded = ListenerInvocationEvent.isRecording();
+        boolean instrumented = recorded || this.metrics != null || this.watchdog != null;
+        long postStart = System.nanoTime();
+
+        for (int stage = 0; stage < chain.stages.length; stage++) {
+            int end = stage + 1 < chain.stages.length ? chain.stages[stage + 1] : chain.listeners.size();
+            List<CompletableFuture<Void>> running = new ArrayList<>();
+            int last = -1;
+
+            for (int i = chain.stages[stage]; i < end; i++) {
+                EventListener listener = chain.listeners.get(i);
+                if (!this.parallelType && !listener.parallel()) {
+                    this.invokeStaged(chain, i, event, onError, instrumented, recorded, reused);
+                    continue;
+                }
+
+                if (last >= 0) {
+                    int forked = last;
+                    running.add(CompletableFuture.runAsync(
+                            () -> this.invokeStaged(chain, forked, event, onError, instrumented, recorded, reused),
+                            executor));
+                }
+
+                last = i;
+            }
+
+            // the posting thread would only wait, so it runs one of the parallel listeners itself
+            if (last >= 0) this.invokeStaged(chain, last, event, onError, instrumented, recorded, reused);
+
+            CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).join();
+            if (event.isCancelled() && !chain.canReceiveCancelled) break;
         }
 
+        if (this.metrics != null) this.metrics.record(System.nanoTime() - postStart, event.isCancelled());
         return event.isCancelled();
     }
 
+    private void invokeStaged(
+            @NotNull Chain chain,
+            int index,
+            @NotNull Event event,
+            @Nullable Consumer<Throwable> onError,
+            boolean instrumented,
+            boolean recorded,
+            boolean reused
+    ) {
+        if (instrumented) this.invokeInstrumented(chain, index, event, onError, recorded, reused);
+        else invoke(chain.listeners.get(index), event, onError);
+    }
+
+    /**
+     * Invokes a single listener if it accepts the event, reporting any exception to {@code onError}.
+     *
+     * @param listener the listener to invoke.
+     * @param event    the event to post.
+     * @param onError  a {@link Consumer} that will be called if an exception is thrown by the listener.
+     */
+    static void invoke(
+            @NotNull EventListener listener,
+            @NotNull Event event,
+            @Nullable Consumer<Throwable> onError
+    ) {
+        if (!listener.shouldInvoke(event)) return;
+
+        try {
+            listener.invoker().accept(event);
+        } catch (Throwable throwable) {
+            if (onError != null) onError.accept(throwable);
+        }
+    }
+
+    /**
+     * Reports an exception thrown by a listener. This is the only call generated {@link EventDispatcher}s make into
+     * this class, and only when a listener throws.
+     *
+     * @param throwable the exception thrown by the listener.
+     * @param onError   a {@link Consumer} that will be called with the exception, or {@code null} to drop it.
+     */
+    static void report(
+            @NotNull Throwable throwable,
+            @Nullable Consumer<Throwable> onError
+    ) {
+        if (onError != null) onError.accept(throwable);
+    }
+
     /**
      * @return the simple name of the event this handler is for.
      */
     public @NotNull String getName() {
         return name;
     }
+
+    /**
+     * The listeners that receive the events of a key, which are the listeners of the key merged with the listeners
+     * without a key. The metrics and watches are aligned with the listeners.
+     * <p>
+     * The dispatcher of a chain is generated when the chain is posted to for the first time, so keys that are never
+     * posted do not cost a hidden class. Chains are compared by identity.
+     */
+    private static final class Chain {
+
+        private final List<EventListener> listeners;
+        private final ListenerMetrics @Nullable [] metrics;
+        private final ListenerWatchdog.Watch @Nullable [] watches;
+        private final int[] stages;
+        private final boolean canReceiveCancelled;
+        private final boolean generateDispatcher;
+
+        // racy but idempotent, a dispatcher has no state, so another thread may at worst generate its own
+        private @Nullable EventDispatcher dispatcher;
+
+        /**
+         * @param listeners          the listeners, sorted by priority.
+         * @param metrics            the metrics of the listeners, or {@code null} if metrics are not recorded.
+         * @param watches            the watches of the listeners, or {@code null} if no listener is watched.
+         * @param stages             the index of the first listener of every priority group.
+         * @param generateDispatcher whether to generate a dispatcher for the listeners.
+         */
+        private Chain(
+                @NotNull List<EventListener> listeners,
+                ListenerMetrics @Nullable [] metrics,
+                ListenerWatchdog.Watch @Nullable [] watches,
+                int @NotNull [] stages,
+                boolean generateDispatcher
+        ) {
+            this.listeners = listeners;
+            this.metrics = metrics;
+            this.watches = watches;
+            this.stages = stages;
+            this.canReceiveCancelled = listeners.stream().anyMatch(EventListener::canReceiveCancelled);
+            this.generateDispatcher = generateDispatcher;
+        }
+
+        private @Nullable EventDispatcher dispatcher() {
+            if (!this.generateDispatcher) return null;
+
+            EventDispatcher dispatcher = this.dispatcher;
+            if (dispatcher == null) {
+                dispatcher = EventDispatcher.generate(this.listeners, this.canReceiveCancelled);
+                this.dispatcher = dispatcher;
+            }
+
+            return dispatcher;
+        }
+    }
+
+    // the listeners of a single channel, sorted by priority
+    private record ChannelGroup(
+            @NotNull AsyncChannel channel,
+            @NotNull List<EventListener> listeners
+    ) { }
+
+    /**
+     * The order in which {@link #postAll(Iterable, Consumer, BatchOrder)} iterates a batch.
+     */
+    public enum BatchOrder {
+
+        /** Each event is passed through all listeners before the next event is posted. */
+        EVENT_MAJOR,
+
+        /** Each listener receives all events before the next listener is invoked. */
+        LISTENER_MAJOR
+    }
 }
@@ -1,11 +1,9 @@
 package github.businessdirt.jasper.events.system;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.function.Consumer;
-import java.util.function.Predicate;
 
 /**
  * A record that represents a listener for a specific event.
@@ -15,14 +13,24 @@ import java.util.function.Predicate;
  * @param invoker             a {@link Consumer} that invokes the listener method.
  * @param priority            the priority of the listener.
  * @param canReceiveCancelled whether the listener can receive cancelled events.
- * @param predicates          a list of predicates to test before invoking the listener.
+ * @param parallel            whether the listener may run concurrently with others of the same priority.
+ * @param filter              an optional {@link EventFilter} to test before invoking the listener.
+ * @param key                 the key of the {@link KeyedEvent}s the listener receives, or {@code null} for all keys.
+ * @param channel             the name of the {@link AsyncChannel} the listener is invoked on,
+ *                            or {@code null} to invoke it on the posting thread.
+ * @param budgetMillis        the time budget of the listener in milliseconds, or {@code 0} to use the budget of the
+ *                            {@link ListenerWatchdog}.
  */
 public record EventListener(
     @NotNull String name,
     @NotNull Consumer<Event> invoker,
     @NotNull HandleEvent.Priority priority,
     boolean canReceiveCancelled,
-    @NotNull List<Predicate<Event>> predicates
+    boolean parallel,
+    @Nullable EventFilter filter,
+    @Nullable Object key,
+    @Nullable String channel,
+    long budgetMillis
 ) {
 
     /**
@@ -31,25 +39,64 @@ public record EventListener(
      * @param name    the name of the listener method.
      * @param invoker a {@link Consumer} that invokes the listener method.
      * @param options the {@link HandleEvent} annotation of the listener method.
+     * @param filter  the owner of the filter declared by {@link HandleEvent#filter()}, or {@code null} if there is none.
      * @return a new {@link EventListener} owner.
      */
     public static @NotNull EventListener of(
             @NotNull String name,
             @NotNull Consumer<Event> invoker,
-            @NotNull HandleEvent options
+            @NotNull HandleEvent options,
+            @Nullable EventFilter filter
     ) {
-        List<Predicate<Event>> predicates = new ArrayList<>();
-        if (!options.receiveCancelled()) predicates.add(event -> !event.isCancelled());
-        return new EventListener(name, invoker, options.priority(), options.receiveCancelled(), predicates);
+        return new EventListener(name, invoker, options.priority(), options.receiveCancelled(),
+                options.parallel(), filter, options.key().isEmpty() ? null : options.key(),
+                options.channel().isEmpty() ? null : options.channel(), options.budgetMillis());
+    }
+
+    /**
+     * Creates a new {@link EventListener} that is not bound to a key, filter or channel, skips cancelled events, runs
+     * sequentially and uses the budget of the {@link ListenerWatchdog}.
+     *
+     * @param name     the name of the listener.
+     * @param invoker  a {@link Consumer} that invokes the listener.
+     * @param priority the priority of the listener.
+     * @return a new {@link EventListener}.
+     */
+    public static @NotNull EventListener of(
+            @NotNull String name,
+            @NotNull Consumer<Event> invoker,
+            @NotNull HandleEvent.Priority priority
+    ) {
+        return new EventListener(name, invoker, priority, false, false, null, null, null, 0);
+    }
+
+    /**
+     * @return a copy of this listener that also receives cancelled events.
+     */
+    public @NotNull EventListener receivingCancelled() {
+        return new EventListener(this.name, this.invoker, this.priority, true, this.parallel, this.filter, this.key,
+                this.channel, this.budgetMillis);
+    }
+
+    /**
+     * @param key the key of the {@link KeyedEvent}s the listener receives, or {@code null} for all keys.
+     * @return a copy of this listener that only receives events of the given key.
+     */
+    public @NotNull EventListener withKey(@Nullable Object key) {
+        return new EventListener(this.name, this.invoker, this.priority, this.canReceiveCancelled, this.parallel,
+                this.filter, key, this.channel, this.budgetMillis);
     }
 
     /**
      * Checks if the listener should be invoked for the given event.
+     * This check does not allocate, so it is safe to call on every post.
      *
      * @param event the event to check.
      * @return {@code true} if the listener should be invoked, {@code false} otherwise.
      */
     public boolean shouldInvoke(@NotNull Event event) {
-        return predicates.stream().allMatch(predicate -> predicate.test(event));
+        if (!this.canReceiveCancelled && event.isCancelled()) return false;
+        if (this.key != null && !(event instanceof KeyedEvent<?> keyed && this.key.equals(keyed.getKey()))) return false;
+        return this.filter == null || this.filter.test(event);
     }
 }
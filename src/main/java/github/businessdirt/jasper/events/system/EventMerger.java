@@ -0,0 +1,25 @@
+package github.businessdirt.jasper.events.system;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Combines two posts of a {@link Coalesce coalesced} event into one.
+ * <p>
+ * Mergers are attached to event types with {@link Coalesce#merger()} and are created once, either through the public
+ * {@code INSTANCE} field or the public no-argument constructor of the merger class. They are called while the pending
+ * event of a window is locked, so implementations should not block.
+ *
+ * @see Coalesce#merger()
+ */
+@FunctionalInterface
+public interface EventMerger {
+
+    /**
+     * Merges a newly posted event into the pending one.
+     *
+     * @param pending the event that is waiting for the window to close.
+     * @param next    the event that was just posted. It has the same type as {@code pending}.
+     * @return the event that replaces {@code pending}.
+     */
+    @NotNull Event merge(@NotNull Event pending, @NotNull Event next);
+}
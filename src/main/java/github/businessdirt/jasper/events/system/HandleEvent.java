@@ -41,6 +41,55 @@ public @interface HandleEvent {
      */
     boolean receiveCancelled() default false;
 
+    /**
+     * If {@code true}, the listener may run concurrently with the other parallel listeners of the same priority.
+     * Synchronous posts run them on the fan-out pool of the {@link EventBus}, {@link Event#postAsync()} on its
+     * virtual threads. Listeners of different priorities never overlap, so cancelling the event from a parallel
+     * listener only affects the following priority groups.
+     *
+     * @return {@code true} to allow concurrent invocation, {@code false} otherwise.
+     * @see ParallelListeners
+     */
+    boolean parallel() default false;
+
+    /**
+     * An {@link EventFilter} that is tested before the listener is invoked.
+     * The listener is only called if the filter accepts the event.
+     * The default value {@code EventFilter.class} means that no filter is used.
+     *
+     * @return the filter class of the listener.
+     */
+    @NotNull Class<? extends EventFilter> filter() default EventFilter.class;
+
+    /**
+     * Restricts the listener to the {@link KeyedEvent}s whose key is equal to this value.
+     * Since annotation values are strings, this only matches events with a {@link String} key.
+     * The default value {@code ""} means that the listener receives events of every key.
+     *
+     * @return the key the listener is subscribed to.
+     */
+    @NotNull String key() default "";
+
+    /**
+     * The name of the {@link AsyncChannel} the listener is invoked on.
+     * A listener with a channel is not invoked by the posting thread. Instead, every posted event is queued on the
+     * channel once the other listeners have returned, so cancelling the event from this listener has no effect on
+     * them. A channel that has not been registered with {@link EventBus#registerChannel(AsyncChannel)} is created
+     * with the default capacity and {@link AsyncChannel.OverflowPolicy#BLOCK}.
+     * The default value {@code ""} means that the listener is invoked by the posting thread.
+     *
+     * @return the name of the channel of the listener.
+     */
+    @NotNull String channel() default "";
+
+    /**
+     * The time budget of the listener in milliseconds, checked by the {@link ListenerWatchdog} of the
+     * {@link EventBus} if one is set. The default value {@code 0} means that the budget of the event type or the
+     * global budget of the watchdog applies.
+     *
+     * @return the budget of the listener in milliseconds.
+     */
+    long budgetMillis() default 0;
 
     /**
      * The priority of an event listener.
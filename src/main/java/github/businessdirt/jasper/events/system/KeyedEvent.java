@@ -0,0 +1,23 @@
+package github.businessdirt.jasper.events.system;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An event that is routed by a key, e.g. the id of a player or a tenant.
+ * <p>
+ * Listeners can subscribe to a single key with {@link HandleEvent#key()} or
+ * {@link EventBus#subscribe(Class, Object, java.util.function.Consumer)}. Posting a keyed event only invokes the
+ * listeners without a key and the listeners of the key of the event, which are found through a hash index.
+ * Keys are compared with {@link Object#equals(Object)}, so they must implement {@code equals} and {@code hashCode}.
+ *
+ * @param <K> the type of the key.
+ */
+public interface KeyedEvent<K> {
+
+    /**
+     * The key of an event must not change while the event is posted.
+     *
+     * @return the key of this event.
+     */
+    @NotNull K getKey();
+}
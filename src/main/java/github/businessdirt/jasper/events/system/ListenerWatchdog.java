@@ -0,0 +1,363 @@
+package github.businessdirt.jasper.events.system;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Reports listeners that take longer than their time budget.
+ * <p>
+ * The budget of a listener is taken from {@link HandleEvent#budgetMillis()}, then from the budget of the posted event
+ * type and finally from the global budget. Listeners without a budget are not watched.
+ * <p>
+ * Watching a listener only costs two reads of {@link System#nanoTime()} on the posting thread. A single sampler
+ * thread looks at the running invocations periodically and takes a stack sample of every invocation that has
+ * exceeded its budget while it is still running, so a stuck listener is reported before it returns. Overruns that
+ * end between two samples are reported without a stack sample when the listener returns.
+ * <p>
+ * Listeners that overrun their budget repeatedly can be demoted. A demoted listener is no longer invoked by the
+ * posting thread but on a virtual thread of the watchdog, so it can no longer cancel the event. Events that are
+ * reused once their post returns, like the slots of a {@link RingBufferEventBus}, are still delivered to demoted
+ * listeners on the posting thread, as are all events once the watchdog has been closed.
+ *
+ * @see EventBus#setWatchdog(ListenerWatchdog)
+ * @see github.businessdirt.jasper.events.builders.ListenerWatchdogBuilder
+ */
+public class ListenerWatchdog implements AutoCloseable {
+
+    private static final System.Logger LOGGER = System.getLogger(ListenerWatchdog.class.getName());
+
+    private final long budgetNanos;
+    private final Map<Class<? extends Event>, Long> budgets;
+    private final int demoteAfter;
+    private final long samplePeriodNanos;
+    private final Consumer<Overrun> reporter;
+
+    private final Map<EventListener, Offender> offenders;
+    private final ThreadLocal<Slot> slots;
+    private final Queue<Slot> activeSlots;
+    private final ExecutorService demotedExecutor;
+    private final Thread sampler;
+    private volatile boolean closed;
+
+    /**
+     * Constructs a new {@link ListenerWatchdog} and starts its sampler thread.
+     *
+     * @param budget       the budget of all listeners without a more specific budget, or {@link Duration#ZERO}
+     *                     to only watch listeners with a more specific budget.
+     * @param budgets      the budgets of the listeners of specific event types.
+     * @param demoteAfter  the number of overruns after which a listener is demoted, or {@code 0} to never demote.
+     * @param samplePeriod how often running invocations are checked.
+     * @param reporter     receives every overrun, or {@code null} to log overruns as warnings to the
+     *                     {@link System.Logger} named after this class.
+     * @throws IllegalArgumentException if a duration or {@code demoteAfter} is negative, or the sample period is zero.
+     */
+    public ListenerWatchdog(
+            @NotNull Duration budget,
+            @NotNull Map<Class<? extends Event>, Duration> budgets,
+            int demoteAfter,
+            @NotNull Duration samplePeriod,
+            @Nullable Consumer<Overrun> reporter
+    ) throws IllegalArgumentException {
+        if (budget.isNegative()) throw new IllegalArgumentException("budget must not be negative but was " + budget);
+        if (demoteAfter < 0)
+            throw new IllegalArgumentException("demoteAfter must not be negative but was " + demoteAfter);
+        if (samplePeriod.isNegative() || samplePeriod.isZero())
+            throw new IllegalArgumentException("samplePeriod must be positive but was " + samplePeriod);
+
+        this.budgetNanos = budget.toNanos();
+        this.budgets = new HashMap<>();
+        budgets.forEach((event, eventBudget) -> {
+            if (eventBudget.isNegative()) throw new IllegalArgumentException(
+                    "budget of " + event.getName() + " must not be negative but was " + eventBudget);
+            this.budgets.put(event, eventBudget.toNanos());
+        });
+
+        this.demoteAfter = demoteAfter;
+        this.samplePeriodNanos = samplePeriod.toNanos();
+        this.reporter = reporter == null ? ListenerWatchdog::log : reporter;
+
+        this.offenders = Collections.synchronizedMap(new IdentityHashMap<>());
+        this.activeSlots = new ConcurrentLinkedQueue<>();
+        this.slots = ThreadLocal.withInitial(() -> {
+            Slot slot = new Slot(Thread.currentThread());
+            this.activeSlots.add(slot);
+            return slot;
+        });
+
+        this.demotedExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.sampler = Thread.ofPlatform()
+                .name(ListenerWatchdog.class.getSimpleName() + "-sampler")
+                .daemon()
+                .unstarted(this::sample);
+        this.sampler.start();
+    }
+
+    /**
+     * Resolves the budget of a listener for the given event type.
+     *
+     * @param event    the event type the handler posts.
+     * @param listener the listener to watch.
+     * @return the {@link Watch} of the listener, or {@code null} if the listener has no budget.
+     */
+    @Nullable Watch watch(
+            @NotNull Class<? extends Event> event,
+            @NotNull EventListener listener
+    ) {
+        long budget = listener.budgetMillis() > 0
+                ? TimeUnit.MILLISECONDS.toNanos(listener.budgetMillis())
+                : this.budgets.getOrDefault(event, this.budgetNanos);
+        if (budget <= 0) return null;
+
+        Offender offender = this.offenders.computeIfAbsent(listener, _ -> new Offender());
+        return new Watch(listener.name(), event, budget, offender);
+    }
+
+    /**
+     * Forgets every listener that is not in the given collection, so that unsubscribed listeners and their owners can
+     * be garbage collected. The overruns of forgotten listeners are no longer part of {@link #getOverruns()} and
+     * {@link #getDemoted()}.
+     *
+     * @param listeners the listeners that are still registered.
+     */
+    void retain(@NotNull Collection<EventListener> listeners) {
+        Set<EventListener> registered = Collections.newSetFromMap(new IdentityHashMap<>());
+        registered.addAll(listeners);
+        this.offenders.keySet().retainAll(registered);
+    }
+
+    /**
+     * Marks the start of an invocation on the current thread, so that the sampler can see it.
+     *
+     * @param watch the watch of the invoked listener.
+     * @param start the {@link System#nanoTime()} at which the invocation started.
+     * @return the slot of the current thread, or {@code null} if the invocation is nested in another watched one
+     * and is only checked when it returns.
+     */
+    @Nullable Slot enter(
+            @NotNull Watch watch,
+            long start
+    ) {
+        Slot slot = this.slots.get();
+        if (slot.watch != null) return null;
+
+        slot.start = start;
+        slot.sequence++;
+        slot.sampled = false;
+        slot.watch = watch;
+        return slot;
+    }
+
+    /**
+     * Marks the end of an invocation and reports it if it exceeded its budget.
+     *
+     * @param slot    the slot returned by {@link #enter(Watch, long)}.
+     * @param watch   the watch of the invoked listener.
+     * @param elapsed the duration of the invocation in nanoseconds.
+     */
+    void exit(
+            @Nullable Slot slot,
+            @NotNull Watch watch,
+            long elapsed
+    ) {
+        boolean sampled = false;
+        if (slot != null) {
+            sampled = slot.sampled;
+            slot.watch = null;
+        }
+
+        if (elapsed <= watch.budgetNanos()) return;
+
+        int overruns = watch.offender().overruns.incrementAndGet();
+        if (!sampled) this.report(new Overrun(watch.listener(), watch.event(), elapsed, watch.budgetNanos(),
+                List.of(), false));
+
+        if (this.demoteAfter > 0 && overruns >= this.demoteAfter) watch.offender().demoted = true;
+    }
+
+    /**
+     * Invokes a demoted listener on a virtual thread of this watchdog, or on the current thread once this watchdog
+     * has been closed.
+     *
+     * @param invocation the invocation of the listener.
+     */
+    void runDemoted(@NotNull Runnable invocation) {
+        if (!this.closed) {
+            try {
+                this.demotedExecutor.execute(invocation);
+                return;
+            } catch (RejectedExecutionException e) {
+                // closed concurrently
+            }
+        }
+
+        invocation.run();
+    }
+
+    private void sample() {
+        while (!this.closed) {
+            LockSupport.parkNanos(this.samplePeriodNanos);
+
+            for (Iterator<Slot> iterator = this.activeSlots.iterator(); iterator.hasNext(); ) {
+                Slot slot = iterator.next();
+                if (!slot.thread.isAlive()) {
+                    iterator.remove();
+                    continue;
+                }
+
+                Watch watch = slot.watch;
+                long sequence = slot.sequence;
+                if (watch == null || slot.sampled || System.nanoTime() - slot.start <= watch.budgetNanos()) continue;
+
+                StackTraceElement[] stack = slot.thread.getStackTrace();
+
+                // the invocation may have returned while the stack was taken
+                if (slot.watch != watch || slot.sequence != sequence) continue;
+                slot.sampled = true;
+
+                this.report(new Overrun(watch.listener(), watch.event(), System.nanoTime() - slot.start,
+                        watch.budgetNanos(), List.of(stack), true));
+            }
+        }
+    }
+
+    private void report(@NotNull Overrun overrun) {
+        try {
+            this.reporter.accept(overrun);
+        } catch (Throwable throwable) {
+            // a failing reporter must neither break the post nor stop the sampler
+        }
+    }
+
+    private static void log(@NotNull Overrun overrun) {
+        LOGGER.log(System.Logger.Level.WARNING, () -> {
+            StringBuilder message = new StringBuilder(overrun.getMessage());
+            for (StackTraceElement element : overrun.stackSample())
+                message.append(System.lineSeparator()).append("\tat ").append(element);
+            return message.toString();
+        });
+    }
+
+    /**
+     * @return the number of overruns of every listener that has overrun its budget, by listener name.
+     */
+    public @NotNull Map<String, Integer> getOverruns() {
+        Map<String, Integer> overruns = new TreeMap<>();
+        synchronized (this.offenders) {
+            this.offenders.forEach((listener, offender) -> {
+                if (offender.overruns.get() > 0) overruns.merge(listener.name(), offender.overruns.get(), Integer::sum);
+            });
+        }
+
+        return overruns;
+    }
+
+    /**
+     * @return the names of all listeners that have been demoted.
+     */
+    public @NotNull Set<String> getDemoted() {
+        Set<String> demoted = new TreeSet<>();
+        synchronized (this.offenders) {
+            this.offenders.forEach((listener, offender) -> {
+                if (offender.demoted) demoted.add(listener.name());
+            });
+        }
+
+        return demoted;
+    }
+
+    /**
+     * Stops the sampler thread. Demoted listeners that are still running are not interrupted, and demoted listeners
+     * of later posts run on the posting thread.
+     * Calling this method more than once has no effect.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        LockSupport.unpark(this.sampler);
+        this.demotedExecutor.shutdown();
+    }
+
+    /**
+     * A listener invocation that took longer than its budget.
+     *
+     * @param listener     the name of the listener.
+     * @param event        the posted event type.
+     * @param elapsedNanos how long the invocation had been running when it was reported.
+     * @param budgetNanos  the budget of the listener.
+     * @param stackSample  the stack of the listener while it was running, or an empty list if the invocation
+     *                     returned before it was sampled.
+     * @param running      {@code true} if the invocation was still running when it was reported.
+     */
+    public record Overrun(
+            @NotNull String listener,
+            @NotNull Class<? extends Event> event,
+            long elapsedNanos,
+            long budgetNanos,
+            @NotNull List<StackTraceElement> stackSample,
+            boolean running
+    ) {
+
+        /**
+         * @return a single line that describes this overrun.
+         */
+        public @NotNull String getMessage() {
+            return String.format("Listener %s %s %.1fms handling %s, its budget is %.1fms", this.listener,
+                    this.running ? "has been running for" : "took", this.elapsedNanos / 1e6,
+                    this.event.getSimpleName(), this.budgetNanos / 1e6);
+        }
+    }
+
+    /**
+     * The budget of a listener for a single event type.
+     *
+     * @param listener    the name of the listener.
+     * @param event       the event type.
+     * @param budgetNanos the budget in nanoseconds.
+     * @param offender    the overruns of the listener across all event types.
+     */
+    record Watch(
+            @NotNull String listener,
+            @NotNull Class<? extends Event> event,
+            long budgetNanos,
+            @NotNull Offender offender
+    ) {
+
+        /**
+         * @return {@code true} if the listener has been demoted, {@code false} otherwise.
+         */
+        boolean isDemoted() {
+            return this.offender.demoted;
+        }
+    }
+
+    static final class Offender {
+
+        private final AtomicInteger overruns = new AtomicInteger();
+        private volatile boolean demoted;
+    }
+
+    // the invocation that is currently watched on a thread
+    static final class Slot {
+
+        private final Thread thread;
+        private volatile @Nullable Watch watch;
+        private volatile long start;
+        private volatile long sequence;
+        private volatile boolean sampled;
+
+        private Slot(@NotNull Thread thread) {
+            this.thread = thread;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package github.businessdirt.jasper.events.system;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an event type whose listeners may all run concurrently with the other listeners of the same priority,
+ * as if every listener was marked with {@link HandleEvent#parallel()}.
+ * <p>
+ * This suits events with many expensive listeners that do not depend on each other. The latency of a post then
+ * approaches the slowest listener of each priority group instead of the sum of all listeners.
+ *
+ * @see HandleEvent#parallel()
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ParallelListeners {
+}
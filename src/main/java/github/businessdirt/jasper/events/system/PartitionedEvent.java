@@ -0,0 +1,47 @@
+package github.businessdirt.jasper.events.system;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * An event that can be posted through the {@link ShardedDispatcher} of the {@link EventBus}.
+ * <p>
+ * Events with equal partition keys are always handled by the same lane, one after another in the order they were
+ * posted, while events with different keys may be handled in parallel on other lanes.
+ */
+public interface PartitionedEvent {
+
+    /**
+     * The partition key must not change after the event has been posted.
+     * It must implement {@code equals} and {@code hashCode}, e.g. the id of an entity.
+     *
+     * @return the key that selects the lane of this event.
+     */
+    @NotNull Object getPartitionKey();
+
+    /**
+     * Posts this event to the lane of its partition key.
+     *
+     * @return a {@link CompletableFuture} that completes with {@code true} if the event was cancelled
+     * by any of the listeners, {@code false} otherwise.
+     * @see ShardedDispatcher#submit(Event, Consumer)
+     */
+    default @NotNull CompletableFuture<Boolean> postSharded() {
+        return this.postSharded(null);
+    }
+
+    /**
+     * Posts this event to the lane of its partition key.
+     *
+     * @param onError a {@link Consumer} that will be called if an exception is thrown by a listener.
+     * @return a {@link CompletableFuture} that completes with {@code true} if the event was cancelled
+     * by any of the listeners, {@code false} otherwise.
+     * @see ShardedDispatcher#submit(Event, Consumer)
+     */
+    default @NotNull CompletableFuture<Boolean> postSharded(@Nullable Consumer<Throwable> onError) {
+        return EventBus.get().getShardedDispatcher().submit((Event) this, onError);
+    }
+}
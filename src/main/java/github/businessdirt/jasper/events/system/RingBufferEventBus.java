@@ -0,0 +1,386 @@
+package github.businessdirt.jasper.events.system;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A bounded, preallocated event pipeline for high-throughput producers of a single event type.
+ * <p>
+ * All events live in a ring of reusable slots whose size is a power of two. Producers claim a slot with
+ * {@link #next()}, fill the event returned by {@link #get(long)} and hand it over with {@link #publish(long)}.
+ * A dedicated consumer thread posts every published event through the {@link EventHandler} that the
+ * {@link EventBus} resolves for the event type, so the regular {@link HandleEvent} listeners are invoked.
+ * Once the listeners have returned, the slot is cleared and can be claimed again. Posting through this pipeline
+ * therefore allocates nothing per event and never holds more than {@code capacity} events.
+ * <p>
+ * Listeners must not keep a reference to the event they receive, since the owner is reused for later events.
+ * For the same reason, events of a ring are only posted to the listeners that run on the consumer thread or the
+ * fan-out pool. Listeners on an {@link AsyncChannel} do not receive them, and {@link Coalesce coalesced} event types
+ * cannot be used with a ring at all.
+ * <p>
+ * If the consumer thread fails to resolve the {@link EventHandler}, for example because a lazy listener cannot be
+ * instantiated, the ring fails. The error is reported and producers waiting for a slot throw instead of waiting
+ * forever.
+ *
+ * @param <E> the type of the events in this ring.
+ */
+public class RingBufferEventBus<E extends Event> implements AutoCloseable {
+
+    private final Class<E> type;
+    private final Event[] entries;
+    private final int mask;
+    private final int indexShift;
+
+    private final ProducerType producerType;
+    private final WaitStrategy waitStrategy;
+    private final @Nullable Consumer<Throwable> onError;
+
+    // the highest sequence claimed by a producer
+    private final AtomicLong claimed;
+    // the highest published sequence, only used by ProducerType.SINGLE
+    private final AtomicLong cursor;
+    // the lap in which each slot was last published, only used by ProducerType.MULTI
+    private final AtomicIntegerArray published;
+    // the highest sequence the consumer has finished with
+    private final AtomicLong consumed;
+    // a producer-side cache of the consumed sequence to avoid reading it on every claim
+    private final AtomicLong consumedCache;
+
+    private final Thread consumer;
+    private volatile boolean running;
+    private volatile @Nullable Throwable failure;
+
+    /**
+     * Constructs a new {@link RingBufferEventBus} for multiple producers that yields while waiting.
+     *
+     * @param type     the class of the events in this ring.
+     * @param capacity the number of slots, which must be a power of two.
+     * @param factory  creates the events that fill the slots.
+     * @throws IllegalArgumentException if the capacity is not a positive power of two.
+     */
+    public RingBufferEventBus(
+            @NotNull Class<E> type,
+            int capacity,
+            @NotNull Supplier<E> factory
+    ) throws IllegalArgumentException {
+        this(type, capacity, factory, ProducerType.MULTI, WaitStrategy.YIELD, null);
+    }
+
+    /**
+     * Constructs a new {@link RingBufferEventBus}. The consumer thread is started with {@link #start()}.
+     *
+     * @param type         the class of the events in this ring.
+     * @param capacity     the number of slots, which must be a power of two.
+     * @param factory      creates the events that fill the slots.
+     * @param producerType whether one or many threads publish to this ring.
+     * @param waitStrategy how producers and the consumer wait for each other.
+     * @param onError      a {@link Consumer} that will be called if an exception is thrown by a listener.
+     * @throws IllegalArgumentException if the capacity is not a positive power of two, the event type is annotated
+     * with {@link Coalesce} or the factory creates events of another type.
+     */
+    public RingBufferEventBus(
+            @NotNull Class<E> type,
+            int capacity,
+            @NotNull Supplier<E> factory,
+            @NotNull ProducerType producerType,
+            @NotNull WaitStrategy waitStrategy,
+            @Nullable Consumer<Throwable> onError
+    ) throws IllegalArgumentException {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("capacity must be a power of two but was " + capacity);
+        if (type.isAnnotationPresent(Coalesce.class)) throw new IllegalArgumentException(String.format(
+                "Event %s is coalesced, the coalescer would keep the reused events of the ring", type.getName()));
+
+        this.type = type;
+        this.entries = new Event[capacity];
+        this.mask = capacity - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(capacity);
+
+        for (int i = 0; i < capacity; i++) {
+            E event = factory.get();
+            if (event.getClass() != type) throw new IllegalArgumentException(String.format(
+                    "Event %s is not an instance of exactly %s", event.getClass().getName(), type.getName()));
+            this.entries[i] = event;
+        }
+
+        this.producerType = producerType;
+        this.waitStrategy = waitStrategy;
+        this.onError = onError;
+
+        this.claimed = new AtomicLong(-1);
+        this.cursor = new AtomicLong(-1);
+        this.published = new AtomicIntegerArray(capacity);
+        for (int i = 0; i < capacity; i++) this.published.set(i, -1);
+        this.consumed = new AtomicLong(-1);
+        this.consumedCache = new AtomicLong(-1);
+
+        String name = RingBufferEventBus.class.getSimpleName() + "::" + type.getSimpleName();
+        this.consumer = Thread.ofPlatform().name(name).daemon().unstarted(this::consume);
+    }
+
+    /**
+     * Starts the consumer thread.
+     *
+     * @return this ring.
+     * @throws IllegalThreadStateException if the ring was already started.
+     */
+    public @NotNull RingBufferEventBus<E> start() throws IllegalThreadStateException {
+        this.running = true;
+        this.consumer.start();
+        return this;
+    }
+
+    /**
+     * Claims the next slot, waiting with the {@link WaitStrategy} while the ring is full.
+     * The claimed slot must be handed over with {@link #publish(long)}, even if filling it fails.
+     *
+     * @return the sequence of the claimed slot.
+     * @throws IllegalStateException if the ring is full and its consumer thread has failed.
+     */
+    public long next() throws IllegalStateException {
+        return switch (this.producerType) {
+            case SINGLE -> this.nextSingle();
+            case MULTI -> this.nextMulti();
+        };
+    }
+
+    private long nextSingle() {
+        long next = this.claimed.getPlain() + 1;
+        long wrapPoint = next - this.entries.length;
+
+        if (wrapPoint > this.consumedCache.getPlain()) {
+            long minimum;
+            while (wrapPoint > (minimum = this.consumed.get())) this.idle();
+            this.consumedCache.setPlain(minimum);
+        }
+
+        this.claimed.lazySet(next);
+        return next;
+    }
+
+    private long nextMulti() {
+        while (true) {
+            long current = this.claimed.get();
+            long next = current + 1;
+            long wrapPoint = next - this.entries.length;
+
+            if (wrapPoint > this.consumedCache.get()) {
+                long minimum = this.consumed.get();
+                if (wrapPoint > minimum) {
+                    this.idle();
+                    continue;
+                }
+
+                this.consumedCache.set(minimum);
+            } else if (this.claimed.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Returns the event in the slot of the given sequence so it can be filled before publishing.
+     *
+     * @param sequence a sequence returned by {@link #next()}.
+     * @return the reusable event in the slot.
+     */
+    @SuppressWarnings("unchecked")
+    public @NotNull E get(long sequence) {
+        return (E) this.entries[(int) sequence & this.mask];
+    }
+
+    /**
+     * Hands the slot of the given sequence over to the consumer thread.
+     *
+     * @param sequence a sequence returned by {@link #next()}.
+     */
+    public void publish(long sequence) {
+        switch (this.producerType) {
+            case SINGLE -> this.cursor.lazySet(sequence);
+            case MULTI -> this.published.lazySet((int) sequence & this.mask, (int) (sequence >>> this.indexShift));
+        }
+    }
+
+    /**
+     * Claims a slot, fills it with the given translator and publishes it.
+     *
+     * @param translator writes the data of the event into the reusable event.
+     */
+    public void publishEvent(@NotNull Consumer<? super E> translator) {
+        long sequence = this.next();
+        try {
+            translator.accept(this.get(sequence));
+        } finally {
+            this.publish(sequence);
+        }
+    }
+
+    /**
+     * Claims a slot, fills it with the given translator and publishes it.
+     * Passing the data as an argument allows the translator to be a non-capturing lambda.
+     *
+     * @param translator writes the argument into the reusable event.
+     * @param argument   the data of the event.
+     * @param <A>        the type of the argument.
+     */
+    public <A> void publishEvent(
+            @NotNull BiConsumer<? super E, ? super A> translator,
+            A argument
+    ) {
+        long sequence = this.next();
+        try {
+            translator.accept(this.get(sequence), argument);
+        } finally {
+            this.publish(sequence);
+        }
+    }
+
+    // waits for the consumer, unless it has failed and will never free a slot again
+    private void idle() throws IllegalStateException {
+        Throwable failure = this.failure;
+        if (failure != null) throw new IllegalStateException("The consumer of the ring has failed", failure);
+        this.waitStrategy.idle();
+    }
+
+    private long highestPublished(long from) {
+        return switch (this.producerType) {
+            case SINGLE -> this.cursor.get();
+            case MULTI -> {
+                long claimed = this.claimed.get();
+                for (long sequence = from; sequence <= claimed; sequence++) {
+                    int lap = (int) (sequence >>> this.indexShift);
+                    if (this.published.get((int) sequence & this.mask) != lap) yield sequence - 1;
+                }
+
+                yield claimed;
+            }
+        };
+    }
+
+    private void consume() {
+        long next = this.consumed.get() + 1;
+
+        try {
+            while (true) {
+                long available = this.highestPublished(next);
+
+                if (available < next) {
+                    // drain everything that was claimed before close() was called
+                    if (!this.running && this.claimed.get() < next) return;
+
+                    this.waitStrategy.idle();
+                    continue;
+                }
+
+                EventHandler handler = EventBus.get().getEventHandler(this.type);
+                for (; next <= available; next++) {
+                    Event event = this.entries[(int) next & this.mask];
+                    try {
+                        handler.postInPlace(event, this.onError);
+                    } catch (RuntimeException e) {
+                        // listener exceptions are reported by the handler, this is a filter or the bus itself
+                        this.report(e);
+                    } finally {
+                        event.resetCancelled();
+                    }
+                }
+
+                this.consumed.lazySet(available);
+            }
+        } catch (Throwable throwable) {
+            try {
+                this.report(throwable);
+            } finally {
+                // producers only stop waiting once the failure has been reported
+                this.running = false;
+                this.failure = throwable;
+            }
+        }
+    }
+
+    private void report(@NotNull Throwable throwable) {
+        if (this.onError != null) this.onError.accept(throwable);
+        else this.consumer.getUncaughtExceptionHandler().uncaughtException(this.consumer, throwable);
+    }
+
+    /**
+     * @return the number of slots of this ring.
+     */
+    public int getCapacity() {
+        return this.entries.length;
+    }
+
+    /**
+     * @return the number of published or claimed events that the consumer has not finished yet.
+     */
+    public long getBacklog() {
+        return this.claimed.get() - this.consumed.get();
+    }
+
+    /**
+     * Stops accepting work once every claimed event has been posted and waits for the consumer thread to finish.
+     * Producers must not claim new slots after calling this method.
+     * If the calling thread is interrupted while waiting, its interrupt status is restored and the method returns.
+     */
+    @Override
+    public void close() {
+        this.running = false;
+
+        try {
+            if (this.consumer.isAlive()) this.consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Whether a ring is published to by a single thread or by many threads.
+     */
+    public enum ProducerType {
+
+        /** Only one thread claims slots, so claiming needs no atomic read-modify-write. */
+        SINGLE,
+
+        /** Any number of threads claim slots concurrently. */
+        MULTI
+    }
+
+    /**
+     * How a thread waits for the ring to fill or to drain.
+     */
+    public enum WaitStrategy {
+
+        /** Spins on the CPU. Lowest latency, but occupies a core while waiting. */
+        BUSY_SPIN {
+            @Override
+            void idle() {
+                Thread.onSpinWait();
+            }
+        },
+
+        /** Yields to other threads between checks. */
+        YIELD {
+            @Override
+            void idle() {
+                Thread.yield();
+            }
+        },
+
+        /** Parks the thread briefly between checks. Highest latency, but lowest CPU usage. */
+        PARK {
+            @Override
+            void idle() {
+                LockSupport.parkNanos(50_000L);
+            }
+        };
+
+        abstract void idle();
+    }
+}
@@ -0,0 +1,259 @@
+package github.businessdirt.jasper.events.system;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Posts {@link PartitionedEvent}s on a fixed number of single-threaded lanes.
+ * <p>
+ * The partition key of an event selects its lane, so all events with the same key are handled in order, while
+ * events with different keys are spread over the lanes and handled in parallel. Each lane posts its events through
+ * the regular {@link EventHandler} of the event type. No lock is shared between the lanes.
+ * <p>
+ * Every lane has a bounded queue. If the queue of a lane is full, {@link #submit(Event, Consumer)} blocks until the
+ * lane has caught up, which pushes back on producers instead of buffering without limit.
+ *
+ * @see EventBus#getShardedDispatcher()
+ */
+public class ShardedDispatcher implements AutoCloseable {
+
+    private final Lane[] lanes;
+    private final int queueCapacity;
+
+    private volatile boolean closed;
+
+    /**
+     * Constructs a new {@link ShardedDispatcher} and starts its lanes.
+     *
+     * @param lanes         the number of lanes, i.e. the maximum number of events handled in parallel.
+     * @param queueCapacity the maximum number of events waiting in the queue of a single lane.
+     * @throws IllegalArgumentException if {@code lanes} or {@code queueCapacity} is less than {@code 1}.
+     */
+    public ShardedDispatcher(
+            int lanes,
+            int queueCapacity
+    ) throws IllegalArgumentException {
+        if (lanes < 1) throw new IllegalArgumentException("lanes must be positive but was " + lanes);
+        if (queueCapacity < 1)
+            throw new IllegalArgumentException("queueCapacity must be positive but was " + queueCapacity);
+
+        this.queueCapacity = queueCapacity;
+        this.lanes = new Lane[lanes];
+
+        for (int i = 0; i < lanes; i++) {
+            this.lanes[i] = new Lane(i, queueCapacity);
+            this.lanes[i].thread.start();
+        }
+    }
+
+    /**
+     * Queues an event on the lane of its partition key, waiting while the queue of the lane is full.
+     *
+     * @param event   the event to post. It must implement {@link PartitionedEvent}.
+     * @param onError a {@link Consumer} that will be called on the lane if an exception is thrown by a listener.
+     * @return a {@link CompletableFuture} that completes with {@code true} if the event was cancelled
+     * by any of the listeners, {@code false} otherwise.
+     * @throws IllegalArgumentException if the event does not implement {@link PartitionedEvent}.
+     * @throws IllegalStateException if this dispatcher has been closed. An event that is submitted while the
+     *                               dispatcher is being closed may be rejected by completing its future
+     *                               exceptionally with an {@link IllegalStateException} instead.
+     */
+    public @NotNull CompletableFuture<Boolean> submit(
+            @NotNull Event event,
+            @Nullable Consumer<Throwable> onError
+    ) throws IllegalArgumentException, IllegalStateException {
+        if (!(event instanceof PartitionedEvent partitioned)) throw new IllegalArgumentException(
+                "Event " + event.getClass().getName() + " does not implement " + PartitionedEvent.class.getName());
+
+        if (this.closed) throw closedException();
+
+        Lane lane = this.laneOf(partitioned.getPartitionKey());
+        Task task = new Task(event, onError, new CompletableFuture<>());
+
+        try {
+            lane.queue.put(task);
+            lane.maxQueued.accumulate(lane.queue.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            task.result.completeExceptionally(e);
+            return task.result;
+        }
+
+        // the lane may have stopped and drained its queue after the check above, then the task is rejected here
+        if (lane.stopped && lane.queue.remove(task)) task.result.completeExceptionally(closedException());
+        return task.result;
+    }
+
+    private static @NotNull IllegalStateException closedException() {
+        return new IllegalStateException("The sharded dispatcher has been closed");
+    }
+
+    private @NotNull Lane laneOf(@NotNull Object partitionKey) {
+        int hash = partitionKey.hashCode();
+        return this.lanes[Math.floorMod(hash ^ (hash >>> 16), this.lanes.length)];
+    }
+
+    /**
+     * @return the number of lanes of this dispatcher.
+     */
+    public int getLaneCount() {
+        return this.lanes.length;
+    }
+
+    /**
+     * Takes a snapshot of the counters of every lane.
+     *
+     * @return the {@link LaneStats} of every lane, ordered by lane index.
+     */
+    public @NotNull List<LaneStats> getLaneStats() {
+        List<LaneStats> stats = new ArrayList<>(this.lanes.length);
+        for (Lane lane : this.lanes) {
+            stats.add(new LaneStats(lane.index, lane.queue.size(), this.queueCapacity, lane.maxQueued.intValue(),
+                    lane.posted.sum(), lane.failed.sum()));
+        }
+
+        return stats;
+    }
+
+    /**
+     * @return {@code true} if {@link #close()} has been called, {@code false} otherwise.
+     */
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    /**
+     * Stops accepting events and waits until every lane has posted all events that were queued before.
+     * Events that are submitted concurrently with this method are either posted or rejected.
+     * Calling this method more than once has no further effect.
+     * <p>
+     * If this method is called on one of the lanes, e.g. by a listener of an event posted there, it does not wait for
+     * that lane, which stops once it has posted the events queued before.
+     * If the calling thread is interrupted while waiting, its interrupt status is restored and the method returns.
+     */
+    @Override
+    public void close() {
+        synchronized (this.lanes) {
+            if (this.closed) return;
+            this.closed = true;
+        }
+
+        Thread current = Thread.currentThread();
+        try {
+            for (Lane lane : this.lanes) {
+                if (lane.thread != current) lane.queue.put(Task.STOP);
+                else if (!lane.queue.offer(Task.STOP)) lane.stopWhenIdle = true;
+            }
+
+            for (Lane lane : this.lanes) {
+                if (lane.thread != current) lane.thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A point-in-time copy of the counters of a single lane.
+     *
+     * @param lane      the index of the lane.
+     * @param queued    the number of events waiting in the queue of the lane.
+     * @param capacity  the maximum number of events the queue of the lane can hold.
+     * @param maxQueued the highest number of events that have been waiting in the queue at once.
+     * @param posted    the number of events the lane has posted.
+     * @param failed    the number of exceptions thrown by listeners on the lane.
+     */
+    public record LaneStats(
+            int lane,
+            int queued,
+            int capacity,
+            int maxQueued,
+            long posted,
+            long failed
+    ) { }
+
+    private record Task(
+            @Nullable Event event,
+            @Nullable Consumer<Throwable> onError,
+            @NotNull CompletableFuture<Boolean> result
+    ) {
+        // tells a lane to stop after everything queued before it has been posted
+        private static final Task STOP = new Task(null, null, new CompletableFuture<>());
+    }
+
+    private static final class Lane implements Runnable {
+
+        private final int index;
+        private final BlockingQueue<Task> queue;
+        private final Thread thread;
+
+        private final LongAdder posted = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAccumulator maxQueued = new LongAccumulator(Math::max, 0);
+
+        private volatile boolean stopped;
+        // only accessed by the lane itself, which cannot wait for room for Task.STOP in its own full queue
+        private boolean stopWhenIdle;
+
+        private Lane(
+                int index,
+                int queueCapacity
+        ) {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.thread = Thread.ofPlatform()
+                    .name(ShardedDispatcher.class.getSimpleName() + "-lane-" + index)
+                    .daemon()
+                    .unstarted(this);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Task task;
+                try {
+                    task = this.stopWhenIdle ? this.queue.poll() : this.queue.take();
+                } catch (InterruptedException e) {
+                    // lanes only stop through Task.STOP, so that no queued event is lost
+                    continue;
+                }
+
+                if (task == null || task == Task.STOP) break;
+                this.post(task);
+            }
+
+            // everything left was submitted concurrently with close() and arrived after Task.STOP
+            this.stopped = true;
+            for (Task task = this.queue.poll(); task != null; task = this.queue.poll()) {
+                if (task != Task.STOP) task.result().completeExceptionally(closedException());
+            }
+        }
+
+        private void post(@NotNull Task task) {
+            Event event = task.event();
+            assert event != null;
+
+            try {
+                boolean cancelled = EventBus.get().getEventHandler(event.getClass()).post(event, throwable -> {
+                    this.failed.increment();
+                    if (task.onError() != null) task.onError().accept(throwable);
+                });
+
+                task.result().complete(cancelled);
+            } catch (Throwable throwable) {
+                task.result().completeExceptionally(throwable);
+            } finally {
+                this.posted.increment();
+            }
+        }
+    }
+}
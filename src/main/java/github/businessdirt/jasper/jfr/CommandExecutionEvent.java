@@ -0,0 +1,45 @@
+package github.businessdirt.jasper.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * A JDK Flight Recorder event that is committed for every command executed by a
+ * {@link github.businessdirt.jasper.commands.CommandDispatcher}, including commands that fail to parse.
+ * <p>
+ * The event is disabled by default. Enable {@value #NAME} in the recording settings to record it.
+ */
+@Name(CommandExecutionEvent.NAME)
+@Label("Command Execution")
+@Category({"Jasper", "Commands"})
+@Description("A command parsed and executed by a Jasper command dispatcher")
+@Enabled(false)
+public final class CommandExecutionEvent extends Event {
+
+    /** The name of this event in recordings. */
+    public static final String NAME = "github.businessdirt.jasper.CommandExecution";
+
+    // isEnabled() only reads the state of the event type, so one instance answers it for all commands
+    private static final CommandExecutionEvent PROBE = new CommandExecutionEvent();
+
+    @Label("Root Literal")
+    @Description("The first word of the command")
+    public String root;
+
+    @Label("Parse Time")
+    @Timespan
+    public long parseTime;
+
+    @Label("Execute Time")
+    @Timespan
+    @Description("The time the command ran, or 0 if it failed to parse")
+    public long executeTime;
+
+    /**
+     * Checks if a running recording has this event enabled. This check does not allocate.
+     *
+     * @return {@code true} if this event is recorded, {@code false} otherwise.
+     */
+    public static boolean isRecording() {
+        return PROBE.isEnabled();
+    }
+}
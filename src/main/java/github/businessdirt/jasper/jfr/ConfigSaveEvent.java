@@ -0,0 +1,39 @@
+package github.businessdirt.jasper.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * A JDK Flight Recorder event that is committed for every save of a
+ * {@link github.businessdirt.jasper.config.ConfigHandler} that wrote its file.
+ * <p>
+ * The event is disabled by default. Enable {@value #NAME} in the recording settings to record it.
+ */
+@Name(ConfigSaveEvent.NAME)
+@Label("Config Save")
+@Category({"Jasper", "Config"})
+@Description("A Jasper configuration written to its file")
+@Enabled(false)
+public final class ConfigSaveEvent extends Event {
+
+    /** The name of this event in recordings. */
+    public static final String NAME = "github.businessdirt.jasper.ConfigSave";
+
+    // isEnabled() only reads the state of the event type, so one instance answers it for all saves
+    private static final ConfigSaveEvent PROBE = new ConfigSaveEvent();
+
+    @Label("Path")
+    public String path;
+
+    @Label("Bytes Written")
+    @DataAmount
+    public long bytes;
+
+    /**
+     * Checks if a running recording has this event enabled. This check does not allocate.
+     *
+     * @return {@code true} if this event is recorded, {@code false} otherwise.
+     */
+    public static boolean isRecording() {
+        return PROBE.isEnabled();
+    }
+}
@@ -0,0 +1,44 @@
+package github.businessdirt.jasper.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * A JDK Flight Recorder event that is committed for every listener invocation that takes longer than the threshold
+ * of the recording, which is 1 ms unless the recording settings say otherwise.
+ * <p>
+ * The event is disabled by default. Enable {@value #NAME} in the recording settings to record it. Recording it does
+ * not change how listeners are invoked, parallel listeners are recorded on the threads that run them.
+ */
+@Name(ListenerInvocationEvent.NAME)
+@Label("Listener Invocation")
+@Category({"Jasper", "Events"})
+@Description("A Jasper event listener that took longer than the threshold")
+@Enabled(false)
+@Threshold("1 ms")
+public final class ListenerInvocationEvent extends Event {
+
+    /** The name of this event in recordings. */
+    public static final String NAME = "github.businessdirt.jasper.ListenerInvocation";
+
+    // isEnabled() only reads the state of the event type, so one instance answers it for all posts
+    private static final ListenerInvocationEvent PROBE = new ListenerInvocationEvent();
+
+    @Label("Event Type")
+    public Class<?> eventType;
+
+    @Label("Listener")
+    public String listener;
+
+    @Label("Failed")
+    @Description("Whether the listener threw an exception")
+    public boolean failed;
+
+    /**
+     * Checks if a running recording has this event enabled. This check does not allocate.
+     *
+     * @return {@code true} if this event is recorded, {@code false} otherwise.
+     */
+    public static boolean isRecording() {
+        return PROBE.isEnabled();
+    }
+}
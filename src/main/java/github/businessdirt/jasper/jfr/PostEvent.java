@@ -0,0 +1,44 @@
+package github.businessdirt.jasper.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * A JDK Flight Recorder event that is committed for every synchronous post of an
+ * {@link github.businessdirt.jasper.events.system.Event}. Its duration covers all listeners invoked on the posting
+ * thread and the submission to their channels.
+ * <p>
+ * The event is disabled by default. Enable {@value #NAME} in the recording settings to record it.
+ */
+@Name(PostEvent.NAME)
+@Label("Event Post")
+@Category({"Jasper", "Events"})
+@Description("A synchronous post of a Jasper event")
+@Enabled(false)
+@StackTrace(false)
+public final class PostEvent extends Event {
+
+    /** The name of this event in recordings. */
+    public static final String NAME = "github.businessdirt.jasper.EventPost";
+
+    // isEnabled() only reads the state of the event type, so one instance answers it for all posts
+    private static final PostEvent PROBE = new PostEvent();
+
+    @Label("Event Type")
+    public Class<?> eventType;
+
+    @Label("Listeners")
+    @Description("The number of listeners of the event type, including those on channels")
+    public int listeners;
+
+    @Label("Cancelled")
+    public boolean cancelled;
+
+    /**
+     * Checks if a running recording has this event enabled. This check does not allocate.
+     *
+     * @return {@code true} if this event is recorded, {@code false} otherwise.
+     */
+    public static boolean isRecording() {
+        return PROBE.isEnabled();
+    }
+}
@@ -0,0 +1,175 @@
+package github.businessdirt.jasper.reflections;
+
+import github.businessdirt.jasper.reflections.scanners.ClassInfo;
+import github.businessdirt.jasper.reflections.scanners.ClasspathScanner;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * An immutable inverted index over parsed class files, so only the classes that match a query of a
+ * {@link Reflections} have to be loaded. It maps annotations to the classes that carry them or declare methods that
+ * carry them, and every supertype to all scanned classes that extend or implement it.
+ * <p>
+ * Supertypes outside the scanned classes are read from the class loader while the index is built, so that inherited
+ * methods, inherited annotations and indirect subtypes are found as well. All sets keep the order of the scanned
+ * classes.
+ */
+final class ClassFileIndex {
+
+    private final ClassLoader classLoader;
+    private final Set<String> names;
+    private final Map<String, Set<String>> annotatedClasses;
+    private final Map<String, Set<String>> annotatedMethods;
+    private final Map<String, Set<String>> subTypes;
+
+    ClassFileIndex(
+            @NotNull Set<ClassInfo> classes,
+            @NotNull ClassLoader classLoader
+    ) {
+        this.classLoader = classLoader;
+
+        Map<String, ClassInfo> scanned = classes.stream().collect(Collectors.toMap(ClassInfo::name, info -> info,
+                (first, _) -> first, LinkedHashMap::new));
+        Map<String, ClassInfo> resolved = new LinkedHashMap<>(scanned);
+        Map<String, Set<String>> supertypes = new HashMap<>();
+        Map<String, Set<String>> subTypes = new HashMap<>();
+
+        for (ClassInfo info : scanned.values()) {
+            subTypes.computeIfAbsent(info.name(), _ -> new LinkedHashSet<>()).add(info.name());
+            subTypes.computeIfAbsent(Object.class.getName(), _ -> new LinkedHashSet<>()).add(info.name());
+
+            for (String supertype : this.supertypes(info.name(), resolved, supertypes))
+                subTypes.computeIfAbsent(supertype, _ -> new LinkedHashSet<>()).add(info.name());
+        }
+
+        // supertypes outside the package count as well, their subtypes are in the package
+        Map<String, Set<String>> annotatedClasses = new HashMap<>();
+        Map<String, Set<String>> annotatedMethods = new HashMap<>();
+        for (ClassInfo info : resolved.values()) {
+            if (info == null) continue;
+
+            info.annotations().forEach(annotation ->
+                    annotatedClasses.computeIfAbsent(annotation, _ -> new LinkedHashSet<>()).add(info.name()));
+            info.methodAnnotations().forEach(annotation ->
+                    annotatedMethods.computeIfAbsent(annotation, _ -> new LinkedHashSet<>()).add(info.name()));
+        }
+
+        this.names = Collections.unmodifiableSet(scanned.keySet());
+        this.annotatedClasses = copy(annotatedClasses);
+        this.annotatedMethods = copy(annotatedMethods);
+        this.subTypes = copy(subTypes);
+    }
+
+    // all transitive supertypes of a class, reading the class files of the ones that haven't been seen yet
+    private @NotNull Set<String> supertypes(
+            @NotNull String name,
+            @NotNull Map<String, ClassInfo> resolved,
+            @NotNull Map<String, Set<String>> supertypes
+    ) {
+        Set<String> known = supertypes.get(name);
+        if (known != null) return known;
+        supertypes.put(name, Set.of()); // guards against cycles in malformed class files
+
+        ClassInfo info = resolved.containsKey(name) ? resolved.get(name) : this.read(name);
+        resolved.put(name, info);
+
+        Set<String> result = new HashSet<>();
+        if (info != null) {
+            List<String> parents = new ArrayList<>(info.interfaces());
+            if (info.superName() != null) parents.add(info.superName());
+
+            for (String parent : parents) {
+                result.add(parent);
+                result.addAll(this.supertypes(parent, resolved, supertypes));
+            }
+        }
+
+        supertypes.put(name, result);
+        return result;
+    }
+
+    // platform classes are mostly loaded already, reading their class files would cost more than looking at them
+    private @Nullable ClassInfo read(@NotNull String name) {
+        if (name.equals(Object.class.getName())) return null;
+        if (!name.startsWith("java.") && !name.startsWith("javax.") && !name.startsWith("jdk."))
+            return ClasspathScanner.readClassFile(name, this.classLoader);
+
+        try {
+            return ClassInfo.of(Class.forName(name, false, this.classLoader));
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static @NotNull @Unmodifiable Map<String, Set<String>> copy(@NotNull Map<String, Set<String>> map) {
+        Map<String, Set<String>> copy = new HashMap<>(map.size() * 2);
+        map.forEach((key, values) -> copy.put(key, Collections.unmodifiableSet(values)));
+        return Map.copyOf(copy);
+    }
+
+    /**
+     * @return the class loader that loads the scanned classes.
+     */
+    @NotNull ClassLoader getClassLoader() {
+        return this.classLoader;
+    }
+
+    /**
+     * @return the names of all scanned classes.
+     */
+    @NotNull Set<String> getNames() {
+        return this.names;
+    }
+
+    /**
+     * Finds the classes that declare or inherit a method with the given annotation.
+     *
+     * @param annotation the name of the annotation.
+     * @return the names of the matching classes.
+     */
+    @NotNull Set<String> getMethodsAnnotatedWith(@NotNull String annotation) {
+        return this.withSubTypes(this.annotatedMethods.getOrDefault(annotation, Set.of()));
+    }
+
+    /**
+     * Finds the classes that may be annotated with the given annotation. If the annotation is inherited, this
+     * includes all subtypes of the annotated classes, of which only the subclasses are actually annotated.
+     *
+     * @param annotation the name of the annotation.
+     * @param inherited  whether the annotation is {@link java.lang.annotation.Inherited} from superclasses.
+     * @return the names of the matching classes.
+     */
+    @NotNull Set<String> getClassesAnnotatedWith(
+            @NotNull String annotation,
+            boolean inherited
+    ) {
+        Set<String> annotated = this.annotatedClasses.getOrDefault(annotation, Set.of());
+        if (inherited) return this.withSubTypes(annotated);
+
+        Set<String> result = new LinkedHashSet<>(annotated);
+        result.retainAll(this.names);
+        return result;
+    }
+
+    /**
+     * Finds the classes that extend or implement the given type, including the type itself.
+     *
+     * @param type the name of the type.
+     * @return the names of the matching classes.
+     */
+    @NotNull Set<String> getSubTypesOf(@NotNull String type) {
+        return this.subTypes.getOrDefault(type, Set.of());
+    }
+
+    private @NotNull Set<String> withSubTypes(@NotNull Set<String> types) {
+        if (types.size() == 1) return this.getSubTypesOf(types.iterator().next());
+
+        Set<String> result = new LinkedHashSet<>();
+        for (String type : types) result.addAll(this.getSubTypesOf(type));
+        return result;
+    }
+}
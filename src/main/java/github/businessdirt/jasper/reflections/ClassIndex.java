@@ -0,0 +1,184 @@
+package github.businessdirt.jasper.reflections;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * The compile-time index written to {@value #LOCATION} by the {@code ListenerIndexProcessor} of the
+ * {@code jasper-processor} artifact.
+ * <p>
+ * Reading the index only loads the classes it lists, instead of every class of a package like {@link Reflections}.
+ * An index is only used if every classpath root that contains the base package has one, otherwise classes of a
+ * root that was compiled without the processor would be missed.
+ */
+public final class ClassIndex {
+
+    public static final String LOCATION = "META-INF/jasper/listeners.idx";
+
+    private final ClassLoader classLoader;
+    private final Map<Kind, Set<String>> classNames;
+
+    private ClassIndex(
+            @NotNull ClassLoader classLoader,
+            @NotNull Map<Kind, Set<String>> classNames
+    ) {
+        this.classLoader = classLoader;
+        this.classNames = classNames;
+    }
+
+    /**
+     * Loads the index of the given package with the context class loader of the current thread.
+     *
+     * @param basePackage the package whose classes should be read from the index.
+     * @return the index, or {@code null} if a classpath root that contains the package has no index.
+     * @throws IOException if an I/O error occurs while reading the index or the index is malformed.
+     */
+    public static @Nullable ClassIndex load(
+            @NotNull String basePackage
+    ) throws IOException {
+        return load(basePackage, Thread.currentThread().getContextClassLoader());
+    }
+
+    /**
+     * Loads the index of the given package.
+     *
+     * @param basePackage the package whose classes should be read from the index.
+     * @param classLoader the class loader to find the index and the indexed classes with.
+     * @return the index, or {@code null} if a classpath root that contains the package has no index.
+     * @throws IOException if an I/O error occurs while reading the index or the index is malformed.
+     */
+    public static @Nullable ClassIndex load(
+            @NotNull String basePackage,
+            @NotNull ClassLoader classLoader
+    ) throws IOException {
+        Set<String> packageRoots = roots(classLoader.getResources(basePackage.replace('.', '/')),
+                basePackage.replace('.', '/'));
+
+        Map<String, URL> indexes = new HashMap<>();
+        for (URL index : Collections.list(classLoader.getResources(LOCATION))) {
+            indexes.putIfAbsent(root(index, LOCATION), index);
+        }
+
+        if (packageRoots.isEmpty() || !indexes.keySet().containsAll(packageRoots)) return null;
+
+        Map<Kind, Set<String>> classNames = new EnumMap<>(Kind.class);
+        for (String root : packageRoots) read(indexes.get(root), basePackage, classNames);
+        return new ClassIndex(classLoader, classNames);
+    }
+
+    private static @NotNull Set<String> roots(
+            @NotNull Enumeration<URL> resources,
+            @NotNull String path
+    ) {
+        Set<String> roots = new HashSet<>();
+        while (resources.hasMoreElements()) roots.add(root(resources.nextElement(), path));
+        return roots;
+    }
+
+    // strips the resource path from a URL, e.g. jar:file:/app.jar!/a/b -> jar:file:/app.jar!/
+    private static @NotNull String root(
+            @NotNull URL resource,
+            @NotNull String path
+    ) {
+        String url = resource.toString();
+        if (url.endsWith("/") && !path.isEmpty()) url = url.substring(0, url.length() - 1);
+        return url.endsWith(path) ? url.substring(0, url.length() - path.length()) : url;
+    }
+
+    private static void read(
+            @NotNull URL index,
+            @NotNull String basePackage,
+            @NotNull Map<Kind, Set<String>> classNames
+    ) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(index.openStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+
+                int separator = line.indexOf(' ');
+                if (separator < 0) throw new IOException("Malformed line in " + index + ": " + line);
+
+                Kind kind = Kind.byName(line.substring(0, separator));
+                String className = line.substring(separator + 1).strip();
+
+                // entries of unknown kinds were written by a newer processor and are ignored
+                if (kind == null || !isInPackage(className, basePackage)) continue;
+                classNames.computeIfAbsent(kind, _ -> new HashSet<>()).add(className);
+            }
+        }
+    }
+
+    private static boolean isInPackage(
+            @NotNull String className,
+            @NotNull String basePackage
+    ) {
+        return basePackage.isEmpty() || className.startsWith(basePackage + ".");
+    }
+
+    /**
+     * Returns the names of all indexed classes of the given kind.
+     *
+     * @param kind the kind of the classes.
+     * @return an immutable {@link Set} of binary class names.
+     */
+    public @NotNull Set<String> getClassNames(@NotNull Kind kind) {
+        return Set.copyOf(this.classNames.getOrDefault(kind, Collections.emptySet()));
+    }
+
+    /**
+     * Loads all indexed classes of the given kind without initializing them.
+     * Classes that cannot be loaded are skipped, just like when scanning.
+     *
+     * @param kind the kind of the classes.
+     * @return a {@link Set} of the loaded classes.
+     */
+    public @NotNull Set<Class<?>> getClasses(@NotNull Kind kind) {
+        Set<Class<?>> classes = new HashSet<>();
+        for (String className : this.classNames.getOrDefault(kind, Collections.emptySet())) {
+            try {
+                classes.add(Class.forName(className, false, this.classLoader));
+            } catch (ClassNotFoundException | NoClassDefFoundError e) {
+                // the index may be older than the classpath
+            }
+        }
+
+        return classes;
+    }
+
+    /**
+     * The kinds of classes recorded in the index.
+     */
+    public enum Kind {
+
+        /** Classes that declare or inherit a public method annotated with {@code HandleEvent}. */
+        LISTENER("listener"),
+
+        /** Subtypes of {@code Event}. */
+        EVENT("event"),
+
+        /** Subtypes of {@code CommandSource}. */
+        COMMAND_SOURCE("source");
+
+        private final String key;
+
+        Kind(@NotNull String key) {
+            this.key = key;
+        }
+
+        private static @Nullable Kind byName(@NotNull String key) {
+            for (Kind kind : values()) {
+                if (kind.key.equals(key)) return kind;
+            }
+
+            return null;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package github.businessdirt.jasper.reflections;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.*;
+
+/**
+ * An immutable inverted index over loaded classes, built once so that every query of a {@link Reflections} is a
+ * single lookup. It maps annotations to the classes and the public methods that carry them, and every supertype to
+ * all of its subtypes. All sets keep the order of the indexed classes.
+ */
+final class LoadedClassIndex {
+
+    private final Map<Class<?>, Set<Class<?>>> annotatedClasses;
+    private final Map<Class<?>, Set<Method>> annotatedMethods;
+    private final Map<Class<?>, Set<Class<?>>> subTypes;
+
+    LoadedClassIndex(@NotNull Set<Class<?>> classes) {
+        Map<Class<?>, Set<Class<?>>> annotatedClasses = new HashMap<>();
+        Map<Class<?>, Set<Method>> annotatedMethods = new HashMap<>();
+        Map<Class<?>, Set<Class<?>>> subTypes = new HashMap<>();
+
+        for (Class<?> cls : classes) {
+            Annotation[] annotations;
+            Method[] methods;
+
+            try {
+                annotations = cls.getAnnotations();
+                methods = cls.getMethods();
+            } catch (LinkageError | TypeNotPresentException e) {
+                // The class references types that aren't available, it is skipped like a class that cannot be loaded
+                continue;
+            }
+
+            for (Annotation annotation : annotations)
+                annotatedClasses.computeIfAbsent(annotation.annotationType(), _ -> new LinkedHashSet<>()).add(cls);
+
+            for (Method method : methods) {
+                for (Annotation annotation : method.getAnnotations())
+                    annotatedMethods.computeIfAbsent(annotation.annotationType(), _ -> new LinkedHashSet<>())
+                            .add(method);
+            }
+
+            for (Class<?> supertype : supertypes(cls))
+                subTypes.computeIfAbsent(supertype, _ -> new LinkedHashSet<>()).add(cls);
+        }
+
+        this.annotatedClasses = copy(annotatedClasses);
+        this.annotatedMethods = copy(annotatedMethods);
+        this.subTypes = copy(subTypes);
+    }
+
+    // the class itself, all of its superclasses and all interfaces it implements directly or indirectly
+    private static @NotNull Set<Class<?>> supertypes(@NotNull Class<?> cls) {
+        Set<Class<?>> supertypes = new HashSet<>();
+        Deque<Class<?>> pending = new ArrayDeque<>(List.of(cls, Object.class));
+
+        while (!pending.isEmpty()) {
+            Class<?> current = pending.pop();
+            if (!supertypes.add(current)) continue;
+
+            if (current.getSuperclass() != null) pending.push(current.getSuperclass());
+            for (Class<?> superinterface : current.getInterfaces()) pending.push(superinterface);
+        }
+
+        return supertypes;
+    }
+
+    private static <K, V> @NotNull @Unmodifiable Map<K, Set<V>> copy(@NotNull Map<K, Set<V>> map) {
+        Map<K, Set<V>> copy = new HashMap<>(map.size() * 2);
+        map.forEach((key, values) -> copy.put(key, Collections.unmodifiableSet(values)));
+        return Map.copyOf(copy);
+    }
+
+    /**
+     * @param annotation the annotation.
+     * @return the classes that are annotated with the annotation, directly or through
+     * {@link java.lang.annotation.Inherited}.
+     */
+    @NotNull Set<Class<?>> getClassesAnnotatedWith(@NotNull Class<? extends Annotation> annotation) {
+        return this.annotatedClasses.getOrDefault(annotation, Set.of());
+    }
+
+    /**
+     * @param annotation the annotation.
+     * @return the public methods of the classes that are annotated with the annotation.
+     */
+    @NotNull Set<Method> getMethodsAnnotatedWith(@NotNull Class<? extends Annotation> annotation) {
+        return this.annotatedMethods.getOrDefault(annotation, Set.of());
+    }
+
+    /**
+     * @param type the supertype.
+     * @return the classes that extend or implement the type, including the type itself.
+     */
+    @NotNull Set<Class<?>> getSubTypesOf(@NotNull Class<?> type) {
+        return this.subTypes.getOrDefault(type, Set.of());
+    }
+}
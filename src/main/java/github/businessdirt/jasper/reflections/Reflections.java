@@ -2,22 +2,42 @@ package github.businessdirt.jasper.reflections;
 
 import github.businessdirt.jasper.reflections.scanners.ClasspathScanner;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.lang.annotation.Inherited;
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * A simple classpath scanner that finds all classes in a given package.
  * It works for both file systems (IDE) and JAR files (production).
+ * <p>
+ * With {@link ScanMode#READ_CLASS_FILES}, the class files are parsed instead of loaded, and a query only loads the
+ * classes that match it. The result of a query is kept, so asking again for the same annotation or type is a single
+ * lookup as well. Otherwise, the loaded classes are indexed once by their annotations and supertypes, so that
+ * every query is a single lookup.
  */
 @SuppressWarnings("unused")
 public class Reflections {
 
-    private final Set<Class<?>> foundClasses;
+    private final @Nullable ClassFileIndex classFiles;
+    private volatile @Nullable Set<Class<?>> foundClasses;
+    private final @Nullable LoadedClassIndex loadedClasses;
+
+    // the results of the queries on the class files, which load and filter the matching classes only once
+    private final Map<Class<?>, Set<Method>> annotatedMethods = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Set<Class<?>>> annotatedClasses = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Set<Class<?>>> subTypes = new ConcurrentHashMap<>();
 
     /**
      * Constructs a new {@link Reflections} owner and scans the given base package
@@ -29,17 +49,107 @@ public class Reflections {
     public Reflections(
             @NotNull String basePackage
     ) throws IOException {
-        ClasspathScanner scanner = new ClasspathScanner(basePackage);
-        this.foundClasses = scanner.scan();
+        this(basePackage, ScanMode.LOAD_CLASSES);
+    }
+
+    /**
+     * Constructs a new {@link Reflections} owner and scans the given base package
+     * for all classes with the given mode.
+     *
+     * @param basePackage the base package to scan (e.g., "com.example.myproject").
+     * @param mode        how the classes of the package are scanned.
+     * @throws IOException if an I/O error occurs during scanning.
+     */
+    public Reflections(
+            @NotNull String basePackage,
+            @NotNull ScanMode mode
+    ) throws IOException {
+        this(basePackage, mode, ClasspathScanner.Options.DEFAULT);
+    }
+
+    /**
+     * Constructs a new {@link Reflections} owner and scans the given base package
+     * for all classes with the given mode and scanner options.
+     * <p>
+     * With {@link ClasspathScanner.Options#ordered()}, all returned sets iterate their classes in the order of their
+     * names, and the methods in the order of the names of their classes.
+     *
+     * @param basePackage the base package to scan (e.g., "com.example.myproject").
+     * @param mode        how the classes of the package are scanned.
+     * @param options     whether the package is scanned in parallel and the results are sorted.
+     * @throws IOException if an I/O error occurs during scanning.
+     */
+    public Reflections(
+            @NotNull String basePackage,
+            @NotNull ScanMode mode,
+            @NotNull ClasspathScanner.Options options
+    ) throws IOException {
+        ClasspathScanner scanner = new ClasspathScanner(basePackage, options);
+
+        if (mode == ScanMode.READ_CLASS_FILES) {
+            this.classFiles = new ClassFileIndex(scanner.scanClassFiles(),
+                    Thread.currentThread().getContextClassLoader());
+            this.loadedClasses = null;
+        } else {
+            this.classFiles = null;
+            this.foundClasses = Collections.unmodifiableSet(scanner.scan());
+            this.loadedClasses = new LoadedClassIndex(this.foundClasses);
+        }
+    }
+
+    /**
+     * Constructs a new {@link Reflections} owner over an already known set of classes,
+     * e.g. the classes listed in a {@link ClassIndex}. The returned sets keep the iteration order of the classes.
+     *
+     * @param classes the classes to query.
+     */
+    public Reflections(
+            @NotNull Set<Class<?>> classes
+    ) {
+        this.classFiles = null;
+        this.foundClasses = Collections.unmodifiableSet(new LinkedHashSet<>(classes));
+        this.loadedClasses = new LoadedClassIndex(this.foundClasses);
     }
 
     /**
      * Returns an immutable set of all classes found during the scan.
+     * With {@link ScanMode#READ_CLASS_FILES}, the first call loads all of them.
      *
      * @return a {@link Set} of {@link Class} objects.
      */
     public @NotNull Set<Class<?>> getAllClasses() {
-        return this.foundClasses;
+        Set<Class<?>> classes = this.foundClasses;
+        if (classes != null) return classes;
+
+        synchronized (this) {
+            if (this.foundClasses == null)
+                this.foundClasses = Collections.unmodifiableSet(this.load(ClassFileIndex::getNames));
+            return this.foundClasses;
+        }
+    }
+
+    // the loaded candidates of a query on the class files
+    private @NotNull Stream<Class<?>> candidates(@NotNull Function<ClassFileIndex, Set<String>> query) {
+        return this.load(query).stream();
+    }
+
+    // not computeIfAbsent, since loading a class may run code that queries this instance again
+    private static <T> @NotNull Set<T> cached(
+            @NotNull Map<Class<?>, Set<T>> results,
+            @NotNull Class<?> key,
+            @NotNull Function<Class<?>, Set<T>> query
+    ) {
+        Set<T> result = results.get(key);
+        if (result != null) return result;
+
+        Set<T> computed = Collections.unmodifiableSet(query.apply(key));
+        result = results.putIfAbsent(key, computed);
+        return result != null ? result : computed;
+    }
+
+    private @NotNull Set<Class<?>> load(@NotNull Function<ClassFileIndex, Set<String>> query) {
+        assert this.classFiles != null;
+        return ClasspathScanner.loadClasses(query.apply(this.classFiles), this.classFiles.getClassLoader());
     }
 
     /**
@@ -47,42 +157,72 @@ public class Reflections {
      * from the classes found during the scan.
      *
      * @param annotation the annotation class to search for.
-     * @return a {@link Set} of {@link Method} objects annotated with the given annotation.
+     * @return an immutable {@link Set} of {@link Method} objects annotated with the given annotation.
      */
     public @NotNull Set<Method> getMethodsAnnotatedWith(
             @NotNull Class<? extends Annotation> annotation
     ) {
-        return this.foundClasses.stream()
-                .flatMap(cls ->
-                    Arrays.stream(cls.getMethods()).filter(m -> m.isAnnotationPresent(annotation))
-                ).collect(Collectors.toSet());
+        if (this.loadedClasses != null) return this.loadedClasses.getMethodsAnnotatedWith(annotation);
+
+        return cached(this.annotatedMethods, annotation, _ ->
+                this.candidates(index -> index.getMethodsAnnotatedWith(annotation.getName()))
+                        .flatMap(cls ->
+                            Arrays.stream(cls.getMethods()).filter(m -> m.isAnnotationPresent(annotation))
+                        ).collect(Collectors.toCollection(LinkedHashSet::new)));
     }
 
     /**
      * Retrieves all classes annotated with the specified annotation.
      * @param annotation the annotation the classes need to be annotated with.
-     * @return all classes with the given annotation.
+     * @return an immutable set of all classes with the given annotation.
      */
     public @NotNull Set<Class<?>> getClassesAnnotatedWith(
             @NotNull Class<? extends Annotation> annotation
     ) {
-        return this.foundClasses.stream()
-                .filter(c -> c.isAnnotationPresent(annotation))
-                .collect(Collectors.toSet());
+        if (this.loadedClasses != null) return this.loadedClasses.getClassesAnnotatedWith(annotation);
+
+        boolean inherited = annotation.isAnnotationPresent(Inherited.class);
+        return cached(this.annotatedClasses, annotation, _ ->
+                this.candidates(index -> index.getClassesAnnotatedWith(annotation.getName(), inherited))
+                        .filter(c -> c.isAnnotationPresent(annotation))
+                        .collect(Collectors.toCollection(LinkedHashSet::new)));
     }
 
     /**
      * Retrieves all classes that inherit from the specified class.
      * @param type the superclass.
-     * @return the classes that extends or implement the superclass.
+     * @return an immutable set of the classes that extend or implement the superclass.
      * @param <T> the generic type of the superclass.
      */
     public <T> @NotNull Set<Class<? extends T>> getSubTypesOf(
             @NotNull Class<T> type
     ) {
-        return this.foundClasses.stream()
-                .filter(type::isAssignableFrom)
-                .map(cls -> cls.<T>asSubclass(type))
-                .collect(Collectors.toSet());
+        if (this.loadedClasses != null) {
+            @SuppressWarnings("unchecked")
+            Set<Class<? extends T>> subTypes =
+                    (Set<Class<? extends T>>) (Set<?>) this.loadedClasses.getSubTypesOf(type);
+            return subTypes;
+        }
+
+        Set<Class<?>> subTypes = cached(this.subTypes, type, _ ->
+                this.candidates(index -> index.getSubTypesOf(type.getName()))
+                        .filter(type::isAssignableFrom)
+                        .collect(Collectors.toCollection(LinkedHashSet::new)));
+
+        @SuppressWarnings("unchecked")
+        Set<Class<? extends T>> result = (Set<Class<? extends T>>) (Set<?>) subTypes;
+        return result;
+    }
+
+    /**
+     * How a {@link Reflections} scans the classes of its package.
+     */
+    public enum ScanMode {
+
+        /** Loads every class of the package while scanning. */
+        LOAD_CLASSES,
+
+        /** Parses the class files of the package while scanning and only loads the classes that match a query. */
+        READ_CLASS_FILES
     }
 }
@@ -0,0 +1,110 @@
+package github.businessdirt.jasper.reflections;
+
+import github.businessdirt.jasper.reflections.scanners.ClasspathScanner;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Scans every base package at most once per process and shares the resulting {@link Reflections} between all
+ * subsystems, like the {@link github.businessdirt.jasper.events.system.EventBus} and the
+ * {@link github.businessdirt.jasper.commands.CommandRegistry}.
+ * <p>
+ * The scan of a package runs on the first thread that asks for it. Threads that ask for the same package while it is
+ * being scanned wait for that scan instead of starting their own. A failed scan is not remembered, so the next call
+ * scans the package again.
+ */
+public final class ScanService {
+
+    private static final ScanService INSTANCE = new ScanService(Reflections.ScanMode.READ_CLASS_FILES,
+            ClasspathScanner.Options.configured());
+
+    private final Reflections.ScanMode mode;
+    private final ClasspathScanner.Options options;
+    private final Map<String, FutureTask<Reflections>> scans;
+
+    /**
+     * Constructs a new {@link ScanService} with its own results. Most callers should share the results of
+     * {@link #get()} instead.
+     *
+     * @param mode    how the packages are scanned.
+     * @param options the options of the classpath scanner.
+     */
+    public ScanService(
+            @NotNull Reflections.ScanMode mode,
+            @NotNull ClasspathScanner.Options options
+    ) {
+        this.mode = mode;
+        this.options = options;
+        this.scans = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @return the process-wide {@link ScanService}, which reads class files and takes its scanner options from
+     * {@link ClasspathScanner.Options#configured()}.
+     */
+    public static @NotNull ScanService get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the scan of a package, scanning it if no other caller has done so yet.
+     *
+     * @param basePackage the base package to scan (e.g., "com.example.myproject").
+     * @return the shared {@link Reflections} of the package.
+     * @throws IOException if an I/O error occurs during scanning, or the thread is interrupted while it waits for
+     *                     the scan of another thread.
+     */
+    public @NotNull Reflections getReflections(
+            @NotNull String basePackage
+    ) throws IOException {
+        FutureTask<Reflections> scan = this.scans.get(basePackage);
+        if (scan == null) {
+            // the scan runs outside the map, so scans of other packages are not blocked by it
+            FutureTask<Reflections> created = new FutureTask<>(() -> new Reflections(basePackage, this.mode,
+                    this.options));
+            scan = this.scans.putIfAbsent(basePackage, created);
+            if (scan == null) {
+                scan = created;
+                created.run();
+            }
+        }
+
+        try {
+            return scan.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the scan of " + basePackage);
+        } catch (ExecutionException e) {
+            this.scans.remove(basePackage, scan);
+
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException exception) throw exception;
+            if (cause instanceof RuntimeException exception) throw exception;
+            if (cause instanceof Error error) throw error;
+            throw new IOException("Error scanning " + basePackage, cause);
+        }
+    }
+
+    /**
+     * Forgets the scan of a package, so that the next call of {@link #getReflections(String)} scans it again,
+     * e.g. after classes have been added to the classpath.
+     *
+     * @param basePackage the base package.
+     */
+    public void invalidate(@NotNull String basePackage) {
+        this.scans.remove(basePackage);
+    }
+
+    /**
+     * Forgets the scans of all packages.
+     */
+    public void invalidateAll() {
+        this.scans.clear();
+    }
+}
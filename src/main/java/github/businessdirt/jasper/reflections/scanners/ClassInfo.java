@@ -0,0 +1,226 @@
+package github.businessdirt.jasper.reflections.scanners;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The parts of a class file that are needed to answer the queries of a
+ * {@link github.businessdirt.jasper.reflections.Reflections}, read without loading the class.
+ * All names are binary names, like the ones returned by {@link Class#getName()}.
+ *
+ * @param name              the name of the class.
+ * @param superName         the name of the superclass, or {@code null} for {@link Object} and interfaces without one.
+ * @param interfaces        the names of the directly implemented interfaces.
+ * @param annotations       the names of the runtime visible annotations of the class.
+ * @param methodAnnotations the names of the runtime visible annotations of any method declared by the class.
+ */
+public record ClassInfo(
+        @NotNull String name,
+        @Nullable String superName,
+        @NotNull List<String> interfaces,
+        @NotNull Set<String> annotations,
+        @NotNull Set<String> methodAnnotations
+) {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final byte[] RUNTIME_VISIBLE_ANNOTATIONS =
+            "RuntimeVisibleAnnotations".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Parses the constant pool, the supertypes and the runtime visible annotations of a class file.
+     * Everything else, like fields and code, is skipped, and only the constants that are needed are decoded.
+     *
+     * @param bytes the contents of the class file.
+     * @return the parsed class file.
+     * @throws IllegalArgumentException if the bytes are not a valid class file.
+     */
+    public static @NotNull ClassInfo read(byte @NotNull [] bytes) throws IllegalArgumentException {
+        try {
+            return new Parser(bytes).parse();
+        } catch (IndexOutOfBoundsException | IOException e) {
+            throw new IllegalArgumentException("Malformed class file", e);
+        }
+    }
+
+    /**
+     * Describes an already loaded class the same way its class file would.
+     *
+     * @param type the loaded class.
+     * @return the description of the class.
+     */
+    public static @NotNull ClassInfo of(@NotNull Class<?> type) {
+        return new ClassInfo(
+                type.getName(),
+                type.getSuperclass() == null ? null : type.getSuperclass().getName(),
+                Arrays.stream(type.getInterfaces()).map(Class::getName).toList(),
+                Arrays.stream(type.getDeclaredAnnotations())
+                        .map(annotation -> annotation.annotationType().getName())
+                        .collect(Collectors.toUnmodifiableSet()),
+                Arrays.stream(type.getDeclaredMethods())
+                        .flatMap(method -> Arrays.stream(method.getDeclaredAnnotations()))
+                        .map(annotation -> annotation.annotationType().getName())
+                        .collect(Collectors.toUnmodifiableSet())
+        );
+    }
+
+    // reads a class file with a cursor, the constant pool is indexed by offset and decoded lazily
+    private static final class Parser {
+
+        private final byte[] bytes;
+        private int position;
+        private int[] offsets;
+
+        private Parser(byte @NotNull [] bytes) {
+            this.bytes = bytes;
+        }
+
+        private @NotNull ClassInfo parse() throws IOException {
+            if (this.readInt() != MAGIC) throw new IOException("Not a class file");
+            this.position += 4; // minor and major version
+
+            int poolSize = this.readShort();
+            this.offsets = new int[poolSize];
+
+            for (int i = 1; i < poolSize; i++) {
+                this.offsets[i] = this.position;
+                int tag = this.bytes[this.position++] & 0xFF;
+
+                switch (tag) {
+                    case 1 -> this.position += 2 + this.readShort();
+                    case 7, 8, 16, 19, 20 -> this.position += 2;
+                    case 15 -> this.position += 3;
+                    case 3, 4, 9, 10, 11, 12, 17, 18 -> this.position += 4;
+                    case 5, 6 -> {
+                        this.position += 8;
+                        i++; // longs and doubles take up two entries
+                    }
+                    default -> throw new IOException("Unknown constant pool tag " + tag);
+                }
+            }
+
+            this.position += 2; // access flags
+            String name = this.className(this.readShort());
+            int superIndex = this.readShort();
+            String superName = superIndex == 0 ? null : this.className(superIndex);
+
+            String[] interfaces = new String[this.readShort()];
+            for (int i = 0; i < interfaces.length; i++) interfaces[i] = this.className(this.readShort());
+
+            int fieldCount = this.readShort();
+            for (int i = 0; i < fieldCount; i++) {
+                this.position += 6; // access flags, name and descriptor
+                this.readAttributes(null);
+            }
+
+            Set<String> methodAnnotations = new HashSet<>();
+            int methodCount = this.readShort();
+            for (int i = 0; i < methodCount; i++) {
+                this.position += 6; // access flags, name and descriptor
+                this.readAttributes(methodAnnotations);
+            }
+
+            Set<String> annotations = new HashSet<>();
+            this.readAttributes(annotations);
+
+            return new ClassInfo(name, superName, List.of(interfaces), Set.copyOf(annotations),
+                    Set.copyOf(methodAnnotations));
+        }
+
+        // adds the runtime visible annotations to the given set and skips all other attributes
+        private void readAttributes(@Nullable Set<String> annotations) throws IOException {
+            int attributeCount = this.readShort();
+            for (int i = 0; i < attributeCount; i++) {
+                int nameIndex = this.readShort();
+                int length = this.readInt();
+
+                if (annotations == null || !this.utf8Equals(nameIndex, RUNTIME_VISIBLE_ANNOTATIONS)) {
+                    this.position += length;
+                    continue;
+                }
+
+                int annotationCount = this.readShort();
+                for (int j = 0; j < annotationCount; j++) annotations.add(this.readAnnotation());
+            }
+        }
+
+        private @NotNull String readAnnotation() throws IOException {
+            String descriptor = this.utf8(this.readShort());
+
+            int pairCount = this.readShort();
+            for (int i = 0; i < pairCount; i++) {
+                this.position += 2; // element name
+                this.skipElementValue();
+            }
+
+            // descriptors have the form Lcom/example/Name;
+            return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+        }
+
+        private void skipElementValue() throws IOException {
+            int tag = this.bytes[this.position++] & 0xFF;
+            switch (tag) {
+                case 'B', 'C', 'D', 'F', 'I', 'J', 'S', 'Z', 's', 'c' -> this.position += 2;
+                case 'e' -> this.position += 4;
+                case '@' -> this.readAnnotation();
+                case '[' -> {
+                    int count = this.readShort();
+                    for (int i = 0; i < count; i++) this.skipElementValue();
+                }
+                default -> throw new IOException("Unknown element value tag " + (char) tag);
+            }
+        }
+
+        private @NotNull String className(int index) throws IOException {
+            int offset = this.entry(index, 7);
+            return this.utf8(((this.bytes[offset + 1] & 0xFF) << 8) | (this.bytes[offset + 2] & 0xFF))
+                    .replace('/', '.');
+        }
+
+        private @NotNull String utf8(int index) throws IOException {
+            int offset = this.entry(index, 1);
+            int length = ((this.bytes[offset + 1] & 0xFF) << 8) | (this.bytes[offset + 2] & 0xFF);
+
+            for (int i = offset + 3; i < offset + 3 + length; i++) {
+                if (this.bytes[i] < 0) {
+                    // modified UTF-8 differs from UTF-8, so anything but ASCII is decoded by DataInput
+                    return new DataInputStream(new ByteArrayInputStream(this.bytes, offset + 1, length + 2))
+                            .readUTF();
+                }
+            }
+
+            return new String(this.bytes, offset + 3, length, StandardCharsets.ISO_8859_1);
+        }
+
+        private boolean utf8Equals(int index, byte @NotNull [] expected) throws IOException {
+            int offset = this.entry(index, 1);
+            int length = ((this.bytes[offset + 1] & 0xFF) << 8) | (this.bytes[offset + 2] & 0xFF);
+            return Arrays.equals(this.bytes, offset + 3, offset + 3 + length, expected, 0, expected.length);
+        }
+
+        private int entry(int index, int tag) throws IOException {
+            if (index <= 0 || index >= this.offsets.length || this.offsets[index] == 0
+                    || this.bytes[this.offsets[index]] != tag)
+                throw new IOException("Invalid constant pool entry " + index);
+            return this.offsets[index];
+        }
+
+        private int readShort() {
+            return ((this.bytes[this.position++] & 0xFF) << 8) | (this.bytes[this.position++] & 0xFF);
+        }
+
+        private int readInt() {
+            return (this.readShort() << 16) | this.readShort();
+        }
+    }
+}
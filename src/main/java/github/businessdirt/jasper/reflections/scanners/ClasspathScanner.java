@@ -1,54 +1,143 @@
 package github.businessdirt.jasper.reflections.scanners;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
-import java.util.Enumeration;
-import java.util.HashSet;
-import java.util.Set;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * A simple classpath scanner that works both for JAR files and when running from a directory
  * @param basePackage the package to scan
+ * @param options     how the package is scanned
  */
 public record ClasspathScanner(
-        @NotNull String basePackage
+        @NotNull String basePackage,
+        @NotNull Options options
 ) {
 
+    /**
+     * Creates a scanner that scans the package sequentially with {@link Options#DEFAULT}.
+     * @param basePackage the package to scan
+     */
+    public ClasspathScanner(@NotNull String basePackage) {
+        this(basePackage, Options.DEFAULT);
+    }
+
     /**
      * Scans the specified package recursively for classes. This works for running from a directory and from a JAR
      * @return the set of classes this scanner found
      * @throws IOException if an io exception has been found
      */
     public @NotNull Set<Class<?>> scan() throws IOException {
-        String packagePath = basePackage.replace('.', '/');
         ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
-        Enumeration<URL> resources = classLoader.getResources(packagePath);
+        return loadClasses(this.findClassNames(classLoader), classLoader);
+    }
 
-        Set<String> classNames = new HashSet<>();
+    /**
+     * Scans the specified package recursively and parses the class files instead of loading the classes.
+     * Class files that cannot be read or parsed are skipped, like classes that cannot be loaded by {@link #scan()}.
+     *
+     * @return the parsed class files of all classes this scanner found
+     * @throws IOException if an io exception has been found
+     */
+    public @NotNull Set<ClassInfo> scanClassFiles() throws IOException {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (this.options.cacheDirectory() == null) return this.scanResources(classLoader, DirectoryScanner::readAll,
+                JARScanner::readAll, Comparator.comparing(ClassInfo::name));
 
-        DirectoryScanner directoryScanner = new DirectoryScanner(this.basePackage);
-        JARScanner jarScanner = new JARScanner(this.basePackage);
-        while (resources.hasMoreElements()) {
-            URL resource = resources.nextElement();
-            String protocol = resource.getProtocol();
+        ScanCache cache = ScanCache.load(this.options.cacheDirectory(), this.basePackage);
+        Set<ClassInfo> classInfos = this.scanResources(classLoader,
+                (scanner, resource) -> cache.get(resource, scanner::readAll),
+                (scanner, resource) -> cache.get(resource, scanner::readAll),
+                Comparator.comparing(ClassInfo::name));
 
-            if ("file".equals(protocol)) {
-                classNames.addAll(directoryScanner.findAll(resource));
-            } else if ("jar".equals(protocol)) {
-                classNames.addAll(jarScanner.findAll(resource));
-            }
+        cache.save();
+        return classInfos;
+    }
+
+    /**
+     * Reads and parses the class file of a class through the resources of a class loader, without loading the class.
+     *
+     * @param className   the binary name of the class.
+     * @param classLoader the class loader whose resources contain the class file.
+     * @return the parsed class file, or {@code null} if the class file does not exist or cannot be parsed.
+     */
+    public static @Nullable ClassInfo readClassFile(
+            @NotNull String className,
+            @NotNull ClassLoader classLoader
+    ) {
+        try (InputStream input = classLoader.getResourceAsStream(className.replace('.', '/') + ".class")) {
+            return input == null ? null : ClassInfo.read(input.readAllBytes());
+        } catch (IOException | IllegalArgumentException e) {
+            // Unreadable class files are skipped just like classes that cannot be loaded
+            return null;
+        }
+    }
+
+    private @NotNull Set<String> findClassNames(
+            @NotNull ClassLoader classLoader
+    ) throws IOException {
+        // the cache stores parsed class files, listing the names of a changed root alone wouldn't update it
+        if (this.options.cacheDirectory() != null) return this.scanClassFiles().stream()
+                .map(ClassInfo::name)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        return this.scanResources(classLoader, DirectoryScanner::findAll, JARScanner::findAll,
+                Comparator.naturalOrder());
+    }
+
+    // scans every directory and JAR that contains the package, in parallel if the options say so
+    private <T> @NotNull Set<T> scanResources(
+            @NotNull ClassLoader classLoader,
+            @NotNull ResourceScanner<DirectoryScanner, T> directories,
+            @NotNull ResourceScanner<JARScanner, T> jars,
+            @NotNull Comparator<T> order
+    ) throws IOException {
+        String packagePath = basePackage.replace('.', '/');
+        List<URL> resources = Collections.list(classLoader.getResources(packagePath));
+
+        DirectoryScanner directoryScanner = new DirectoryScanner(this.basePackage, this.options.parallel());
+        JARScanner jarScanner = new JARScanner(this.basePackage, this.options.parallel());
+        Function<URL, Set<T>> scanResource = resource -> switch (resource.getProtocol()) {
+            case "file" -> directories.scan(directoryScanner, resource);
+            case "jar" -> jars.scan(jarScanner, resource);
+            default -> Set.of();
+        };
+
+        Set<T> results;
+        if (this.options.parallel()) {
+            // the roots fan out on the common fork-join pool, which the scanners use for their own work as well
+            results = ConcurrentHashMap.newKeySet();
+            resources.parallelStream().map(scanResource).forEach(results::addAll);
+        } else {
+            results = new HashSet<>();
+            resources.forEach(resource -> results.addAll(scanResource.apply(resource)));
         }
 
-        return loadClasses(classNames, classLoader);
+        if (!this.options.ordered()) return results;
+        return results.stream().sorted(order).collect(Collectors.toCollection(LinkedHashSet::new));
     }
 
-    private @NotNull Set<Class<?>> loadClasses(
-            @NotNull Set<String> classNames,
+    /**
+     * Loads the given classes without initializing them. Classes that cannot be loaded are skipped.
+     * The returned set iterates the classes in the order of the given names.
+     *
+     * @param classNames  the binary names of the classes.
+     * @param classLoader the class loader to load the classes with.
+     * @return the classes that could be loaded.
+     */
+    public static @NotNull Set<Class<?>> loadClasses(
+            @NotNull Collection<String> classNames,
             @NotNull ClassLoader classLoader
     ) {
-        Set<Class<?>> loadedClasses = new HashSet<>();
+        Set<Class<?>> loadedClasses = new LinkedHashSet<>();
         for (String className : classNames) {
             try {
                 // Load the class but do NOT initialize it (runs static blocks)
@@ -62,4 +151,58 @@ public record ClasspathScanner(
         }
         return loadedClasses;
     }
+
+    @FunctionalInterface
+    private interface ResourceScanner<S, T> {
+        @NotNull Set<T> scan(@NotNull S scanner, @NotNull URL resource);
+    }
+
+    /**
+     * How a {@link ClasspathScanner} scans its package.
+     *
+     * @param parallel       whether the directories and JARs of the package are scanned in parallel on the common
+     *                       fork-join pool, and the directory trees and JAR entries within them as well.
+     * @param ordered        whether the results are sorted by class name, so that they are iterated in the same
+     *                       order on every run. Otherwise, the order is unspecified.
+     * @param cacheDirectory the directory of the scan cache, or {@code null} to scan every root on every scan.
+     *                       With a cache, only the roots that changed since the last scan of the package are read.
+     */
+    public record Options(
+            boolean parallel,
+            boolean ordered,
+            @Nullable Path cacheDirectory
+    ) {
+
+        /**
+         * The system property that sets the cache directory of {@link #configured()}.
+         */
+        public static final String CACHE_DIRECTORY_PROPERTY = "jasper.scanCache";
+
+        /** Scans sequentially without sorting the results or caching them. */
+        public static final Options DEFAULT = new Options(false, false);
+
+        /**
+         * Creates options without a scan cache.
+         *
+         * @param parallel whether the package is scanned in parallel.
+         * @param ordered  whether the results are sorted by class name.
+         */
+        public Options(
+                boolean parallel,
+                boolean ordered
+        ) {
+            this(parallel, ordered, null);
+        }
+
+        /**
+         * @return the {@link #DEFAULT} options with the cache directory of the {@value #CACHE_DIRECTORY_PROPERTY}
+         * system property, if it is set.
+         */
+        public static @NotNull Options configured() {
+            String cacheDirectory = System.getProperty(CACHE_DIRECTORY_PROPERTY);
+            return cacheDirectory == null || cacheDirectory.isBlank()
+                    ? DEFAULT
+                    : new Options(DEFAULT.parallel(), DEFAULT.ordered(), Path.of(cacheDirectory));
+        }
+    }
 }
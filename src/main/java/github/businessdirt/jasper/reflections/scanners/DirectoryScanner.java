@@ -2,36 +2,54 @@ package github.businessdirt.jasper.reflections.scanners;
 
 import github.businessdirt.jasper.reflections.exceptions.ScanningException;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * A scanner that scans a directory for any classes
  * @param basePackage the base package parsed from the ClasspathScanner
+ * @param parallel    whether the directory tree is walked and read on the common fork-join pool
  */
 public record DirectoryScanner(
-        @NotNull String basePackage
+        @NotNull String basePackage,
+        boolean parallel
 ) {
 
+    /**
+     * Creates a scanner that walks a directory tree on the calling thread.
+     * @param basePackage the base package parsed from the ClasspathScanner
+     */
+    public DirectoryScanner(@NotNull String basePackage) {
+        this(basePackage, false);
+    }
+
     /**
      * Finds all classes for a given resource.
      * @param resource the resource to scan
      * @return a set of all class names
      */
-    @SuppressWarnings("resource")
     public @NotNull Set<String> findAll(@NotNull URL resource) {
         try {
             Path packageDir = Paths.get(resource.toURI());
 
-            // Walk the file tree and find all .class files
-            return Files.walk(packageDir)
-                    .filter(path -> path.toString().endsWith(".class"))
+            return this.walk(packageDir)
                     .map(path -> {
                         Path relativePath = packageDir.relativize(path);
                         String relativeName = relativePath.toString();
@@ -48,4 +66,79 @@ public record DirectoryScanner(
             throw new ScanningException("Error scanning directory", e);
         }
     }
+
+    /**
+     * Reads and parses the class files for a given resource, without loading the classes.
+     * Class files that cannot be parsed are skipped.
+     * @param resource the resource to scan
+     * @return a set of all parsed class files
+     */
+    public @NotNull Set<ClassInfo> readAll(@NotNull URL resource) {
+        try {
+            return this.walk(Paths.get(resource.toURI()))
+                    .map(DirectoryScanner::read)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+
+        } catch (Exception e) {
+            throw new ScanningException("Error scanning directory", e);
+        }
+    }
+
+    // all class files below the directory, as a parallel stream if this scanner is parallel
+    @SuppressWarnings("resource")
+    private @NotNull Stream<Path> walk(@NotNull Path directory) throws IOException {
+        if (!this.parallel) return Files.walk(directory).filter(DirectoryScanner::isClassFile);
+
+        // Files.walk iterates the tree on a single thread, so the subdirectories are listed by separate tasks
+        return ForkJoinPool.commonPool().invoke(new Walk(directory)).parallelStream();
+    }
+
+    private static boolean isClassFile(@NotNull Path path) {
+        return path.toString().endsWith(".class");
+    }
+
+    private static @Nullable ClassInfo read(@NotNull Path path) {
+        try {
+            return ClassInfo.read(Files.readAllBytes(path));
+        } catch (IOException | IllegalArgumentException e) {
+            // Unreadable class files are skipped just like classes that cannot be loaded
+            return null;
+        }
+    }
+
+    // lists the class files of a directory and forks a task for every subdirectory
+    @SuppressWarnings("serial")
+    private static final class Walk extends RecursiveTask<List<Path>> {
+
+        private final Path directory;
+
+        private Walk(@NotNull Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        protected @NotNull List<Path> compute() {
+            List<Path> classFiles = new ArrayList<>();
+            List<Walk> subdirectories = new ArrayList<>();
+
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(this.directory)) {
+                for (Path child : children) {
+                    // like Files.walk, symbolic links to directories are not followed
+                    if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                        Walk walk = new Walk(child);
+                        walk.fork();
+                        subdirectories.add(walk);
+                    } else if (isClassFile(child)) {
+                        classFiles.add(child);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            for (Walk walk : subdirectories) classFiles.addAll(walk.join());
+            return classFiles;
+        }
+    }
 }
@@ -2,55 +2,121 @@ package github.businessdirt.jasper.reflections.scanners;
 
 import github.businessdirt.jasper.reflections.exceptions.ScanningException;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.JarURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
+import java.util.ArrayList;
 import java.util.Enumeration;
-import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * A scanner that scans a JAR file for any classes
  * @param basePackage the base package parsed from the ClasspathScanner
+ * @param parallel    whether the entries of the JAR are split across the workers of the common fork-join pool
  */
 public record JARScanner(
-        @NotNull String basePackage
+        @NotNull String basePackage,
+        boolean parallel
 ) {
 
+    /**
+     * Creates a scanner that scans the entries of a JAR one after another.
+     * @param basePackage the base package parsed from the ClasspathScanner
+     */
+    public JARScanner(@NotNull String basePackage) {
+        this(basePackage, false);
+    }
+
     /**
      * Finds all classes for a given resource.
      * @param resource the resource to scan
      * @return a set of all class names
      */
     public @NotNull Set<String> findAll(@NotNull URL resource) {
-        Set<String> classNames = new HashSet<>();
+        return this.mapClasses(resource, (_, entry) -> {
+            String name = entry.getName();
+
+            // Turn path (com/my/project/MyClass.class) into package
+            return name.substring(0, name.length() - 6).replace('/', '.');
+        });
+    }
+
+    /**
+     * Reads and parses the class files for a given resource, without loading the classes.
+     * Class files that cannot be parsed are skipped.
+     * @param resource the resource to scan
+     * @return a set of all parsed class files
+     */
+    public @NotNull Set<ClassInfo> readAll(@NotNull URL resource) {
+        return this.mapClasses(resource, (jarFile, entry) -> {
+            try (InputStream input = jarFile.getInputStream(entry)) {
+                return ClassInfo.read(input.readAllBytes());
+            } catch (IllegalArgumentException e) {
+                // Unreadable class files are skipped just like classes that cannot be loaded
+                return null;
+            }
+        });
+    }
+
+    private <T> @NotNull Set<T> mapClasses(
+            @NotNull URL resource,
+            @NotNull EntryFunction<T> function
+    ) {
         try {
             URLConnection con = resource.openConnection();
-            if (con instanceof JarURLConnection) {
-                JarFile jarFile = ((JarURLConnection) con).getJarFile();
-                String packagePath = ((JarURLConnection) con).getEntryName();
-
-                Enumeration<JarEntry> entries = jarFile.entries();
-                while (entries.hasMoreElements()) {
-                    JarEntry entry = entries.nextElement();
-                    String name = entry.getName();
-
-                    if (name.startsWith(packagePath) && name.endsWith(".class") && !entry.isDirectory()) {
-                        // Turn path (com/my/project/MyClass.class) into package
-                        String className = name.substring(0, name.length() - 6).replace('/', '.');
-
-                        classNames.add(className);
-                    }
-                }
-            }
-        } catch (IOException e) {
+            if (!(con instanceof JarURLConnection jarConnection)) return Set.of();
+
+            JarFile jarFile = jarConnection.getJarFile();
+            List<JarEntry> classes = classEntries(jarFile, jarConnection.getEntryName());
+
+            // the central directory has been read already, only reading the entries is split across the workers
+            Stream<JarEntry> entries = this.parallel ? classes.parallelStream() : classes.stream();
+            return entries.map(entry -> {
+                        try {
+                            return function.apply(jarFile, entry);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+        } catch (IOException | UncheckedIOException e) {
             throw new ScanningException("Error scanning JAR", e);
         }
+    }
+
+    private static @NotNull List<JarEntry> classEntries(
+            @NotNull JarFile jarFile,
+            @NotNull String packagePath
+    ) {
+        List<JarEntry> classes = new ArrayList<>();
+
+        Enumeration<JarEntry> entries = jarFile.entries();
+        while (entries.hasMoreElements()) {
+            JarEntry entry = entries.nextElement();
+            String name = entry.getName();
+
+            if (name.startsWith(packagePath) && name.endsWith(".class") && !entry.isDirectory()) {
+                classes.add(entry);
+            }
+        }
+
+        return classes;
+    }
 
-        return classNames;
+    @FunctionalInterface
+    private interface EntryFunction<T> {
+        @Nullable T apply(@NotNull JarFile jarFile, @NotNull JarEntry entry) throws IOException;
     }
 }
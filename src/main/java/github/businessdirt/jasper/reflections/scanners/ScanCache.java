@@ -0,0 +1,280 @@
+package github.businessdirt.jasper.reflections.scanners;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * The parsed class files of the classpath roots of a package, stored in a file so that a restart only has to read the
+ * roots that changed since the last scan.
+ * <p>
+ * A root is identified by its URL and a fingerprint: the size and modification time of a JAR, or the paths, sizes
+ * and modification times of all files below a directory. Computing a fingerprint only reads file attributes, never
+ * the class files themselves. A cache file that cannot be read is ignored and a cache file that cannot be written is
+ * skipped, since the cache is only an optimization.
+ */
+final class ScanCache {
+
+    private static final int MAGIC = 0x4A534331; // JSC1
+    private static final int VERSION = 1;
+
+    private final Path file;
+    private final Map<String, Entry> entries;
+    private final Map<String, Entry> scanned;
+    private boolean changed;
+
+    private ScanCache(
+            @NotNull Path file,
+            @NotNull Map<String, Entry> entries
+    ) {
+        this.file = file;
+        this.entries = entries;
+        this.scanned = new LinkedHashMap<>();
+    }
+
+    /**
+     * Reads the cache of a package from the given directory.
+     *
+     * @param directory   the directory that contains the cache files.
+     * @param basePackage the scanned package, which names the cache file.
+     * @return the cache, which is empty if the file does not exist or cannot be read.
+     */
+    static @NotNull ScanCache load(
+            @NotNull Path directory,
+            @NotNull String basePackage
+    ) {
+        Path file = directory.resolve(basePackage + ".scan");
+
+        Map<String, Entry> entries = new HashMap<>();
+        if (Files.isRegularFile(file)) {
+            try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                if (input.readInt() == MAGIC && input.readInt() == VERSION) {
+                    // the counts are not trusted for allocations, a damaged file must not exhaust the heap
+                    int count = input.readInt();
+                    List<String> table = new ArrayList<>(Math.min(count, 1 << 16));
+                    for (int i = 0; i < count; i++) table.add(input.readUTF());
+                    String[] strings = table.toArray(String[]::new);
+
+                    for (int roots = input.readInt(); roots > 0; roots--) {
+                        Entry entry = readEntry(input, strings);
+                        entries.put(entry.root(), entry);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // a damaged cache is the same as no cache, every root is scanned again and the file is replaced
+                entries.clear();
+            }
+        }
+
+        return new ScanCache(file, entries);
+    }
+
+    /**
+     * Returns the class files of a root, from this cache if the root has not changed since it was cached or from the
+     * scan otherwise.
+     *
+     * @param resource the URL of the package in the root.
+     * @param scan     reads the class files of the root.
+     * @return the class files of the root.
+     */
+    @NotNull Set<ClassInfo> get(
+            @NotNull URL resource,
+            @NotNull Function<URL, Set<ClassInfo>> scan
+    ) {
+        String root = resource.toExternalForm();
+        long fingerprint = fingerprint(resource);
+
+        Entry cached;
+        synchronized (this) {
+            cached = this.entries.get(root);
+        }
+
+        Entry entry = cached != null && cached.fingerprint() == fingerprint && fingerprint != 0
+                ? cached
+                : new Entry(root, fingerprint, List.copyOf(scan.apply(resource)));
+
+        synchronized (this) {
+            this.scanned.put(root, entry);
+            if (entry != cached) this.changed = true;
+        }
+
+        return new HashSet<>(entry.classes());
+    }
+
+    /**
+     * Writes the roots that have been returned by {@link #get(URL, Function)} to the cache file,
+     * if any of them changed or any cached root no longer exists. The file is replaced atomically, so a concurrent
+     * scan of the same package reads either the old or the new file.
+     */
+    synchronized void save() {
+        if (!this.changed && this.scanned.keySet().equals(this.entries.keySet())) return;
+
+        try {
+            Path directory = this.file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, this.file.getFileName().toString(), ".tmp");
+
+            try (DataOutputStream output = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                Map<String, Integer> strings = strings(this.scanned.values());
+
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeInt(strings.size());
+                for (String string : strings.keySet()) output.writeUTF(string);
+
+                output.writeInt(this.scanned.size());
+                for (Entry entry : this.scanned.values()) writeEntry(output, entry, strings);
+            } catch (IOException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+
+            Files.move(temp, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | UnsupportedOperationException e) {
+            // the next start scans the changed roots again
+        }
+    }
+
+    // identifies the contents of a root from file attributes only, or 0 if the root cannot be identified
+    private static long fingerprint(@NotNull URL resource) {
+        try {
+            return switch (resource.getProtocol()) {
+                case "file" -> directoryFingerprint(Paths.get(resource.toURI()));
+                case "jar" -> jarFingerprint(resource);
+                default -> 0;
+            };
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+            return 0;
+        }
+    }
+
+    private static long directoryFingerprint(@NotNull Path directory) throws IOException {
+        long[] fingerprint = {1};
+        Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+            @Override
+            public @NotNull FileVisitResult visitFile(
+                    @NotNull Path file,
+                    @NotNull BasicFileAttributes attributes
+            ) {
+                // the files are visited in no particular order, so their hashes are combined by a commutative sum
+                long hash = mix(file.toString().hashCode());
+                hash = mix(hash ^ attributes.size());
+                hash = mix(hash ^ attributes.lastModifiedTime().toMillis());
+                fingerprint[0] += hash;
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        return fingerprint[0];
+    }
+
+    private static long jarFingerprint(@NotNull URL resource) throws IOException, URISyntaxException {
+        URLConnection connection = resource.openConnection();
+        if (!(connection instanceof JarURLConnection jarConnection)) return 0;
+
+        Path jar = Paths.get(jarConnection.getJarFileURL().toURI());
+        BasicFileAttributes attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+        return mix(mix(attributes.size()) ^ attributes.lastModifiedTime().toMillis());
+    }
+
+    // the finalizer of SplittableRandom, which spreads every input bit over the whole hash
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    // every name is stored once in a table at the start of the file and referenced by its index
+    private static @NotNull Entry readEntry(
+            @NotNull DataInputStream input,
+            @NotNull String[] strings
+    ) throws IOException {
+        String root = input.readUTF();
+        long fingerprint = input.readLong();
+
+        int count = input.readInt();
+        List<ClassInfo> classes = new ArrayList<>(Math.min(count, 1 << 16));
+        for (int i = 0; i < count; i++) {
+            String name = strings[input.readInt()];
+            int superName = input.readInt();
+            classes.add(new ClassInfo(name, superName < 0 ? null : strings[superName], readStrings(input, strings),
+                    Set.copyOf(readStrings(input, strings)), Set.copyOf(readStrings(input, strings))));
+        }
+
+        return new Entry(root, fingerprint, classes);
+    }
+
+    private static @NotNull List<String> readStrings(
+            @NotNull DataInputStream input,
+            @NotNull String[] strings
+    ) throws IOException {
+        String[] result = new String[input.readUnsignedShort()];
+        for (int i = 0; i < result.length; i++) result[i] = strings[input.readInt()];
+        return List.of(result);
+    }
+
+    private static void writeEntry(
+            @NotNull DataOutputStream output,
+            @NotNull Entry entry,
+            @NotNull Map<String, Integer> strings
+    ) throws IOException {
+        output.writeUTF(entry.root());
+        output.writeLong(entry.fingerprint());
+        output.writeInt(entry.classes().size());
+
+        for (ClassInfo info : entry.classes()) {
+            output.writeInt(strings.get(info.name()));
+            output.writeInt(info.superName() == null ? -1 : strings.get(info.superName()));
+            writeStrings(output, info.interfaces(), strings);
+            writeStrings(output, info.annotations(), strings);
+            writeStrings(output, info.methodAnnotations(), strings);
+        }
+    }
+
+    private static void writeStrings(
+            @NotNull DataOutputStream output,
+            @NotNull Collection<String> values,
+            @NotNull Map<String, Integer> strings
+    ) throws IOException {
+        output.writeShort(values.size());
+        for (String value : values) output.writeInt(strings.get(value));
+    }
+
+    private static @NotNull Map<String, Integer> strings(@NotNull Collection<Entry> entries) {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        for (Entry entry : entries) {
+            for (ClassInfo info : entry.classes()) {
+                strings.putIfAbsent(info.name(), strings.size());
+                if (info.superName() != null) strings.putIfAbsent(info.superName(), strings.size());
+                info.interfaces().forEach(name -> strings.putIfAbsent(name, strings.size()));
+                info.annotations().forEach(name -> strings.putIfAbsent(name, strings.size()));
+                info.methodAnnotations().forEach(name -> strings.putIfAbsent(name, strings.size()));
+            }
+        }
+
+        return strings;
+    }
+
+    /**
+     * The class files of a classpath root.
+     *
+     * @param root        the URL of the package in the root.
+     * @param fingerprint the fingerprint of the root when it was scanned.
+     * @param classes     the parsed class files of the root.
+     */
+    private record Entry(
+            @NotNull String root,
+            long fingerprint,
+            @NotNull List<ClassInfo> classes
+    ) {
+    }
+}
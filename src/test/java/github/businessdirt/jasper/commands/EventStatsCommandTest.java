@@ -0,0 +1,61 @@
+package github.businessdirt.jasper.commands;
+
+import github.businessdirt.jasper.events.dummies.DummyRuntimeEvent;
+import github.businessdirt.jasper.events.dummies.TestRuntimeListener;
+import github.businessdirt.jasper.events.system.EventBus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventStatsCommandTest {
+
+    private ByteArrayOutputStream outContent;
+    private TestCommandSource source;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        this.outContent = new ByteArrayOutputStream();
+        this.source = new TestCommandSource(new PrintStream(this.outContent));
+
+        EventBus.initialize("github.businessdirt.jasper");
+        CommandRegistry.initialize("github.businessdirt.jasper");
+    }
+
+    @Test
+    @DisplayName("Should display the recorded metrics of each event and listener")
+    void run() {
+        TestRuntimeListener listener = new TestRuntimeListener();
+        EventBus.get().subscribe(listener);
+        EventBus.get().setMetricsEnabled(true);
+
+        try {
+            new DummyRuntimeEvent().post();
+            new EventStatsCommand<TestCommandSource>(EventBus::get)
+                    .run(new CommandContext<>(this.source, new HashMap<>()));
+        } finally {
+            EventBus.get().setMetricsEnabled(false);
+            EventBus.get().unsubscribe(listener);
+        }
+
+        String output = this.outContent.toString();
+        assertTrue(output.contains(DummyRuntimeEvent.class.getName() + ": posts="));
+        assertTrue(output.contains("handleDummyRuntimeEvent"));
+        assertTrue(output.contains("errors=0"));
+    }
+
+    @Test
+    @DisplayName("Should be registered as /events stats")
+    void handle() {
+        assertEquals(CommandResult.SUCCESS_STATUS,
+                CommandRegistry.handle(TestCommandSource.class, this.source, "/events stats"));
+        assertTrue(this.outContent.toString().contains("Recording is disabled"));
+    }
+}
@@ -0,0 +1,13 @@
+package github.businessdirt.jasper.events.dummies;
+
+import github.businessdirt.jasper.events.system.Event;
+import github.businessdirt.jasper.events.system.EventMerger;
+import org.jetbrains.annotations.NotNull;
+
+public class CountMerger implements EventMerger {
+
+    @Override
+    public @NotNull Event merge(@NotNull Event pending, @NotNull Event next) {
+        return new DummyMergedEvent(((DummyMergedEvent) pending).count + ((DummyMergedEvent) next).count);
+    }
+}
@@ -0,0 +1,12 @@
+package github.businessdirt.jasper.events.dummies;
+
+import github.businessdirt.jasper.events.system.CancellableEvent;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DummyAsyncEvent extends CancellableEvent {
+    public final CountDownLatch latch = new CountDownLatch(2);
+    public final AtomicInteger overlapping = new AtomicInteger();
+    public volatile boolean lowReached = false;
+}
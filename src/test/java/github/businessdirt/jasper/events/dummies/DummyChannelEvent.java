@@ -0,0 +1,20 @@
+package github.businessdirt.jasper.events.dummies;
+
+import github.businessdirt.jasper.events.system.Event;
+import github.businessdirt.jasper.events.system.KeyedEvent;
+import org.jetbrains.annotations.NotNull;
+
+public class DummyChannelEvent extends Event implements KeyedEvent<String> {
+    public final String key;
+    public final int value;
+
+    public DummyChannelEvent(String key, int value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    @Override
+    public @NotNull String getKey() {
+        return this.key;
+    }
+}
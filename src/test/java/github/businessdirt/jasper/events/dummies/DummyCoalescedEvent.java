@@ -0,0 +1,25 @@
+package github.businessdirt.jasper.events.dummies;
+
+import github.businessdirt.jasper.events.system.Coalesce;
+import github.businessdirt.jasper.events.system.Event;
+import github.businessdirt.jasper.events.system.KeyedEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+
+// the window is long enough that tests close it with EventCoalescer#flush
+@Coalesce(window = 1, unit = TimeUnit.HOURS)
+public class DummyCoalescedEvent extends Event implements KeyedEvent<String> {
+    public final String key;
+    public final int value;
+
+    public DummyCoalescedEvent(String key, int value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    @Override
+    public @NotNull String getKey() {
+        return this.key;
+    }
+}
@@ -0,0 +1,11 @@
+package github.businessdirt.jasper.events.dummies;
+
+import github.businessdirt.jasper.events.system.Event;
+
+public class DummyFilterEvent extends Event {
+    public final int value;
+
+    public DummyFilterEvent(int value) {
+        this.value = value;
+    }
+}
@@ -0,0 +1,15 @@
+package github.businessdirt.jasper.events.dummies;
+
+import github.businessdirt.jasper.events.journal.Journaled;
+import github.businessdirt.jasper.events.system.Event;
+
+@Journaled
+public class DummyJournaledEvent extends Event {
+    public final String message;
+    public final int value;
+
+    public DummyJournaledEvent(String message, int value) {
+        this.message = message;
+        this.value = value;
+    }
+}
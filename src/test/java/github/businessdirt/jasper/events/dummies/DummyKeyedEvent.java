@@ -0,0 +1,18 @@
+package github.businessdirt.jasper.events.dummies;
+
+import github.businessdirt.jasper.events.system.Event;
+import github.businessdirt.jasper.events.system.KeyedEvent;
+import org.jetbrains.annotations.NotNull;
+
+public class DummyKeyedEvent extends Event implements KeyedEvent<String> {
+    private final String key;
+
+    public DummyKeyedEvent(String key) {
+        this.key = key;
+    }
+
+    @Override
+    public @NotNull String getKey() {
+        return this.key;
+    }
+}
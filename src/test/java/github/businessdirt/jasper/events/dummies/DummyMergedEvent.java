@@ -0,0 +1,13 @@
+package github.businessdirt.jasper.events.dummies;
+
+import github.businessdirt.jasper.events.system.Coalesce;
+import github.businessdirt.jasper.events.system.Event;
+
+@Coalesce(window = 20, merger = CountMerger.class)
+public class DummyMergedEvent extends Event {
+    public final int count;
+
+    public DummyMergedEvent(int count) {
+        this.count = count;
+    }
+}
@@ -0,0 +1,16 @@
+package github.businessdirt.jasper.events.dummies;
+
+import github.businessdirt.jasper.events.system.CancellableEvent;
+import github.businessdirt.jasper.events.system.ParallelListeners;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+@ParallelListeners
+public class DummyParallelEvent extends CancellableEvent {
+    public final CountDownLatch latch = new CountDownLatch(2);
+    public final List<String> threads = new CopyOnWriteArrayList<>();
+    public volatile boolean highFinished = false;
+    public volatile boolean lowReached = false;
+}
@@ -0,0 +1,21 @@
+package github.businessdirt.jasper.events.dummies;
+
+import github.businessdirt.jasper.events.system.Event;
+import github.businessdirt.jasper.events.system.PartitionedEvent;
+import org.jetbrains.annotations.NotNull;
+
+public class DummyPartitionedEvent extends Event implements PartitionedEvent {
+    public final int entity;
+    public final int sequence;
+    public volatile Runnable action;
+
+    public DummyPartitionedEvent(int entity, int sequence) {
+        this.entity = entity;
+        this.sequence = sequence;
+    }
+
+    @Override
+    public @NotNull Object getPartitionKey() {
+        return this.entity;
+    }
+}
@@ -0,0 +1,8 @@
+package github.businessdirt.jasper.events.dummies;
+
+import github.businessdirt.jasper.events.system.CancellableEvent;
+
+public class DummyRingEvent extends CancellableEvent {
+    public long value;
+    public boolean fail;
+}
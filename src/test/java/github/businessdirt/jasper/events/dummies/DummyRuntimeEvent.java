@@ -0,0 +1,6 @@
+package github.businessdirt.jasper.events.dummies;
+
+import github.businessdirt.jasper.events.system.Event;
+
+public class DummyRuntimeEvent extends Event {
+}
@@ -0,0 +1,15 @@
+package github.businessdirt.jasper.events.dummies;
+
+import github.businessdirt.jasper.events.system.Event;
+
+import java.util.concurrent.CountDownLatch;
+
+public class DummySlowEvent extends Event {
+    public final long sleepMillis;
+    public final CountDownLatch done = new CountDownLatch(1);
+    public volatile String thread;
+
+    public DummySlowEvent(long sleepMillis) {
+        this.sleepMillis = sleepMillis;
+    }
+}
@@ -0,0 +1,13 @@
+package github.businessdirt.jasper.events.dummies;
+
+import github.businessdirt.jasper.events.system.Event;
+import github.businessdirt.jasper.events.system.EventFilter;
+import org.jetbrains.annotations.NotNull;
+
+public class EvenValueFilter implements EventFilter {
+
+    @Override
+    public boolean test(@NotNull Event event) {
+        return ((DummyFilterEvent) event).value % 2 == 0;
+    }
+}
@@ -0,0 +1,29 @@
+package github.businessdirt.jasper.events.dummies;
+
+import github.businessdirt.jasper.events.system.HandleEvent;
+
+import java.util.concurrent.TimeUnit;
+
+public class TestAsyncListener {
+
+    @HandleEvent(priority = HandleEvent.Priority.HIGH, parallel = true)
+    public void handleFirst(DummyAsyncEvent event) throws InterruptedException {
+        this.awaitOther(event);
+    }
+
+    @HandleEvent(priority = HandleEvent.Priority.HIGH, parallel = true)
+    public void handleSecond(DummyAsyncEvent event) throws InterruptedException {
+        this.awaitOther(event);
+    }
+
+    @HandleEvent(priority = HandleEvent.Priority.LOW)
+    public void handleLow(DummyAsyncEvent event) {
+        event.lowReached = true;
+    }
+
+    private void awaitOther(DummyAsyncEvent event) throws InterruptedException {
+        event.latch.countDown();
+        if (event.latch.await(5, TimeUnit.SECONDS)) event.overlapping.incrementAndGet();
+        if (event.overlapping.get() == 2) event.cancel();
+    }
+}
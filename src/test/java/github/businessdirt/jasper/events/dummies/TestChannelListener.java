@@ -0,0 +1,26 @@
+package github.businessdirt.jasper.events.dummies;
+
+import github.businessdirt.jasper.events.system.HandleEvent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class TestChannelListener {
+
+    public static final String CHANNEL = "test-channel";
+
+    @SuppressWarnings("unused")
+    public static final TestChannelListener INSTANCE = new TestChannelListener();
+
+    public final List<String> received = new CopyOnWriteArrayList<>();
+
+    @HandleEvent
+    public void handleDirect(DummyChannelEvent event) {
+        this.received.add("direct:" + event.value + ":" + Thread.currentThread().getName());
+    }
+
+    @HandleEvent(channel = CHANNEL)
+    public void handleQueued(DummyChannelEvent event) {
+        this.received.add("queued:" + event.value + ":" + Thread.currentThread().getName());
+    }
+}
@@ -0,0 +1,28 @@
+package github.businessdirt.jasper.events.dummies;
+
+import github.businessdirt.jasper.events.system.HandleEvent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestCoalesceListener {
+
+    @SuppressWarnings("unused")
+    public static final TestCoalesceListener INSTANCE = new TestCoalesceListener();
+
+    public final List<String> received = new CopyOnWriteArrayList<>();
+    public final AtomicInteger merged = new AtomicInteger();
+    public final AtomicInteger mergedInvocations = new AtomicInteger();
+
+    @HandleEvent
+    public void handleCoalesced(DummyCoalescedEvent event) {
+        this.received.add(event.key + ":" + event.value);
+    }
+
+    @HandleEvent
+    public void handleMerged(DummyMergedEvent event) {
+        this.merged.addAndGet(event.count);
+        this.mergedInvocations.incrementAndGet();
+    }
+}
@@ -0,0 +1,24 @@
+package github.businessdirt.jasper.events.dummies;
+
+import github.businessdirt.jasper.events.system.HandleEvent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestFilterListener {
+
+    @SuppressWarnings("unused")
+    public static final TestFilterListener INSTANCE = new TestFilterListener();
+
+    public final AtomicInteger received = new AtomicInteger();
+    public final AtomicInteger filtered = new AtomicInteger();
+
+    @HandleEvent
+    public void handleAll(DummyFilterEvent event) {
+        this.received.incrementAndGet();
+    }
+
+    @HandleEvent(filter = EvenValueFilter.class)
+    public void handleEven(DummyFilterEvent event) {
+        this.filtered.incrementAndGet();
+    }
+}
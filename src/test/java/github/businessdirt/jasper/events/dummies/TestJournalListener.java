@@ -0,0 +1,19 @@
+package github.businessdirt.jasper.events.dummies;
+
+import github.businessdirt.jasper.events.system.HandleEvent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class TestJournalListener {
+
+    @SuppressWarnings("unused")
+    public static final TestJournalListener INSTANCE = new TestJournalListener();
+
+    public final List<String> received = new CopyOnWriteArrayList<>();
+
+    @HandleEvent
+    public void handleJournaled(DummyJournaledEvent event) {
+        this.received.add(event.message + ":" + event.value);
+    }
+}
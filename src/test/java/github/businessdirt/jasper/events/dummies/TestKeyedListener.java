@@ -0,0 +1,29 @@
+package github.businessdirt.jasper.events.dummies;
+
+import github.businessdirt.jasper.events.system.HandleEvent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class TestKeyedListener {
+
+    @SuppressWarnings("unused")
+    public static final TestKeyedListener INSTANCE = new TestKeyedListener();
+
+    public final List<String> received = new CopyOnWriteArrayList<>();
+
+    @HandleEvent(priority = HandleEvent.Priority.HIGH)
+    public void handleAll(DummyKeyedEvent event) {
+        this.received.add("all:" + event.getKey());
+    }
+
+    @HandleEvent(key = "alpha")
+    public void handleAlpha(DummyKeyedEvent event) {
+        this.received.add("alpha:" + event.getKey());
+    }
+
+    @HandleEvent(key = "beta", priority = HandleEvent.Priority.HIGHEST)
+    public void handleBeta(DummyKeyedEvent event) {
+        this.received.add("beta:" + event.getKey());
+    }
+}
@@ -0,0 +1,23 @@
+package github.businessdirt.jasper.events.dummies;
+
+import github.businessdirt.jasper.events.system.HandleEvent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestLazyListener {
+
+    public static final AtomicInteger INSTANCES = new AtomicInteger();
+    public static volatile TestLazyListener last;
+
+    public final AtomicInteger received = new AtomicInteger();
+
+    public TestLazyListener() {
+        INSTANCES.incrementAndGet();
+        last = this;
+    }
+
+    @HandleEvent
+    public void handleLazyEvent(DummyLazyEvent event) {
+        this.received.incrementAndGet();
+    }
+}
@@ -0,0 +1,32 @@
+package github.businessdirt.jasper.events.dummies;
+
+import github.businessdirt.jasper.events.system.HandleEvent;
+
+import java.util.concurrent.TimeUnit;
+
+public class TestParallelListener {
+
+    @HandleEvent(priority = HandleEvent.Priority.HIGH)
+    public void handleFirst(DummyParallelEvent event) throws InterruptedException {
+        this.awaitOther(event);
+    }
+
+    @HandleEvent(priority = HandleEvent.Priority.HIGH)
+    public void handleSecond(DummyParallelEvent event) throws InterruptedException {
+        this.awaitOther(event);
+    }
+
+    @HandleEvent(priority = HandleEvent.Priority.LOW, receiveCancelled = true)
+    public void handleLow(DummyParallelEvent event) {
+        event.lowReached = event.highFinished;
+    }
+
+    private void awaitOther(DummyParallelEvent event) throws InterruptedException {
+        event.threads.add(Thread.currentThread().getName());
+        event.latch.countDown();
+        if (event.latch.await(5, TimeUnit.SECONDS)) {
+            event.cancel();
+            event.highFinished = true;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package github.businessdirt.jasper.events.dummies;
+
+import github.businessdirt.jasper.events.system.HandleEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class TestPartitionedListener {
+
+    @SuppressWarnings("unused")
+    public static final TestPartitionedListener INSTANCE = new TestPartitionedListener();
+
+    public final Map<Integer, List<Integer>> sequences = new ConcurrentHashMap<>();
+    public final Map<Integer, String> threads = new ConcurrentHashMap<>();
+
+    @HandleEvent
+    public void handlePartitioned(DummyPartitionedEvent event) {
+        this.sequences.computeIfAbsent(event.entity, _ -> new CopyOnWriteArrayList<>()).add(event.sequence);
+        String thread = this.threads.putIfAbsent(event.entity, Thread.currentThread().getName());
+        if (thread != null && !thread.equals(Thread.currentThread().getName()))
+            throw new IllegalStateException("entity " + event.entity + " moved to another lane");
+        if (event.action != null) event.action.run();
+    }
+}
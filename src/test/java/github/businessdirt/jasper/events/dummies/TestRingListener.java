@@ -0,0 +1,27 @@
+package github.businessdirt.jasper.events.dummies;
+
+import github.businessdirt.jasper.events.system.HandleEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TestRingListener {
+
+    @SuppressWarnings("unused")
+    public static final TestRingListener INSTANCE = new TestRingListener();
+
+    public final AtomicLong sum = new AtomicLong();
+    public final AtomicLong received = new AtomicLong();
+
+    @HandleEvent(priority = HandleEvent.Priority.HIGH)
+    public void handleRingEvent(DummyRingEvent event) {
+        this.received.incrementAndGet();
+        this.sum.addAndGet(event.value);
+        event.cancel();
+        if (event.fail) throw new IllegalStateException("failed on purpose");
+    }
+
+    @HandleEvent(priority = HandleEvent.Priority.LOW)
+    public void handleCancelledRingEvent(DummyRingEvent event) {
+        throw new IllegalStateException("cancelled events must not reach this listener");
+    }
+}
@@ -0,0 +1,15 @@
+package github.businessdirt.jasper.events.dummies;
+
+import github.businessdirt.jasper.events.system.HandleEvent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestRuntimeListener {
+
+    public final AtomicInteger received = new AtomicInteger();
+
+    @HandleEvent
+    public void handleDummyRuntimeEvent(DummyRuntimeEvent event) {
+        this.received.incrementAndGet();
+    }
+}
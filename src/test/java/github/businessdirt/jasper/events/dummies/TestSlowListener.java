@@ -0,0 +1,13 @@
+package github.businessdirt.jasper.events.dummies;
+
+import github.businessdirt.jasper.events.system.HandleEvent;
+
+public class TestSlowListener {
+
+    @HandleEvent(budgetMillis = 20)
+    public void handleSlow(DummySlowEvent event) throws InterruptedException {
+        event.thread = Thread.currentThread().getName();
+        Thread.sleep(event.sleepMillis);
+        event.done.countDown();
+    }
+}
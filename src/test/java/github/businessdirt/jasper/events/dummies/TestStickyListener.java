@@ -0,0 +1,16 @@
+package github.businessdirt.jasper.events.dummies;
+
+import github.businessdirt.jasper.events.system.HandleEvent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class TestStickyListener {
+
+    public final List<Integer> received = new CopyOnWriteArrayList<>();
+
+    @HandleEvent
+    public void handleSticky(DummyStickyEvent event) {
+        this.received.add(event.value);
+    }
+}
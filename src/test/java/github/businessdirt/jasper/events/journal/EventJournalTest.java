@@ -0,0 +1,158 @@
+package github.businessdirt.jasper.events.journal;
+
+import github.businessdirt.jasper.events.builders.EventJournalBuilder;
+import github.businessdirt.jasper.events.dummies.DummyJournaledEvent;
+import github.businessdirt.jasper.events.dummies.TestJournalListener;
+import github.businessdirt.jasper.events.system.EventBus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventJournalTest {
+
+    private static final Instant FUTURE = Instant.now().plus(Duration.ofDays(1));
+
+    @TempDir
+    Path tempDir;
+
+    private long countSegments() throws IOException {
+        try (Stream<Path> files = Files.list(this.tempDir)) {
+            return files.filter(file -> file.toString().endsWith(EventJournal.SEGMENT_SUFFIX)).count();
+        }
+    }
+
+    @Test
+    @DisplayName("Should append events concurrently and read them back across segments")
+    void testAppendAndRead() throws Exception {
+        try (EventJournal journal = new EventJournal(this.tempDir, 4096, 0, Duration.ZERO)) {
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                threads.add(Thread.ofPlatform().start(() -> {
+                    for (int i = 0; i < 250; i++) journal.append(new DummyJournaledEvent("thread-" + thread, i));
+                }));
+            }
+
+            for (Thread thread : threads) thread.join();
+
+            List<EventJournal.Record> records = journal.read(Instant.EPOCH, FUTURE);
+            assertEquals(1_000, records.size());
+            assertEquals(1_000, records.stream().map(EventJournal.Record::sequence).distinct().count());
+            assertTrue(records.stream().allMatch(record -> record.event() instanceof DummyJournaledEvent));
+
+            List<Integer> values = records.stream()
+                    .map(record -> (DummyJournaledEvent) record.event())
+                    .filter(event -> event.message.equals("thread-0"))
+                    .map(event -> event.value)
+                    .toList();
+            assertEquals(250, values.size());
+            assertEquals(values.stream().sorted().toList(), values);
+            assertTrue(this.countSegments() > 1);
+        }
+    }
+
+    @Test
+    @DisplayName("Should delete the oldest segments beyond the retention limit")
+    void testRetention() throws IOException {
+        try (EventJournal journal = new EventJournal(this.tempDir, 1024, 3, Duration.ZERO)) {
+            for (int i = 0; i < 500; i++) journal.append(new DummyJournaledEvent("retained", i));
+
+            assertEquals(3, this.countSegments());
+            List<EventJournal.Record> records = journal.read(Instant.EPOCH, FUTURE);
+            assertFalse(records.isEmpty());
+            assertEquals(499, ((DummyJournaledEvent) records.getLast().event()).value);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> new EventJournal(this.tempDir, 16, 0, Duration.ZERO));
+    }
+
+    @Test
+    @DisplayName("Should skip records that were reserved but never published")
+    void testSkipUnpublished() throws IOException {
+        try (EventJournal journal = new EventJournal(this.tempDir, 4096, 0, Duration.ZERO)) {
+            for (int i = 0; i < 4; i++) journal.append(new DummyJournaledEvent("gap", i));
+        }
+
+        Path segment;
+        try (Stream<Path> files = Files.list(this.tempDir)) {
+            segment = files.findFirst().orElseThrow();
+        }
+
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int first = buffer.getInt(0);
+            int second = buffer.getInt(first);
+
+            // a writer that crashed right after its reservation leaves zeros, one that crashed later its marker
+            buffer.put(0, new byte[first]);
+            buffer.putInt(first, -second);
+            buffer.force();
+        }
+
+        try (EventJournal journal = new EventJournal(this.tempDir, 4096, 0, Duration.ZERO)) {
+            List<Integer> values = journal.read(Instant.EPOCH, FUTURE).stream()
+                    .map(record -> ((DummyJournaledEvent) record.event()).value)
+                    .toList();
+            assertEquals(List.of(2, 3), values);
+        }
+    }
+
+    @Test
+    @DisplayName("Should continue the sequence in a new segment after reopening")
+    void testReopen() throws IOException {
+        try (EventJournal journal = new EventJournal(this.tempDir, 4096, 0, Duration.ZERO)) {
+            for (int i = 0; i < 10; i++) journal.append(new DummyJournaledEvent("first", i));
+        }
+
+        try (EventJournal journal = new EventJournal(this.tempDir, 4096, 0, Duration.ZERO)) {
+            for (int i = 0; i < 10; i++) journal.append(new DummyJournaledEvent("second", i));
+
+            Set<Long> sequences = journal.read(Instant.EPOCH, FUTURE).stream()
+                    .map(EventJournal.Record::sequence)
+                    .collect(Collectors.toSet());
+            assertEquals(20, sequences.size());
+            assertEquals(2, this.countSegments());
+            assertTrue(journal.read(Instant.EPOCH, Instant.EPOCH.plusMillis(1)).isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Should journal posted events and replay them through the event bus")
+    void testReplay() throws IOException {
+        EventBus.initialize("github.businessdirt.jasper");
+        TestJournalListener.INSTANCE.received.clear();
+
+        EventJournal journal = new EventJournalBuilder(this.tempDir).segmentSize(4096).enable();
+        try {
+            Instant start = Instant.now();
+            for (int i = 0; i < 3; i++) new DummyJournaledEvent("posted", i).post();
+            assertEquals(3, TestJournalListener.INSTANCE.received.size());
+
+            TestJournalListener.INSTANCE.received.clear();
+            assertEquals(3, journal.replay(start, FUTURE));
+
+            assertEquals(List.of("posted:0", "posted:1", "posted:2"), TestJournalListener.INSTANCE.received);
+            assertEquals(3, journal.read(Instant.EPOCH, FUTURE).size());
+        } finally {
+            EventBus.get().setJournal(null);
+        }
+
+        assertThrows(IllegalStateException.class, () -> journal.append(new DummyJournaledEvent("closed", 0)));
+    }
+}
@@ -0,0 +1,36 @@
+package github.businessdirt.jasper.events.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Should map values to buckets whose upper bound is within 12.5%")
+    void testBuckets() {
+        for (long value : new long[]{0, 1, 7, 8, 15, 16, 17, 1_000, 123_456_789, Long.MAX_VALUE}) {
+            long highest = LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(value));
+            assertTrue(highest >= value, "upper bound of " + value);
+            assertTrue(highest - value <= value / 8, "error of " + value);
+        }
+    }
+
+    @Test
+    @DisplayName("Should report percentiles and the maximum")
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.snapshot().percentile(50));
+
+        for (int i = 1; i <= 100; i++) histogram.record(i * 1_000L);
+        histogram.record(-5);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(101, snapshot.count());
+        assertEquals(0, snapshot.percentile(0));
+        assertEquals(50_000, snapshot.percentile(50), 50_000 / 8.0);
+        assertEquals(99_000, snapshot.percentile(99), 99_000 / 8.0);
+        assertEquals(100_000, snapshot.max(), 100_000 / 8.0);
+    }
+}
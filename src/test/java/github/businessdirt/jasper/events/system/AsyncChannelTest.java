@@ -0,0 +1,228 @@
+package github.businessdirt.jasper.events.system;
+
+import github.businessdirt.jasper.events.builders.AsyncChannelBuilder;
+import github.businessdirt.jasper.events.dummies.DummyChannelEvent;
+import github.businessdirt.jasper.events.dummies.DummyEvent;
+import github.businessdirt.jasper.events.dummies.TestChannelListener;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncChannelTest {
+
+    @BeforeAll
+    static void init() throws IOException {
+        EventBus.initialize("github.businessdirt.jasper");
+    }
+
+    @BeforeEach
+    void reset() {
+        TestChannelListener.INSTANCE.received.clear();
+    }
+
+    // occupies the consumer until the returned latch is released
+    private static CountDownLatch block(AsyncChannel channel) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        channel.submit(channel, new DummyEvent(), () -> {
+            started.countDown();
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        });
+
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        return release;
+    }
+
+    private static CompletableFuture<Boolean> submit(AsyncChannel channel, String key, int value, List<String> posted) {
+        return channel.submit(channel, new DummyChannelEvent(key, value), () -> {
+            posted.add(key + value);
+            return false;
+        });
+    }
+
+    private static void assertDropped(CompletableFuture<Boolean> result) {
+        CompletionException exception = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+    }
+
+    @Test
+    @DisplayName("Should drop the arriving event with DROP_NEWEST")
+    void testDropNewest() throws InterruptedException {
+        List<String> posted = new ArrayList<>();
+        AsyncChannel channel = new AsyncChannel("drop-newest", 2, AsyncChannel.OverflowPolicy.DROP_NEWEST, Set.of());
+
+        CountDownLatch release = block(channel);
+        submit(channel, "a", 1, posted);
+        submit(channel, "b", 2, posted);
+        CompletableFuture<Boolean> dropped = submit(channel, "c", 3, posted);
+        release.countDown();
+        channel.close();
+
+        assertDropped(dropped);
+        assertEquals(List.of("a1", "b2"), posted);
+        assertEquals(1, channel.getStats().dropped());
+    }
+
+    @Test
+    @DisplayName("Should drop the oldest pending event with DROP_OLDEST")
+    void testDropOldest() throws InterruptedException {
+        List<String> posted = new ArrayList<>();
+        AsyncChannel channel = new AsyncChannel("drop-oldest", 2, AsyncChannel.OverflowPolicy.DROP_OLDEST, Set.of());
+
+        CountDownLatch release = block(channel);
+        CompletableFuture<Boolean> dropped = submit(channel, "a", 1, posted);
+        submit(channel, "b", 2, posted);
+        submit(channel, "c", 3, posted);
+        release.countDown();
+        channel.close();
+
+        assertDropped(dropped);
+        assertEquals(List.of("b2", "c3"), posted);
+        assertEquals(1, channel.getStats().dropped());
+    }
+
+    @Test
+    @DisplayName("Should replace pending events with the same key with COALESCE")
+    void testCoalesce() throws InterruptedException {
+        List<String> posted = new ArrayList<>();
+        AsyncChannel channel = new AsyncChannel("coalesce", 2, AsyncChannel.OverflowPolicy.COALESCE, Set.of());
+
+        CountDownLatch release = block(channel);
+        CompletableFuture<Boolean> replaced = submit(channel, "x", 1, posted);
+        submit(channel, "y", 2, posted);
+        submit(channel, "x", 3, posted);
+        submit(channel, "x", 4, posted);
+        assertFalse(replaced.isDone());
+
+        release.countDown();
+        channel.close();
+
+        assertFalse(replaced.join());
+        assertEquals(List.of("x4", "y2"), posted);
+
+        AsyncChannel.ChannelStats stats = channel.getStats();
+        assertEquals(2, stats.coalesced());
+        assertEquals(0, stats.dropped());
+    }
+
+    @Test
+    @DisplayName("Should complete replaced events with the outcome of the event that replaced them")
+    void testCoalesceOutcome() throws InterruptedException {
+        List<String> posted = new ArrayList<>();
+        AsyncChannel channel = new AsyncChannel("coalesce-outcome", 1, AsyncChannel.OverflowPolicy.COALESCE, Set.of());
+
+        CountDownLatch release = block(channel);
+        CompletableFuture<Boolean> replaced = submit(channel, "x", 1, posted);
+        CompletableFuture<Boolean> cancelled = channel.submit(channel, new DummyChannelEvent("x", 2), () -> true);
+        release.countDown();
+        channel.close();
+
+        assertTrue(cancelled.join());
+        assertTrue(replaced.join());
+
+        channel = new AsyncChannel("coalesce-dropped", 1, AsyncChannel.OverflowPolicy.COALESCE, Set.of());
+        release = block(channel);
+        replaced = submit(channel, "x", 1, posted);
+        submit(channel, "x", 2, posted);
+        submit(channel, "y", 3, posted);
+        release.countDown();
+        channel.close();
+
+        assertDropped(replaced);
+        assertEquals(List.of("y3"), posted);
+    }
+
+    @Test
+    @DisplayName("Should make producers wait with BLOCK")
+    void testBlock() throws InterruptedException {
+        List<String> posted = new ArrayList<>();
+        AsyncChannel channel = new AsyncChannel("block", 1, AsyncChannel.OverflowPolicy.BLOCK, Set.of());
+
+        CountDownLatch release = block(channel);
+        submit(channel, "a", 1, posted);
+        Thread producer = Thread.ofVirtual().start(() -> submit(channel, "b", 2, posted));
+
+        while (producer.getState() != Thread.State.WAITING) Thread.onSpinWait();
+        assertTrue(producer.isAlive());
+
+        release.countDown();
+        producer.join();
+        channel.close();
+
+        assertEquals(List.of("a1", "b2"), posted);
+        assertEquals(0, channel.getStats().dropped());
+    }
+
+    @Test
+    @DisplayName("Should stay within its capacity during a burst and account for every event")
+    void testBurst() {
+        AsyncChannel channel = new AsyncChannel("burst", 64, AsyncChannel.OverflowPolicy.DROP_OLDEST, Set.of());
+        DummyEvent event = new DummyEvent();
+
+        for (int i = 0; i < 100_000; i++) {
+            channel.submit(channel, event, () -> {
+                LockSupport.parkNanos(1_000);
+                return false;
+            });
+            assertTrue(channel.getStats().depth() <= 64);
+        }
+
+        channel.close();
+        AsyncChannel.ChannelStats stats = channel.getStats();
+
+        assertEquals(0, stats.depth());
+        assertTrue(stats.maxDepth() <= 64);
+        assertTrue(stats.dropped() > 0);
+        assertEquals(100_000, stats.submitted());
+        assertEquals(stats.submitted(), stats.posted() + stats.dropped() + stats.coalesced());
+    }
+
+    @Test
+    @DisplayName("Should invoke channel listeners on their channel and route postAsync")
+    void testEventBusChannel() {
+        AsyncChannel channel = new AsyncChannelBuilder(TestChannelListener.CHANNEL)
+                .capacity(16)
+                .route(DummyChannelEvent.class)
+                .register();
+
+        assertSame(channel, EventBus.get().getChannel(TestChannelListener.CHANNEL));
+        assertTrue(EventBus.get().getChannels().contains(channel));
+
+        new DummyChannelEvent("a", 1).post();
+        assertFalse(new DummyChannelEvent("a", 2).postAsync().join());
+        channel.close();
+
+        String consumer = AsyncChannel.class.getSimpleName() + "-" + TestChannelListener.CHANNEL;
+        List<String> received = TestChannelListener.INSTANCE.received;
+
+        assertTrue(received.getFirst().startsWith("direct:1:"));
+        assertFalse(received.getFirst().endsWith(consumer));
+        assertTrue(received.contains("queued:1:" + consumer));
+        assertTrue(received.contains("direct:2:" + consumer));
+        assertTrue(received.contains("queued:2:" + consumer));
+        assertEquals(4, received.size());
+
+        AsyncChannel replacement = new AsyncChannelBuilder(TestChannelListener.CHANNEL).dropNewest().register();
+        assertSame(replacement, EventBus.get().getChannel(TestChannelListener.CHANNEL));
+        assertEquals(AsyncChannel.OverflowPolicy.DROP_NEWEST, replacement.getStats().policy());
+    }
+}
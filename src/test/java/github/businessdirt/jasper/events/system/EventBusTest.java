@@ -1,7 +1,21 @@
 package github.businessdirt.jasper.events.system;
 
+import github.businessdirt.jasper.events.dummies.DummyAsyncEvent;
 import github.businessdirt.jasper.events.dummies.DummyCancellableEvent;
+import github.businessdirt.jasper.events.dummies.DummyCoalescedEvent;
 import github.businessdirt.jasper.events.dummies.DummyEvent;
+import github.businessdirt.jasper.events.dummies.DummyFilterEvent;
+import github.businessdirt.jasper.events.dummies.DummyKeyedEvent;
+import github.businessdirt.jasper.events.dummies.DummyLazyEvent;
+import github.businessdirt.jasper.events.dummies.DummyParallelEvent;
+import github.businessdirt.jasper.events.dummies.DummyRingEvent;
+import github.businessdirt.jasper.events.dummies.DummyRuntimeEvent;
+import github.businessdirt.jasper.events.dummies.DummyStickyEvent;
+import github.businessdirt.jasper.events.dummies.TestLazyListener;
+import github.businessdirt.jasper.events.dummies.TestRingListener;
+import github.businessdirt.jasper.events.dummies.TestRuntimeListener;
+import github.businessdirt.jasper.events.dummies.TestStickyListener;
+import github.businessdirt.jasper.events.metrics.EventBusMetrics;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -9,6 +23,14 @@ import org.junit.jupiter.api.Test;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -60,4 +82,281 @@ class EventBusTest {
         assertTrue(output.contains("handleCancellableEvent->receiveCancelled"));
         assertFalse(output.contains("UNEXPECTED"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should subscribe and unsubscribe listeners at runtime")
+    void testSubscribeUnsubscribe() {
+        TestRuntimeListener listener = new TestRuntimeListener();
+
+        new DummyRuntimeEvent().post();
+        assertEquals(0, listener.received.get());
+
+        EventBus.get().subscribe(listener);
+        new DummyRuntimeEvent().post();
+        assertEquals(1, listener.received.get());
+
+        assertTrue(EventBus.get().unsubscribe(listener));
+        assertFalse(EventBus.get().unsubscribe(listener));
+        new DummyRuntimeEvent().post();
+        assertEquals(1, listener.received.get());
+    }
+
+    @Test
+    @DisplayName("Should replay sticky events to late subscribers")
+    void testSticky() {
+        assertNull(EventBus.get().getSticky(DummyStickyEvent.class));
+
+        new DummyStickyEvent(1).postSticky();
+        new DummyStickyEvent(2).postSticky();
+        assertEquals(2, Objects.requireNonNull(EventBus.get().getSticky(DummyStickyEvent.class)).value);
+
+        TestStickyListener listener = new TestStickyListener();
+        EventBus.get().subscribe(listener);
+        assertEquals(List.of(2), listener.received);
+
+        new DummyKeyedEvent("alpha").postSticky();
+        List<String> keys = new ArrayList<>();
+        Consumer<DummyKeyedEvent> alpha = event -> keys.add("alpha:" + event.getKey());
+        Consumer<DummyKeyedEvent> beta = event -> keys.add("beta:" + event.getKey());
+        EventBus.get().subscribe(DummyKeyedEvent.class, "alpha", alpha);
+        EventBus.get().subscribe(DummyKeyedEvent.class, "beta", beta);
+        assertEquals(List.of("alpha:alpha"), keys);
+
+        assertNotNull(EventBus.get().removeSticky(DummyStickyEvent.class));
+        assertNotNull(EventBus.get().removeSticky(DummyKeyedEvent.class));
+        assertNull(EventBus.get().getSticky(DummyStickyEvent.class));
+        EventBus.get().unsubscribe(listener);
+        EventBus.get().unsubscribe(alpha);
+        EventBus.get().unsubscribe(beta);
+    }
+
+    @Test
+    @DisplayName("Should instantiate lazy listeners once on the first post of their event type")
+    void testLazyListeners() throws Exception {
+        EventBus bus = new EventBus("github.businessdirt.jasper", true);
+        int instances = TestLazyListener.INSTANCES.get();
+
+        assertTrue(bus.isLazyListeners());
+        assertFalse(EventBus.get().isLazyListeners());
+        assertEquals(instances, TestLazyListener.INSTANCES.get());
+
+        EventHandler handler = bus.getEventHandler(DummyLazyEvent.class);
+        assertEquals(instances, TestLazyListener.INSTANCES.get());
+
+        int threads = 8;
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++)
+                futures.add(executor.submit(() -> handler.post(new DummyLazyEvent(), Throwable::printStackTrace)));
+            for (Future<Boolean> future : futures) assertFalse(future.get());
+        }
+
+        assertEquals(instances + 1, TestLazyListener.INSTANCES.get());
+        assertEquals(threads, TestLazyListener.last.received.get());
+    }
+
+    @Test
+    @DisplayName("Should post events concurrently while listeners are being registered")
+    void testConcurrentPost() throws Exception {
+        TestRuntimeListener listener = new TestRuntimeListener();
+        EventBus.get().subscribe(listener);
+
+        int threads = 8;
+        int posts = 10_000;
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < posts; j++) new DummyRuntimeEvent().post();
+                }));
+            }
+
+            for (int i = 0; i < 100; i++) {
+                TestRuntimeListener other = new TestRuntimeListener();
+                EventBus.get().subscribe(other);
+                EventBus.get().unsubscribe(other);
+            }
+
+            for (Future<?> future : futures) future.get();
+        } finally {
+            EventBus.get().unsubscribe(listener);
+        }
+
+        assertEquals(threads * posts, listener.received.get());
+    }
+
+    @Test
+    @DisplayName("Should post events asynchronously and keep cancellation semantics")
+    void testEventPostAsync() {
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output, true));
+
+        boolean cancelled = new DummyCancellableEvent().postAsync().join();
+
+        System.setOut(originalOut);
+        assertTrue(cancelled);
+        assertTrue(output.toString().contains("handleCancellableEvent->cancel"));
+        assertTrue(output.toString().contains("handleCancellableEvent->receiveCancelled"));
+        assertFalse(output.toString().contains("UNEXPECTED"));
+    }
+
+    @Test
+    @DisplayName("Should run parallel listeners of the same priority concurrently")
+    void testEventPostAsyncParallel() {
+        DummyAsyncEvent event = new DummyAsyncEvent();
+
+        assertTrue(event.postAsync().join());
+        assertEquals(2, event.overlapping.get());
+        assertFalse(event.lowReached);
+    }
+
+    @Test
+    @DisplayName("Should fan parallel listeners out on synchronous posts")
+    void testEventPostParallel() {
+        DummyAsyncEvent event = new DummyAsyncEvent();
+
+        assertTrue(event.post());
+        assertEquals(2, event.overlapping.get());
+        assertFalse(event.lowReached);
+    }
+
+    @Test
+    @DisplayName("Should run all listeners of a parallel event type concurrently per priority")
+    void testParallelListeners() {
+        DummyParallelEvent event = new DummyParallelEvent();
+
+        assertTrue(event.post());
+        assertTrue(event.lowReached);
+        assertTrue(event.threads.contains(Thread.currentThread().getName()));
+        assertTrue(event.threads.stream().anyMatch(thread -> thread.startsWith("EventBus-fan-out-")));
+    }
+
+    @Test
+    @DisplayName("Should post events the same way with and without generated dispatchers")
+    void testGeneratedDispatchToggle() {
+        assertTrue(EventBus.get().isGeneratedDispatch());
+        String generated = postEvent(new DummyEvent()) + postEvent(new DummyCancellableEvent());
+
+        EventBus.get().setGeneratedDispatch(false);
+        try {
+            assertFalse(EventBus.get().isGeneratedDispatch());
+            assertEquals(generated, postEvent(new DummyEvent()) + postEvent(new DummyCancellableEvent()));
+        } finally {
+            EventBus.get().setGeneratedDispatch(true);
+        }
+    }
+
+    @Test
+    @DisplayName("Should post batches in event-major and listener-major order")
+    void testPostAll() {
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream eventMajor = new ByteArrayOutputStream();
+        ByteArrayOutputStream listenerMajor = new ByteArrayOutputStream();
+
+        System.setOut(new PrintStream(eventMajor, true));
+        EventBus.get().postAll(DummyEvent.class, List.of(new DummyEvent(), new DummyEvent()));
+        System.setOut(new PrintStream(listenerMajor, true));
+        EventBus.get().postAll(DummyEvent.class, List.of(new DummyEvent(), new DummyEvent()),
+                null, EventHandler.BatchOrder.LISTENER_MAJOR);
+        System.setOut(originalOut);
+
+        String first = "eventType=null, event=DummyEvent" + NL;
+        String second = "eventType=DummyEvent, event=null" + NL;
+        String third = "eventType=DummyEvent, event=DummyEvent" + NL;
+        assertEquals(first + second + third + first + second + third, eventMajor.toString());
+        assertEquals(first + first + second + second + third + third, listenerMajor.toString());
+    }
+
+    @Test
+    @DisplayName("Should report cancelled events of a batch")
+    void testPostAllCancelled() {
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(new ByteArrayOutputStream(), true));
+
+        BitSet cancelled = EventBus.get().postAll(DummyCancellableEvent.class,
+                List.of(new DummyCancellableEvent(), new DummyCancellableEvent()),
+                null, EventHandler.BatchOrder.LISTENER_MAJOR);
+
+        System.setOut(originalOut);
+        assertEquals(2, cancelled.cardinality());
+        assertTrue(EventBus.get().postEach(DummyFilterEvent.class, 16, DummyFilterEvent::new, null).isEmpty());
+        assertThrows(IllegalArgumentException.class, () ->
+                EventBus.get().postAll(Event.class, List.of(new DummyEvent())));
+    }
+
+    @Test
+    @DisplayName("Should post every index through one reusable event")
+    void testPostEachReusable() {
+        TestRingListener listener = TestRingListener.INSTANCE;
+        long received = listener.received.get();
+        long sum = listener.sum.get();
+
+        DummyRingEvent event = new DummyRingEvent();
+        BitSet cancelled = EventBus.get().postEach(DummyRingEvent.class, 16, event, (e, i) -> e.value = i, null);
+
+        assertEquals(16, cancelled.cardinality());
+        assertFalse(event.isCancelled());
+        assertEquals(received + 16, listener.received.get());
+        assertEquals(sum + 120, listener.sum.get());
+        assertThrows(IllegalArgumentException.class, () -> EventBus.get().postEach(DummyCoalescedEvent.class, 1,
+                new DummyCoalescedEvent("key", 0), (_, _) -> {}, null));
+    }
+
+    @Test
+    @DisplayName("Should record post and listener metrics while enabled")
+    void testMetrics() {
+        EventBus.get().setMetricsEnabled(true);
+
+        try {
+            assertTrue(EventBus.get().isMetricsEnabled());
+            for (int i = 0; i < 3; i++) new DummyRuntimeEvent().post();
+        } finally {
+            EventBus.get().setMetricsEnabled(false);
+        }
+
+        new DummyRuntimeEvent().post();
+
+        EventBusMetrics.EventStats stats = EventBus.get().getMetrics().events().stream()
+                .filter(event -> event.name().equals(DummyRuntimeEvent.class.getName()))
+                .findFirst().orElseThrow();
+        assertEquals(3, stats.posts());
+        assertEquals(0, stats.cancelled());
+        assertEquals(3, stats.latency().count());
+        assertEquals(1, stats.listeners().size());
+        assertEquals(3, stats.listeners().getFirst().invocations());
+        assertEquals(0, stats.listeners().getFirst().errors());
+    }
+
+    @Test
+    @DisplayName("Should keep fanning parallel listeners out while metrics are recorded")
+    void testMetricsParallel() {
+        DummyAsyncEvent event = new DummyAsyncEvent();
+        EventBus.get().setMetricsEnabled(true);
+
+        try {
+            assertTrue(event.post());
+        } finally {
+            EventBus.get().setMetricsEnabled(false);
+        }
+
+        assertEquals(2, event.overlapping.get());
+        EventBusMetrics.EventStats stats = EventBus.get().getMetrics().events().stream()
+                .filter(stat -> stat.name().equals(DummyAsyncEvent.class.getName()))
+                .findFirst().orElseThrow();
+        assertTrue(stats.posts() > 0);
+        assertTrue(stats.listeners().stream().mapToLong(EventBusMetrics.ListenerStats::invocations).sum() >= 2);
+    }
+
+    @Test
+    @DisplayName("Should build every handler once when warming up")
+    void testWarmUp() {
+        EventBus.get().warmUp();
+        EventHandler handler = EventBus.get().getEventHandler(DummyEvent.class);
+
+        assertEquals(0, EventBus.get().warmUp());
+        assertSame(handler, EventBus.get().getEventHandler(DummyEvent.class));
+        assertEquals("DummyEvent", handler.getName());
+    }
+}
@@ -0,0 +1,87 @@
+package github.businessdirt.jasper.events.system;
+
+import github.businessdirt.jasper.events.dummies.DummyCoalescedEvent;
+import github.businessdirt.jasper.events.dummies.DummyMergedEvent;
+import github.businessdirt.jasper.events.dummies.TestCoalesceListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventCoalescerTest {
+
+    @BeforeAll
+    static void init() throws IOException {
+        EventBus.initialize("github.businessdirt.jasper");
+    }
+
+    // a coalescer of its own, since other tests may shut down the shared event bus and close its coalescer
+    private EventCoalescer coalescer;
+
+    @BeforeEach
+    void reset() {
+        this.coalescer = new EventCoalescer(EventBus.get()::getEventHandler);
+        TestCoalesceListener.INSTANCE.received.clear();
+        TestCoalesceListener.INSTANCE.merged.set(0);
+        TestCoalesceListener.INSTANCE.mergedInvocations.set(0);
+    }
+
+    @AfterEach
+    void close() {
+        this.coalescer.close();
+    }
+
+    @Test
+    @DisplayName("Should deliver only the last event of every key in a window")
+    void testCoalesceByKey() {
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(this.coalescer.offer(new DummyCoalescedEvent("a", i), null));
+            if (i % 2 == 0) this.coalescer.offer(new DummyCoalescedEvent("b", i), null);
+        }
+
+        assertTrue(TestCoalesceListener.INSTANCE.received.isEmpty());
+        assertEquals(2, this.coalescer.getStats().pending());
+
+        this.coalescer.flush();
+
+        assertEquals(List.of("a:999", "b:998"), TestCoalesceListener.INSTANCE.received.stream().sorted().toList());
+
+        EventCoalescer.CoalesceStats stats = this.coalescer.getStats();
+        assertEquals(1_500, stats.offered());
+        assertEquals(2, stats.posted());
+        assertEquals(0, stats.pending());
+    }
+
+    @Test
+    @DisplayName("Should merge events with the merger and post them when the window closes")
+    void testMergeWindow() throws InterruptedException {
+        for (int i = 0; i < 100; i++) this.coalescer.offer(new DummyMergedEvent(1), null);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (TestCoalesceListener.INSTANCE.merged.get() < 100 && System.nanoTime() < deadline) Thread.sleep(5);
+
+        assertEquals(100, TestCoalesceListener.INSTANCE.merged.get());
+        assertTrue(TestCoalesceListener.INSTANCE.mergedInvocations.get() < 100);
+        assertEquals(0, this.coalescer.getStats().pending());
+    }
+
+    @Test
+    @DisplayName("Should flush open windows on close and refuse events afterward")
+    void testClose() {
+        this.coalescer.offer(new DummyCoalescedEvent("a", 1), null);
+        this.coalescer.close();
+
+        assertEquals(List.of("a:1"), TestCoalesceListener.INSTANCE.received);
+        assertEquals(0, this.coalescer.getStats().pending());
+
+        assertFalse(this.coalescer.offer(new DummyCoalescedEvent("a", 2), null));
+        assertEquals(0, this.coalescer.getStats().pending());
+    }
+}
@@ -0,0 +1,155 @@
+package github.businessdirt.jasper.events.system;
+
+import com.sun.management.ThreadMXBean;
+import github.businessdirt.jasper.events.dummies.DummyFilterEvent;
+import github.businessdirt.jasper.events.dummies.DummyKeyedEvent;
+import github.businessdirt.jasper.events.dummies.TestFilterListener;
+import github.businessdirt.jasper.events.dummies.TestKeyedListener;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventListenerTest {
+
+    @BeforeAll
+    static void init() throws IOException {
+        EventBus.initialize("github.businessdirt.jasper");
+    }
+
+    @Test
+    @DisplayName("Should only invoke listeners whose filter accepts the event")
+    void testFilter() {
+        TestFilterListener listener = TestFilterListener.INSTANCE;
+        int received = listener.received.get();
+        int filtered = listener.filtered.get();
+
+        for (int i = 0; i < 10; i++) new DummyFilterEvent(i).post();
+
+        assertEquals(received + 10, listener.received.get());
+        assertEquals(filtered + 5, listener.filtered.get());
+    }
+
+    @Test
+    @DisplayName("Should skip cancelled events without a filter")
+    void testShouldInvokeCancelled() {
+        EventListener listener = EventListener.of("test", _ -> {}, HandleEvent.Priority.MEDIUM);
+        DummyCancellable event = new DummyCancellable();
+
+        assertTrue(listener.shouldInvoke(event));
+        event.cancel();
+        assertFalse(listener.shouldInvoke(event));
+    }
+
+    @Test
+    @DisplayName("Should not allocate while posting in steady state")
+    void testPostDoesNotAllocate() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        DummyFilterEvent event = new DummyFilterEvent(2);
+        int posts = 100_000;
+
+        // warm up so the handler exists and the dispatch path is compiled
+        for (int i = 0; i < 20 * posts; i++) event.post();
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < posts; i++) event.post();
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // a single byte per post would add up to 100 KB, the bound only leaves room for TLAB and counter noise
+        assertTrue(allocated < 16 * 1024, "bytes allocated by " + posts + " posts: " + allocated);
+    }
+
+    @Test
+    @DisplayName("Should only invoke keyed listeners for their key and keep the priority order")
+    void testKeyedListeners() {
+        TestKeyedListener listener = TestKeyedListener.INSTANCE;
+        listener.received.clear();
+
+        new DummyKeyedEvent("alpha").post();
+        new DummyKeyedEvent("beta").post();
+        new DummyKeyedEvent("gamma").post();
+
+        assertEquals(List.of("all:alpha", "alpha:alpha", "beta:beta", "all:beta", "all:gamma"), listener.received);
+    }
+
+    @Test
+    @DisplayName("Should route keyed events by key in batches and asynchronous posts")
+    void testKeyedBatch() {
+        TestKeyedListener listener = TestKeyedListener.INSTANCE;
+        listener.received.clear();
+
+        List<DummyKeyedEvent> batch = List.of(new DummyKeyedEvent("alpha"), new DummyKeyedEvent("gamma"),
+                new DummyKeyedEvent("beta"));
+        EventBus.get().postAll(DummyKeyedEvent.class, batch, null, EventHandler.BatchOrder.LISTENER_MAJOR);
+        assertEquals(List.of("all:alpha", "alpha:alpha", "all:gamma", "beta:beta", "all:beta"), listener.received);
+
+        listener.received.clear();
+        new DummyKeyedEvent("beta").postAsync().join();
+        assertEquals(List.of("beta:beta", "all:beta"), listener.received);
+    }
+
+    @Test
+    @DisplayName("Should dispatch keyed events and report errors the same way with a generated dispatcher")
+    void testGeneratedKeyedDispatch() {
+        for (boolean generated : new boolean[]{true, false}) {
+            List<String> received = new ArrayList<>();
+            List<Throwable> errors = new ArrayList<>();
+            EventHandler handler = new EventHandler(DummyKeyedEvent.class, List.of(
+                    EventListener.of("all", _ -> received.add("all"), HandleEvent.Priority.HIGH),
+                    EventListener.of("alpha", _ -> {
+                        received.add("alpha");
+                        throw new IllegalStateException("alpha");
+                    }, HandleEvent.Priority.MEDIUM).withKey("alpha"),
+                    EventListener.of("beta", _ -> received.add("beta"), HandleEvent.Priority.HIGHEST).withKey("beta")
+            ), generated, null);
+
+            handler.post(new DummyKeyedEvent("alpha"), errors::add);
+            handler.post(new DummyKeyedEvent("beta"), errors::add);
+            handler.post(new DummyKeyedEvent("gamma"), null);
+
+            assertEquals(List.of("all", "alpha", "beta", "all", "all"), received);
+            assertEquals(1, errors.size());
+            assertEquals("alpha", errors.getFirst().getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("Should subscribe and unsubscribe listeners for a single key at runtime")
+    void testSubscribeKey() {
+        AtomicInteger received = new AtomicInteger();
+        AtomicInteger misrouted = new AtomicInteger();
+        Consumer<DummyKeyedEvent> keyListener = _ -> received.incrementAndGet();
+        List<Consumer<DummyKeyedEvent>> others = new ArrayList<>();
+        EventBus.get().subscribe(DummyKeyedEvent.class, "delta", keyListener);
+
+        try {
+            for (int i = 0; i < 1_000; i++) {
+                Consumer<DummyKeyedEvent> other = _ -> misrouted.incrementAndGet();
+                EventBus.get().subscribe(DummyKeyedEvent.class, "key" + i, other);
+                others.add(other);
+            }
+
+            new DummyKeyedEvent("delta").post();
+            new DummyKeyedEvent("epsilon").post();
+            assertEquals(1, received.get());
+            assertEquals(0, misrouted.get());
+        } finally {
+            assertTrue(EventBus.get().unsubscribe(keyListener));
+            others.forEach(EventBus.get()::unsubscribe);
+        }
+
+        new DummyKeyedEvent("delta").post();
+        assertEquals(1, received.get());
+    }
+
+    private static final class DummyCancellable extends CancellableEvent { }
+}
@@ -0,0 +1,109 @@
+package github.businessdirt.jasper.events.system;
+
+import github.businessdirt.jasper.events.builders.ListenerWatchdogBuilder;
+import github.businessdirt.jasper.events.dummies.DummyKeyedEvent;
+import github.businessdirt.jasper.events.dummies.DummySlowEvent;
+import github.businessdirt.jasper.events.dummies.TestSlowListener;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListenerWatchdogTest {
+
+    @BeforeAll
+    static void init() throws IOException {
+        EventBus.initialize("github.businessdirt.jasper");
+    }
+
+    @Test
+    @DisplayName("Should report overruns with a stack sample and demote repeat offenders")
+    void testWatchdog() throws InterruptedException {
+        List<ListenerWatchdog.Overrun> overruns = new CopyOnWriteArrayList<>();
+        ListenerWatchdog watchdog = new ListenerWatchdogBuilder()
+                .demoteAfter(2)
+                .samplePeriod(Duration.ofMillis(5))
+                .reporter(overruns::add)
+                .enable();
+
+        try {
+            new DummySlowEvent(0).post();
+            assertTrue(overruns.isEmpty());
+
+            new DummySlowEvent(300).post();
+            assertEquals(1, overruns.size());
+
+            ListenerWatchdog.Overrun overrun = overruns.getFirst();
+            assertTrue(overrun.running());
+            assertTrue(overrun.listener().contains("handleSlow"));
+            assertEquals(DummySlowEvent.class, overrun.event());
+            assertEquals(TimeUnit.MILLISECONDS.toNanos(20), overrun.budgetNanos());
+            assertTrue(overrun.stackSample().stream()
+                    .anyMatch(element -> element.getClassName().equals(TestSlowListener.class.getName())));
+
+            new DummySlowEvent(40).post();
+            assertEquals(2, watchdog.getOverruns().values().stream().mapToInt(Integer::intValue).sum());
+            assertEquals(1, watchdog.getDemoted().size());
+
+            DummySlowEvent demoted = new DummySlowEvent(0);
+            demoted.post();
+            assertTrue(demoted.done.await(10, TimeUnit.SECONDS));
+            assertNotEquals(Thread.currentThread().getName(), demoted.thread);
+
+            // a closed watchdog no longer has threads for demoted listeners, so they run on the posting thread
+            watchdog.close();
+            DummySlowEvent afterClose = new DummySlowEvent(0);
+            afterClose.post();
+            assertEquals(0, afterClose.done.getCount());
+            assertEquals(Thread.currentThread().getName(), afterClose.thread);
+        } finally {
+            EventBus.get().setWatchdog(null);
+        }
+
+        assertNull(EventBus.get().getWatchdog());
+    }
+
+    @Test
+    @DisplayName("Should forget the overruns of unsubscribed listeners")
+    void testForgetUnsubscribed() {
+        List<ListenerWatchdog.Overrun> overruns = new CopyOnWriteArrayList<>();
+        ListenerWatchdog watchdog = new ListenerWatchdogBuilder()
+                .budget(Duration.ofMillis(1))
+                .reporter(overruns::add)
+                .enable();
+
+        Consumer<DummyKeyedEvent> slow = _ -> LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(20));
+        try {
+            EventBus.get().subscribe(DummyKeyedEvent.class, "slow", slow);
+            new DummyKeyedEvent("slow").post();
+            assertTrue(watchdog.getOverruns().keySet().stream().anyMatch(name -> name.endsWith("[slow]")));
+
+            assertTrue(EventBus.get().unsubscribe(slow));
+            assertTrue(watchdog.getOverruns().keySet().stream().noneMatch(name -> name.endsWith("[slow]")));
+            assertFalse(overruns.isEmpty());
+        } finally {
+            EventBus.get().unsubscribe(slow);
+            EventBus.get().setWatchdog(null);
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject invalid configurations")
+    void testInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new ListenerWatchdogBuilder()
+                .budget(Duration.ofMillis(-1)).build());
+        assertThrows(IllegalArgumentException.class, () -> new ListenerWatchdogBuilder()
+                .samplePeriod(Duration.ZERO).build());
+        assertThrows(IllegalArgumentException.class, () -> new ListenerWatchdogBuilder()
+                .demoteAfter(-1).build());
+    }
+}
@@ -0,0 +1,143 @@
+package github.businessdirt.jasper.events.system;
+
+import github.businessdirt.jasper.events.builders.ListenerWatchdogBuilder;
+import github.businessdirt.jasper.events.dummies.DummyCoalescedEvent;
+import github.businessdirt.jasper.events.dummies.DummyKeyedEvent;
+import github.businessdirt.jasper.events.dummies.DummyRingEvent;
+import github.businessdirt.jasper.events.dummies.TestRingListener;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferEventBusTest {
+
+    @BeforeAll
+    static void init() throws IOException {
+        EventBus.initialize("github.businessdirt.jasper");
+    }
+
+    @Test
+    @DisplayName("Should reject capacities that are not a power of two")
+    void testCapacity() {
+        assertThrows(IllegalArgumentException.class, () ->
+                new RingBufferEventBus<>(DummyRingEvent.class, 1000, DummyRingEvent::new));
+        assertEquals(1024, new RingBufferEventBus<>(DummyRingEvent.class, 1024, DummyRingEvent::new).getCapacity());
+    }
+
+    @Test
+    @DisplayName("Should reject coalesced event types, whose events would outlive their slot")
+    void testCoalescedType() {
+        assertThrows(IllegalArgumentException.class, () ->
+                new RingBufferEventBus<>(DummyCoalescedEvent.class, 16, () -> new DummyCoalescedEvent("key", 0)));
+    }
+
+    @Test
+    @DisplayName("Should fail producers instead of letting them wait for a consumer that has died")
+    void testConsumerFailure() {
+        AtomicBoolean escaped = new AtomicBoolean();
+        List<Throwable> reported = new CopyOnWriteArrayList<>();
+        Consumer<Throwable> onError = throwable -> {
+            // the first listener error escapes the error handler and stops the consumer thread
+            if (escaped.compareAndSet(false, true)) throw new Error("escaped the error handler", throwable);
+            reported.add(throwable);
+        };
+
+        try (RingBufferEventBus<DummyRingEvent> ring = new RingBufferEventBus<>(DummyRingEvent.class, 4,
+                DummyRingEvent::new, RingBufferEventBus.ProducerType.SINGLE, RingBufferEventBus.WaitStrategy.PARK,
+                onError).start()) {
+            IllegalStateException failure = assertThrows(IllegalStateException.class, () -> {
+                for (int i = 0; i < 1_000; i++) ring.publishEvent(event -> event.fail = true);
+            });
+
+            assertEquals("escaped the error handler", failure.getCause().getMessage());
+            assertEquals(List.of(failure.getCause()), reported);
+        }
+    }
+
+    @Test
+    @DisplayName("Should run demoted listeners of ring events on the consumer thread, before the slot is reused")
+    void testDemotedListener() {
+        ListenerWatchdog watchdog = new ListenerWatchdogBuilder()
+                .budget(DummyKeyedEvent.class, Duration.ofMillis(1))
+                .demoteAfter(1)
+                .reporter(_ -> {})
+                .enable();
+
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        Consumer<DummyKeyedEvent> slow = _ -> {
+            if (threads.isEmpty()) LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(20));
+            threads.add(Thread.currentThread());
+        };
+
+        try {
+            EventBus.get().subscribe(DummyKeyedEvent.class, "ring", slow);
+            try (RingBufferEventBus<DummyKeyedEvent> ring = new RingBufferEventBus<>(DummyKeyedEvent.class, 16,
+                    () -> new DummyKeyedEvent("ring")).start()) {
+                for (int i = 0; i < 100; i++) ring.publishEvent(_ -> { });
+            }
+
+            assertFalse(watchdog.getDemoted().isEmpty());
+            assertEquals(100, threads.size());
+            assertEquals(1, threads.stream().distinct().count());
+        } finally {
+            EventBus.get().unsubscribe(slow);
+            EventBus.get().setWatchdog(null);
+        }
+    }
+
+    @Test
+    @DisplayName("Should deliver every event from a single producer")
+    void testSingleProducer() throws InterruptedException {
+        assertDelivered(RingBufferEventBus.ProducerType.SINGLE, RingBufferEventBus.WaitStrategy.BUSY_SPIN, 1);
+    }
+
+    @Test
+    @DisplayName("Should deliver every event from multiple producers")
+    void testMultiProducer() throws InterruptedException {
+        assertDelivered(RingBufferEventBus.ProducerType.MULTI, RingBufferEventBus.WaitStrategy.YIELD, 4);
+        assertDelivered(RingBufferEventBus.ProducerType.MULTI, RingBufferEventBus.WaitStrategy.PARK, 4);
+    }
+
+    private void assertDelivered(
+            RingBufferEventBus.ProducerType producerType,
+            RingBufferEventBus.WaitStrategy waitStrategy,
+            int producers
+    ) throws InterruptedException {
+        TestRingListener listener = TestRingListener.INSTANCE;
+        long received = listener.received.get();
+        long sum = listener.sum.get();
+
+        AtomicInteger errors = new AtomicInteger();
+        int events = 50_000;
+
+        try (RingBufferEventBus<DummyRingEvent> ring = new RingBufferEventBus<>(DummyRingEvent.class, 256,
+                DummyRingEvent::new, producerType, waitStrategy, _ -> errors.incrementAndGet()).start()) {
+            List<Thread> threads = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                threads.add(Thread.ofPlatform().start(() -> {
+                    for (int i = 1; i <= events; i++) ring.publishEvent((event, value) -> event.value = value, (long) i);
+                }));
+            }
+
+            for (Thread thread : threads) thread.join();
+        }
+
+        long expectedSum = (long) producers * events * (events + 1) / 2;
+        assertEquals(received + (long) producers * events, listener.received.get());
+        assertEquals(sum + expectedSum, listener.sum.get());
+        assertEquals(0, errors.get());
+    }
+}
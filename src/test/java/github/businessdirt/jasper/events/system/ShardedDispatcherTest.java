@@ -0,0 +1,125 @@
+package github.businessdirt.jasper.events.system;
+
+import github.businessdirt.jasper.events.dummies.DummyEvent;
+import github.businessdirt.jasper.events.dummies.DummyPartitionedEvent;
+import github.businessdirt.jasper.events.dummies.TestPartitionedListener;
+import github.businessdirt.jasper.events.events.application.ApplicationShutdownEvent;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedDispatcherTest {
+
+    @BeforeAll
+    static void init() throws IOException {
+        EventBus.initialize("github.businessdirt.jasper");
+    }
+
+    @BeforeEach
+    void reset() {
+        TestPartitionedListener.INSTANCE.sequences.clear();
+        TestPartitionedListener.INSTANCE.threads.clear();
+    }
+
+    @Test
+    @DisplayName("Should handle the events of one key in order and spread keys over the lanes")
+    void testOrdering() {
+        AtomicInteger errors = new AtomicInteger();
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+
+        try (ShardedDispatcher dispatcher = new ShardedDispatcher(4, 8)) {
+            for (int sequence = 0; sequence < 200; sequence++) {
+                for (int entity = 0; entity < 8; entity++) {
+                    results.add(dispatcher.submit(new DummyPartitionedEvent(entity, sequence),
+                            _ -> errors.incrementAndGet()));
+                }
+            }
+
+            CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).join();
+
+            List<ShardedDispatcher.LaneStats> stats = dispatcher.getLaneStats();
+            assertEquals(4, stats.size());
+            assertEquals(1_600, stats.stream().mapToLong(ShardedDispatcher.LaneStats::posted).sum());
+            assertTrue(stats.stream().allMatch(lane -> lane.maxQueued() <= lane.capacity()));
+            assertTrue(stats.stream().filter(lane -> lane.posted() > 0).count() > 1);
+        }
+
+        assertEquals(0, errors.get());
+        List<Integer> expected = IntStream.range(0, 200).boxed().toList();
+        for (int entity = 0; entity < 8; entity++) {
+            assertEquals(expected, TestPartitionedListener.INSTANCE.sequences.get(entity));
+        }
+    }
+
+    @Test
+    @DisplayName("Should drain queued events on close and reject new ones")
+    void testClose() {
+        ShardedDispatcher dispatcher = new ShardedDispatcher(2, 64);
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 100; i++) results.add(dispatcher.submit(new DummyPartitionedEvent(1, i), null));
+
+        dispatcher.close();
+
+        assertTrue(dispatcher.isClosed());
+        assertTrue(results.stream().allMatch(CompletableFuture::isDone));
+        assertEquals(100, TestPartitionedListener.INSTANCE.sequences.get(1).size());
+        assertThrows(IllegalStateException.class, () -> dispatcher.submit(new DummyPartitionedEvent(1, 100), null));
+        assertThrows(IllegalArgumentException.class, () -> new ShardedDispatcher(0, 1));
+    }
+
+    @Test
+    @DisplayName("Should close from one of its own lanes and still post the events queued there")
+    void testCloseOnLane() {
+        ShardedDispatcher dispatcher = new ShardedDispatcher(2, 1);
+        CountDownLatch queued = new CountDownLatch(1);
+        DummyPartitionedEvent closing = new DummyPartitionedEvent(3, 0);
+        closing.action = () -> {
+            try {
+                assertTrue(queued.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+
+            // the queue of this lane is full, so it cannot wait for room for its stop marker
+            dispatcher.close();
+        };
+
+        CompletableFuture<Boolean> first = dispatcher.submit(closing, null);
+        CompletableFuture<Boolean> second = dispatcher.submit(new DummyPartitionedEvent(3, 1), null);
+        queued.countDown();
+
+        assertFalse(first.orTimeout(10, TimeUnit.SECONDS).join());
+        assertFalse(second.orTimeout(10, TimeUnit.SECONDS).join());
+        assertTrue(dispatcher.isClosed());
+        assertEquals(List.of(0, 1), TestPartitionedListener.INSTANCE.sequences.get(3));
+        assertThrows(IllegalStateException.class, () -> dispatcher.submit(new DummyPartitionedEvent(3, 2), null));
+    }
+
+    @Test
+    @DisplayName("Should post through the event bus and drain when the application shuts down")
+    void testEventBusDispatcher() {
+        ShardedDispatcher dispatcher = EventBus.get().getShardedDispatcher();
+        assertSame(dispatcher, EventBus.get().getShardedDispatcher());
+        assertThrows(IllegalStateException.class, () -> EventBus.get().enableShardedDispatch(2, 8));
+        assertThrows(IllegalArgumentException.class, () -> dispatcher.submit(new DummyEvent(), null));
+
+        assertFalse(new DummyPartitionedEvent(7, 0).postSharded().join());
+        new ApplicationShutdownEvent().post();
+
+        assertTrue(dispatcher.isClosed());
+        assertEquals(List.of(0), TestPartitionedListener.INSTANCE.sequences.get(7));
+        assertEquals(2, EventBus.get().enableShardedDispatch(2, 8).getLaneCount());
+    }
+}
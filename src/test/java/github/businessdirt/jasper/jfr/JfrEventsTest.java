@@ -0,0 +1,118 @@
+package github.businessdirt.jasper.jfr;
+
+import github.businessdirt.jasper.commands.CommandDispatcher;
+import github.businessdirt.jasper.commands.CommandResult;
+import github.businessdirt.jasper.commands.TestCommandSource;
+import github.businessdirt.jasper.commands.builder.LiteralArgumentBuilder;
+import github.businessdirt.jasper.config.dummies.DummyConfig;
+import github.businessdirt.jasper.events.dummies.DummyAsyncEvent;
+import github.businessdirt.jasper.events.dummies.DummyRuntimeEvent;
+import github.businessdirt.jasper.events.system.EventBus;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    static void init() throws IOException {
+        EventBus.initialize("github.businessdirt.jasper");
+    }
+
+    private static List<RecordedEvent> events(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).toList();
+    }
+
+    @Test
+    @DisplayName("Should only record Jasper events while a recording has them enabled")
+    void testRecording() throws IOException {
+        assertFalse(PostEvent.isRecording());
+        assertFalse(CommandExecutionEvent.isRecording());
+
+        CommandDispatcher<TestCommandSource> dispatcher = new CommandDispatcher<>();
+        dispatcher.register(LiteralArgumentBuilder.<TestCommandSource>literal("jfr")
+                .executes(_ -> CommandResult.SUCCESS_STATUS));
+
+        DummyConfig config = new DummyConfig(this.tempDir.resolve("jfr_config.json"));
+        Path dump = this.tempDir.resolve("jasper.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(PostEvent.NAME);
+            recording.enable(ListenerInvocationEvent.NAME).withThreshold(Duration.ZERO);
+            recording.enable(CommandExecutionEvent.NAME);
+            recording.enable(ConfigSaveEvent.NAME);
+            recording.start();
+
+            assertTrue(PostEvent.isRecording());
+            assertTrue(ListenerInvocationEvent.isRecording());
+            new DummyRuntimeEvent().post();
+            assertEquals(CommandResult.SUCCESS_STATUS, dispatcher.execute("jfr", new TestCommandSource()));
+            config.markDirty();
+            config.writeData();
+
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        assertFalse(PostEvent.isRecording());
+        List<RecordedEvent> recorded = RecordingFile.readAllEvents(dump);
+
+        List<RecordedEvent> posts = events(recorded, PostEvent.NAME);
+        assertEquals(1, posts.size());
+        assertEquals(DummyRuntimeEvent.class.getName(), posts.getFirst().getClass("eventType").getName());
+        assertEquals(1, posts.getFirst().getInt("listeners"));
+        assertFalse(posts.getFirst().getBoolean("cancelled"));
+
+        List<RecordedEvent> invocations = events(recorded, ListenerInvocationEvent.NAME);
+        assertEquals(1, invocations.size());
+        assertTrue(invocations.getFirst().getString("listener").contains("handleDummyRuntimeEvent"));
+
+        List<RecordedEvent> commands = events(recorded, CommandExecutionEvent.NAME);
+        assertEquals(1, commands.size());
+        assertEquals("jfr", commands.getFirst().getString("root"));
+        assertTrue(commands.getFirst().getDuration("parseTime").toNanos() > 0);
+
+        List<RecordedEvent> saves = events(recorded, ConfigSaveEvent.NAME);
+        assertEquals(1, saves.size());
+        assertEquals(Files.size(this.tempDir.resolve("jfr_config.json")), saves.getFirst().getLong("bytes"));
+    }
+
+    @Test
+    @DisplayName("Should record parallel listeners without running them one after another")
+    void testRecordingParallel() throws IOException {
+        DummyAsyncEvent event = new DummyAsyncEvent();
+        Path dump = this.tempDir.resolve("parallel.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(ListenerInvocationEvent.NAME).withThreshold(Duration.ZERO);
+            recording.start();
+
+            assertTrue(event.post());
+
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        assertEquals(2, event.overlapping.get());
+        List<RecordedEvent> invocations = events(RecordingFile.readAllEvents(dump), ListenerInvocationEvent.NAME);
+        assertEquals(2, invocations.stream()
+                .map(invocation -> invocation.getClass("eventType").getName())
+                .filter(DummyAsyncEvent.class.getName()::equals)
+                .count());
+    }
+}
@@ -0,0 +1,67 @@
+package github.businessdirt.jasper.reflections;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClassIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Path createRoot(Path root, boolean withIndex) throws IOException {
+        Files.createDirectories(root.resolve("jasper/indexed"));
+        if (withIndex) {
+            Files.createDirectories(root.resolve("META-INF/jasper"));
+            Files.writeString(root.resolve(ClassIndex.LOCATION), """
+                    # generated
+                    event jasper.indexed.nested.DummyEvent$Inner
+                    future jasper.indexed.Unknown
+                    listener jasper.indexed.DummyListener
+                    source other.DummySource
+                    """);
+        }
+
+        return root;
+    }
+
+    @Test
+    @DisplayName("Should read the entries of the base package from the index")
+    void testLoad() throws IOException {
+        Path root = createRoot(this.tempDir, true);
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{root.toUri().toURL()}, null)) {
+            ClassIndex index = ClassIndex.load("jasper.indexed", classLoader);
+
+            assertNotNull(index);
+            assertEquals(Set.of("jasper.indexed.DummyListener"), index.getClassNames(ClassIndex.Kind.LISTENER));
+            assertEquals(Set.of("jasper.indexed.nested.DummyEvent$Inner"), index.getClassNames(ClassIndex.Kind.EVENT));
+            assertTrue(index.getClassNames(ClassIndex.Kind.COMMAND_SOURCE).isEmpty());
+
+            // the indexed classes do not exist and are skipped
+            assertTrue(index.getClasses(ClassIndex.Kind.LISTENER).isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Should return null if a root that contains the package has no index")
+    void testLoadMissing() throws IOException {
+        Path indexed = createRoot(this.tempDir.resolve("indexed"), true);
+        Path scanned = createRoot(this.tempDir.resolve("scanned"), false);
+
+        try (URLClassLoader classLoader = new URLClassLoader(
+                new URL[]{indexed.toUri().toURL(), scanned.toUri().toURL()}, null)) {
+            assertNull(ClassIndex.load("jasper.indexed", classLoader));
+            assertNull(ClassIndex.load("jasper.missing", classLoader));
+        }
+    }
+}
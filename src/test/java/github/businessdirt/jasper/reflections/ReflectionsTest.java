@@ -1,14 +1,23 @@
 package github.businessdirt.jasper.reflections;
 
+import github.businessdirt.jasper.events.journal.Journaled;
+import github.businessdirt.jasper.events.system.Coalesce;
+import github.businessdirt.jasper.events.system.Event;
+import github.businessdirt.jasper.events.system.HandleEvent;
 import github.businessdirt.jasper.reflections.dummies.DummyClassA;
 import github.businessdirt.jasper.reflections.dummies.DummyClassB;
 import github.businessdirt.jasper.reflections.dummies.DummyInterface;
 import github.businessdirt.jasper.reflections.dummies.nested.DummyClassC;
+import github.businessdirt.jasper.reflections.scanners.ClasspathScanner;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -58,4 +67,96 @@ class ReflectionsTest {
         assertNotNull(foundClasses);
         assertTrue(foundClasses.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should answer queries from class files like from loaded classes")
+    void testReadClassFiles() throws IOException {
+        String basePackage = "github.businessdirt.jasper.events.dummies";
+        Reflections loaded = new Reflections(basePackage);
+        Reflections read = new Reflections(basePackage, Reflections.ScanMode.READ_CLASS_FILES);
+
+        assertFalse(read.getMethodsAnnotatedWith(HandleEvent.class).isEmpty());
+        assertEquals(loaded.getMethodsAnnotatedWith(HandleEvent.class), read.getMethodsAnnotatedWith(HandleEvent.class));
+        assertEquals(loaded.getSubTypesOf(Event.class), read.getSubTypesOf(Event.class));
+        assertEquals(loaded.getClassesAnnotatedWith(Coalesce.class), read.getClassesAnnotatedWith(Coalesce.class));
+        assertEquals(loaded.getClassesAnnotatedWith(Journaled.class), read.getClassesAnnotatedWith(Journaled.class));
+        assertEquals(loaded.getAllClasses(), read.getAllClasses());
+
+        // repeated queries return the kept result
+        assertSame(read.getMethodsAnnotatedWith(HandleEvent.class), read.getMethodsAnnotatedWith(HandleEvent.class));
+        assertSame(read.getSubTypesOf(Event.class), read.getSubTypesOf(Event.class));
+        assertThrows(UnsupportedOperationException.class, () -> read.getSubTypesOf(Event.class).clear());
+    }
+
+    @Test
+    @DisplayName("Should answer queries from the index of the given classes")
+    void testIndex() {
+        Set<Class<?>> classes = Set.of(DummyClassA.class, DummyClassB.class, DummyInterface.class, DummyClassC.class);
+        Reflections reflections = new Reflections(classes);
+
+        assertEquals(Set.of(DummyInterface.class, DummyClassB.class), reflections.getSubTypesOf(DummyInterface.class));
+        assertEquals(classes, reflections.getSubTypesOf(Object.class));
+        assertTrue(reflections.getSubTypesOf(Event.class).isEmpty());
+        assertTrue(reflections.getClassesAnnotatedWith(Coalesce.class).isEmpty());
+        assertTrue(reflections.getMethodsAnnotatedWith(HandleEvent.class).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should find the same classes in parallel and iterate them in order of their names")
+    void testParallelScan() throws IOException {
+        String basePackage = "github.businessdirt.jasper.events";
+        ClasspathScanner.Options options = new ClasspathScanner.Options(true, true);
+
+        for (Reflections.ScanMode mode : Reflections.ScanMode.values()) {
+            Reflections sequential = new Reflections(basePackage, mode);
+            Reflections parallel = new Reflections(basePackage, mode, options);
+
+            assertEquals(sequential.getAllClasses(), parallel.getAllClasses());
+            assertEquals(sequential.getSubTypesOf(Event.class), parallel.getSubTypesOf(Event.class));
+            assertEquals(sequential.getMethodsAnnotatedWith(HandleEvent.class),
+                    parallel.getMethodsAnnotatedWith(HandleEvent.class));
+
+            List<String> names = parallel.getAllClasses().stream().map(Class::getName).toList();
+            assertEquals(names.stream().sorted().toList(), names);
+
+            List<String> events = parallel.getSubTypesOf(Event.class).stream().map(Class::getName).toList();
+            assertEquals(events.stream().sorted().toList(), events);
+        }
+    }
+
+    @Test
+    @DisplayName("Should only load the classes that match a query when reading class files")
+    void testReadClassFilesLoadsMatches() throws Exception {
+        URL classes = DummyClassA.class.getProtectionDomain().getCodeSource().getLocation();
+        ClassLoader original = Thread.currentThread().getContextClassLoader();
+
+        try (IsolatedClassLoader loader = new IsolatedClassLoader(classes)) {
+            Thread.currentThread().setContextClassLoader(loader);
+            Reflections reflections = new Reflections("github.businessdirt.jasper.reflections.dummies",
+                    Reflections.ScanMode.READ_CLASS_FILES);
+            Class<?> type = loader.loadClass(DummyInterface.class.getName());
+
+            Set<String> subTypes = reflections.getSubTypesOf(type).stream()
+                    .map(Class::getName)
+                    .collect(Collectors.toSet());
+
+            assertEquals(Set.of(DummyInterface.class.getName(), DummyClassB.class.getName()), subTypes);
+            assertFalse(loader.isLoaded(DummyClassA.class.getName()));
+            assertFalse(loader.isLoaded(DummyClassC.class.getName()));
+        } finally {
+            Thread.currentThread().setContextClassLoader(original);
+        }
+    }
+
+    // loads the test classes itself, so it can tell which of them have been loaded
+    private static final class IsolatedClassLoader extends URLClassLoader {
+
+        private IsolatedClassLoader(URL classes) {
+            super(new URL[]{classes}, ClassLoader.getPlatformClassLoader());
+        }
+
+        private boolean isLoaded(String name) {
+            return this.findLoadedClass(name) != null;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package github.businessdirt.jasper.reflections;
+
+import github.businessdirt.jasper.reflections.dummies.DummyClassB;
+import github.businessdirt.jasper.reflections.dummies.DummyInterface;
+import github.businessdirt.jasper.reflections.scanners.ClasspathScanner;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScanServiceTest {
+
+    private static final String PACKAGE = "github.businessdirt.jasper.reflections.dummies";
+
+    @Test
+    @DisplayName("Should scan a package once and share the result")
+    void testMemoize() throws IOException {
+        ScanService service = new ScanService(Reflections.ScanMode.READ_CLASS_FILES, ClasspathScanner.Options.DEFAULT);
+
+        Reflections reflections = service.getReflections(PACKAGE);
+        assertSame(reflections, service.getReflections(PACKAGE));
+        assertEquals(Set.of(DummyInterface.class, DummyClassB.class), reflections.getSubTypesOf(DummyInterface.class));
+
+        service.invalidate(PACKAGE);
+        assertNotSame(reflections, service.getReflections(PACKAGE));
+    }
+
+    @Test
+    @DisplayName("Should let concurrent callers wait for a single scan")
+    void testSingleFlight() throws InterruptedException, ExecutionException {
+        ScanService service = new ScanService(Reflections.ScanMode.READ_CLASS_FILES, ClasspathScanner.Options.DEFAULT);
+
+        List<Callable<Reflections>> callers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) callers.add(() -> service.getReflections(PACKAGE));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Reflections>> results = executor.invokeAll(callers);
+            Reflections first = results.getFirst().get();
+            for (Future<Reflections> result : results) assertSame(first, result.get());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package github.businessdirt.jasper.reflections.scanners;
+
+import github.businessdirt.jasper.reflections.dummies.DummyClassA;
+import github.businessdirt.jasper.reflections.dummies.DummyClassB;
+import github.businessdirt.jasper.reflections.dummies.DummyInterface;
+import github.businessdirt.jasper.reflections.dummies.nested.DummyClassC;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScanCacheTest {
+
+    private static final String PACKAGE = "github.businessdirt.jasper.reflections.dummies";
+
+    @TempDir
+    Path temp;
+
+    // copies the class files of the dummies into their own classpath root
+    private Path copyDummies() throws IOException {
+        Path root = this.temp.resolve("classes");
+        for (Class<?> type : Set.of(DummyClassA.class, DummyClassB.class, DummyInterface.class, DummyClassC.class)) {
+            String path = type.getName().replace('.', '/') + ".class";
+            try (InputStream input = type.getClassLoader().getResourceAsStream(path)) {
+                assertNotNull(input);
+                Path target = root.resolve(path);
+                Files.createDirectories(target.getParent());
+                Files.write(target, input.readAllBytes());
+            }
+        }
+
+        return root;
+    }
+
+    private static Set<String> scan(Path root, Path cache) throws IOException {
+        ClassLoader original = Thread.currentThread().getContextClassLoader();
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{root.toUri().toURL()}, null)) {
+            Thread.currentThread().setContextClassLoader(loader);
+            return new ClasspathScanner(PACKAGE, new ClasspathScanner.Options(false, false, cache)).scanClassFiles()
+                    .stream()
+                    .map(ClassInfo::name)
+                    .collect(Collectors.toSet());
+        } finally {
+            Thread.currentThread().setContextClassLoader(original);
+        }
+    }
+
+    @Test
+    @DisplayName("Should read unchanged roots from the cache and scan changed roots again")
+    void testCache() throws IOException {
+        Path root = this.copyDummies();
+        Path cache = this.temp.resolve("cache");
+        Set<String> all = Set.of(DummyClassA.class.getName(), DummyClassB.class.getName(),
+                DummyInterface.class.getName(), DummyClassC.class.getName());
+
+        assertEquals(all, scan(root, cache));
+        assertTrue(Files.isRegularFile(cache.resolve(PACKAGE + ".scan")));
+
+        // a class file that cannot be parsed anymore, but looks unchanged, is still served from the cache
+        Path classB = root.resolve(DummyClassB.class.getName().replace('.', '/') + ".class");
+        FileTime modified = Files.getLastModifiedTime(classB);
+        Files.write(classB, new byte[(int) Files.size(classB)]);
+        Files.setLastModifiedTime(classB, modified);
+        assertEquals(all, scan(root, cache));
+
+        // deleting a class file changes the root, which is scanned again
+        Files.delete(root.resolve(DummyClassA.class.getName().replace('.', '/') + ".class"));
+        assertEquals(Set.of(DummyInterface.class.getName(), DummyClassC.class.getName()), scan(root, cache));
+    }
+
+    @Test
+    @DisplayName("Should ignore a damaged cache file")
+    void testDamagedCache() throws IOException {
+        Path root = this.copyDummies();
+        Path cache = this.temp.resolve("cache");
+
+        Files.createDirectories(cache);
+        Files.write(cache.resolve(PACKAGE + ".scan"), new byte[]{0x4A, 0x53, 0x43, 0x31, 0, 0, 0, 1, 0x7F});
+
+        assertEquals(4, scan(root, cache).size());
+        assertEquals(4, scan(root, cache).size());
+    }
+}